@@ -0,0 +1,114 @@
+package com.pc.greenbay.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The few greenBay endpoints the load generator calls, all asynchronous so a slow
+ * response never holds back the next arrival.
+ */
+final class GreenBayClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    record Response(int status, JsonNode body) {
+
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+
+        String error() {
+            JsonNode error = body == null ? null : body.get("error");
+            return error == null ? "" : error.asText();
+        }
+    }
+
+    GreenBayClient(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    CompletableFuture<Response> login(String username, String password) {
+        return post("/api/login", null, Map.of("username", username, "password", password));
+    }
+
+    CompletableFuture<Response> createItem(String token, String name, int startingPrice, int purchasePrice) {
+        return post("/api/item", token, Map.of(
+                "name", name,
+                "description", "load test item",
+                "photoURL", "/img/load_test.png",
+                "startingPrice", startingPrice,
+                "purchasePrice", purchasePrice,
+                "durationHours", 24));
+    }
+
+    CompletableFuture<Response> listItems(String token, int page) {
+        return get("/api/item?page=" + page, token);
+    }
+
+    CompletableFuture<Response> itemDetails(String token, UUID itemId) {
+        return get("/api/item/" + itemId, token);
+    }
+
+    CompletableFuture<Response> placeBid(String token, UUID itemId, int bidAmount) {
+        return post("/api/bid/" + itemId, token, Map.of("bidAmount", bidAmount));
+    }
+
+    private CompletableFuture<Response> get(String path, String token) {
+        return send(request(path, token).GET().build());
+    }
+
+    private CompletableFuture<Response> post(String path, String token, Map<String, Object> body) {
+        try {
+            return send(request(path, token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build());
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private CompletableFuture<Response> send(HttpRequest request) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> new Response(response.statusCode(), parse(response.body())));
+    }
+
+    private JsonNode parse(byte[] body) {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
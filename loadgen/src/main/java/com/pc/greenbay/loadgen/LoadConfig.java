@@ -0,0 +1,80 @@
+package com.pc.greenbay.loadgen;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of one load run, every field can be overridden with a --name=value argument.
+ */
+public record LoadConfig(String baseUrl, int users, String userPrefix, String password, int items,
+                         int durationSeconds, int warmupSeconds, double rate, boolean poisson, int maxInFlight,
+                         int listingWeight, int detailWeight, int bidWeight, int listingPages,
+                         double zipfExponent, int startingPrice, int purchasePrice, int maxIncrement,
+                         double buyoutProbability, long seed) {
+
+    public static LoadConfig fromArgs(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        LoadConfig config = new LoadConfig(
+                values.getOrDefault("base-url", "http://localhost:8080"),
+                intValue(values, "users", 200),
+                values.getOrDefault("user-prefix", "loaduser"),
+                values.getOrDefault("password", "load12345"),
+                intValue(values, "items", 100),
+                intValue(values, "duration", 60),
+                intValue(values, "warmup", 5),
+                doubleValue(values, "rate", 200),
+                Boolean.parseBoolean(values.getOrDefault("poisson", "true")),
+                intValue(values, "max-in-flight", 1000),
+                intValue(values, "listing-weight", 20),
+                intValue(values, "detail-weight", 30),
+                intValue(values, "bid-weight", 50),
+                intValue(values, "listing-pages", 5),
+                doubleValue(values, "zipf-exponent", 1.1),
+                intValue(values, "starting-price", 1),
+                intValue(values, "purchase-price", 2000),
+                intValue(values, "max-increment", 20),
+                doubleValue(values, "buyout-probability", 0.01),
+                Long.parseLong(values.getOrDefault("seed", "42")));
+        if (!values.keySet().stream().allMatch(LoadConfig::known)) {
+            throw new IllegalArgumentException("Unknown option in " + values.keySet());
+        }
+        return config.validate();
+    }
+
+    private LoadConfig validate() {
+        if (users < 2 || items < 1 || rate <= 0 || durationSeconds < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("users must be at least 2, items, rate, duration and max-in-flight positive");
+        }
+        if (listingWeight < 0 || detailWeight < 0 || bidWeight < 0 || listingWeight + detailWeight + bidWeight == 0) {
+            throw new IllegalArgumentException("Traffic weights must not be negative and not all zero");
+        }
+        if (purchasePrice <= startingPrice) {
+            throw new IllegalArgumentException("purchase-price must be higher than starting-price");
+        }
+        return this;
+    }
+
+    private static boolean known(String name) {
+        return switch (name) {
+            case "base-url", "users", "user-prefix", "password", "items", "duration", "warmup", "rate", "poisson",
+                    "max-in-flight", "listing-weight", "detail-weight", "bid-weight", "listing-pages", "zipf-exponent",
+                    "starting-price", "purchase-price", "max-increment", "buyout-probability", "seed" -> true;
+            default -> false;
+        };
+    }
+
+    private static int intValue(Map<String, String> values, String name, int defaultValue) {
+        return values.containsKey(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+    }
+
+    private static double doubleValue(Map<String, String> values, String name, double defaultValue) {
+        return values.containsKey(name) ? Double.parseDouble(values.get(name)) : defaultValue;
+    }
+}
@@ -0,0 +1,239 @@
+package com.pc.greenbay.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open loop load generator for a running greenBay instance. Logs in the synthetic users
+ * of the loadtest profile, creates items, then sends listing, item detail and bid requests
+ * at the configured arrival rate whether or not earlier requests have completed. Items are
+ * picked by Zipfian popularity. Afterwards every item is checked for double sells.
+ */
+public final class LoadGenerator {
+
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final LoadConfig config;
+    private final GreenBayClient client;
+    private final ZipfDistribution popularity;
+    private final Semaphore inFlight;
+    private final LoadReport report = new LoadReport();
+    private final List<String> tokens = new ArrayList<>();
+    private final List<TrackedItem> items = new ArrayList<>();
+
+    /**
+     * What the generator learned about an item from its own responses.
+     */
+    private static final class TrackedItem {
+
+        private final UUID id;
+        private final int sellerIndex;
+        private final AtomicInteger knownBid = new AtomicInteger();
+        private final AtomicInteger purchases = new AtomicInteger();
+        private volatile String buyer;
+
+        private TrackedItem(UUID id, int sellerIndex) {
+            this.id = id;
+            this.sellerIndex = sellerIndex;
+        }
+
+        private void seen(int bidAmount) {
+            knownBid.accumulateAndGet(bidAmount, Math::max);
+        }
+    }
+
+    LoadGenerator(LoadConfig config) {
+        this.config = config;
+        this.client = new GreenBayClient(config.baseUrl());
+        this.popularity = new ZipfDistribution(config.items(), config.zipfExponent());
+        this.inFlight = new Semaphore(config.maxInFlight());
+    }
+
+    public static void main(String[] args) {
+        LoadConfig config = LoadConfig.fromArgs(args);
+        LoadGenerator generator = new LoadGenerator(config);
+        generator.setUp();
+        generator.run();
+        generator.verify();
+        generator.report.print(config, System.out);
+        System.exit(generator.report.consistent() ? 0 : 1);
+    }
+
+    void setUp() {
+        List<CompletableFuture<GreenBayClient.Response>> logins = new ArrayList<>();
+        for (int i = 1; i <= config.users(); i++) {
+            logins.add(client.login(config.userPrefix() + i, config.password()));
+        }
+        for (int i = 0; i < logins.size(); i++) {
+            GreenBayClient.Response response = logins.get(i).join();
+            if (!response.ok()) {
+                throw new IllegalStateException("Login of " + username(i) + " failed with " + response.status() + " " + response.error()
+                        + ", is the server running with the loadtest profile?");
+            }
+            tokens.add(response.body().get("access_token").asText());
+        }
+
+        List<CompletableFuture<GreenBayClient.Response>> creations = new ArrayList<>();
+        for (int i = 0; i < config.items(); i++) {
+            creations.add(client.createItem(tokens.get(i % tokens.size()), "load item " + i, config.startingPrice(), config.purchasePrice()));
+        }
+        for (int i = 0; i < creations.size(); i++) {
+            GreenBayClient.Response response = creations.get(i).join();
+            if (!response.ok()) {
+                throw new IllegalStateException("Item creation failed with " + response.status() + " " + response.error());
+            }
+            items.add(new TrackedItem(UUID.fromString(response.body().get("item_ID").asText()), i % tokens.size()));
+        }
+        System.out.printf("Logged in %d users and created %d items%n", tokens.size(), items.size());
+    }
+
+//    One thread keeps the schedule, requests that are due are sent even if the previous ones are still open
+    void run() {
+        SplittableRandom random = new SplittableRandom(config.seed());
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(config.warmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(config.durationSeconds());
+        long due = start;
+        while (due < end) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            dispatch(random, due, due >= measureFrom);
+            double gap = config.poisson() ? -Math.log(1 - random.nextDouble()) * meanGapNanos : meanGapNanos;
+            due += Math.max(1, (long) gap);
+        }
+        long drainUntil = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (inFlight.availablePermits() < config.maxInFlight() && System.nanoTime() < drainUntil) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private void dispatch(SplittableRandom random, long due, boolean measured) {
+        if (!inFlight.tryAcquire()) {
+            if (measured) {
+                report.dropped();
+            }
+            return;
+        }
+        int userIndex = random.nextInt(tokens.size());
+        String token = tokens.get(userIndex);
+        int pick = random.nextInt(config.listingWeight() + config.detailWeight() + config.bidWeight());
+        LoadReport.Operation operation;
+        CompletableFuture<String> outcome;
+        if (pick < config.listingWeight()) {
+            operation = LoadReport.Operation.LISTING;
+            outcome = client.listItems(token, 1 + random.nextInt(Math.max(1, config.listingPages())))
+                    .thenApply(LoadGenerator::describe);
+        } else if (pick < config.listingWeight() + config.detailWeight()) {
+            operation = LoadReport.Operation.DETAIL;
+            outcome = client.itemDetails(token, items.get(popularity.sample(random)).id)
+                    .thenApply(LoadGenerator::describe);
+        } else {
+            operation = LoadReport.Operation.BID;
+            TrackedItem item = items.get(popularity.sample(random));
+            int bidAmount = random.nextDouble() < config.buyoutProbability()
+                    ? config.purchasePrice()
+                    : Math.max(config.startingPrice(), item.knownBid.get() + 1 + random.nextInt(Math.max(1, config.maxIncrement())));
+            outcome = client.placeBid(token, item.id, bidAmount)
+                    .thenApply(response -> bidOutcome(item, bidAmount, response));
+        }
+        outcome.whenComplete((result, error) -> {
+            inFlight.release();
+            if (measured) {
+                long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due);
+                report.record(operation, micros, error == null ? result : "failed " + rootCause(error).getClass().getSimpleName());
+            }
+        });
+    }
+
+    private String bidOutcome(TrackedItem item, int bidAmount, GreenBayClient.Response response) {
+        if (response.ok() && response.body() != null && response.body().has("buyer")) {
+            item.seen(bidAmount);
+            item.purchases.incrementAndGet();
+            item.buyer = response.body().get("buyer").asText();
+            return "bought";
+        }
+        if (response.ok()) {
+            item.seen(bidAmount);
+            return "placed";
+        }
+//        The last bid is at least this high, the next bid on the item starts above it
+        if (response.status() == 400 && response.error().contains("too low")) {
+            item.seen(bidAmount);
+        }
+        return describe(response);
+    }
+
+    void verify() {
+        String token = tokens.get(0);
+        List<CompletableFuture<GreenBayClient.Response>> details = new ArrayList<>();
+        for (TrackedItem item : items) {
+            details.add(client.itemDetails(token, item.id));
+        }
+        int sold = 0;
+        int doubleSells = 0;
+        int mismatchedBuyers = 0;
+        int unconfirmed = 0;
+        int unverified = 0;
+        for (int i = 0; i < items.size(); i++) {
+            TrackedItem item = items.get(i);
+            GreenBayClient.Response response;
+            try {
+                response = details.get(i).join();
+            } catch (CompletionException e) {
+                unverified++;
+                continue;
+            }
+            if (!response.ok()) {
+                unverified++;
+                continue;
+            }
+            JsonNode body = response.body();
+            String buyer = body != null && body.hasNonNull("buyer") ? body.get("buyer").asText() : null;
+            if (buyer != null) {
+                sold++;
+            }
+            if (item.purchases.get() > 1) {
+                doubleSells++;
+            }
+            if (item.purchases.get() > 0 && !item.buyer.equals(buyer)) {
+                mismatchedBuyers++;
+            }
+            if (item.purchases.get() == 0 && buyer != null) {
+                unconfirmed++;
+            }
+            if (buyer != null && buyer.equals(username(item.sellerIndex))) {
+                mismatchedBuyers++;
+            }
+        }
+        report.verified(sold, doubleSells, mismatchedBuyers, unconfirmed, unverified);
+    }
+
+    private String username(int userIndex) {
+        return config.userPrefix() + (userIndex + 1);
+    }
+
+    private static String describe(GreenBayClient.Response response) {
+        return response.ok() ? String.valueOf(response.status()) : response.status() + " " + response.error();
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
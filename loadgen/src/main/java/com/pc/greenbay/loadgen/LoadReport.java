@@ -0,0 +1,89 @@
+package com.pc.greenbay.loadgen;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of the measured part of a run. Latency is taken from the time a
+ * request was due, not from when it was sent, so a server that falls behind shows up in
+ * the percentiles instead of silently lowering the offered load.
+ */
+final class LoadReport {
+
+    enum Operation {
+        LISTING, DETAIL, BID
+    }
+
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private int doubleSells;
+    private int mismatchedBuyers;
+    private int unconfirmedSales;
+    private int soldItems;
+    private int unverifiedItems;
+
+    LoadReport() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+    }
+
+    void record(Operation operation, long micros, String outcome) {
+        latencies.get(operation).record(micros);
+        outcomes.computeIfAbsent(operation.name().toLowerCase() + " " + outcome, key -> new LongAdder()).increment();
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    void verified(int soldItems, int doubleSells, int mismatchedBuyers, int unconfirmedSales, int unverifiedItems) {
+        this.soldItems = soldItems;
+        this.doubleSells = doubleSells;
+        this.mismatchedBuyers = mismatchedBuyers;
+        this.unconfirmedSales = unconfirmedSales;
+        this.unverifiedItems = unverifiedItems;
+    }
+
+    boolean consistent() {
+        return doubleSells == 0 && mismatchedBuyers == 0 && unverifiedItems == 0;
+    }
+
+    void print(LoadConfig config, PrintStream out) {
+        out.printf("greenBay load run: %d s measured after %d s warm-up, %.1f req/s offered (%s), %d users, %d items, zipf %.2f%n",
+                config.durationSeconds(), config.warmupSeconds(), config.rate(), config.poisson() ? "poisson" : "fixed",
+                config.users(), config.items(), config.zipfExponent());
+        out.printf("%-8s %9s %10s %9s %9s %9s %9s %9s%n", "", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        long total = 0;
+        for (Map.Entry<Operation, LatencyHistogram> entry : latencies.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            long count = histogram.count();
+            total += count;
+            out.printf("%-8s %9d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey().name().toLowerCase(), count,
+                    (double) count / config.durationSeconds(), millis(histogram.percentile(50)), millis(histogram.percentile(90)),
+                    millis(histogram.percentile(99)), millis(histogram.percentile(99.9)), millis(histogram.max()));
+        }
+        out.printf("%-8s %9d %10.1f%n", "total", total, (double) total / config.durationSeconds());
+        out.println();
+        out.println("Outcomes:");
+        new TreeMap<>(outcomes).forEach((outcome, count) -> out.printf("  %9d  %s%n", count.sum(), outcome));
+        if (dropped.sum() > 0) {
+            out.printf("  %9d  not sent, %d requests were already in flight%n", dropped.sum(), config.maxInFlight());
+        }
+        out.println();
+        out.printf("Sold items: %d, double sells: %d, buyer mismatches: %d, sales without a confirmed response: %d%n",
+                soldItems, doubleSells, mismatchedBuyers, unconfirmedSales);
+        if (unverifiedItems > 0) {
+            out.printf("Items that could not be checked: %d%n", unverifiedItems);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
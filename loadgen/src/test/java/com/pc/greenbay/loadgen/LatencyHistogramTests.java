@@ -0,0 +1,44 @@
+package com.pc.greenbay.loadgen;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyHistogramTests {
+
+    @Test
+    @DisplayName("JUnit test for latency percentiles staying within the bucket precision")
+    void givenRecordedValues_whenPercentile_thenWithinThreePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 100_000; micros++) {
+            histogram.record(micros);
+        }
+
+        assertThat(histogram.count()).isEqualTo(100_000);
+        assertThat(histogram.percentile(50)).isBetween(50_000L, 51_500L);
+        assertThat(histogram.percentile(99)).isBetween(99_000L, 102_000L);
+        assertThat(histogram.max()).isBetween(100_000L, 103_000L);
+    }
+
+    @Test
+    @DisplayName("JUnit test for every value falling into a bucket whose bounds contain it")
+    void givenValue_whenIndex_thenUpperBoundNotBelowValue() {
+        for (long value : new long[]{0, 1, 63, 64, 65, 127, 128, 1_000, 123_456, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.index(value);
+            assertThat(LatencyHistogram.upperBound(index)).isGreaterThanOrEqualTo(value);
+            if (index > 0) {
+                assertThat(LatencyHistogram.upperBound(index - 1)).isLessThan(value);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("JUnit test for an empty latency histogram")
+    void givenNothingRecorded_whenPercentile_thenZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.percentile(99)).isZero();
+        assertThat(histogram.max()).isZero();
+    }
+}
@@ -0,0 +1,39 @@
+package com.pc.greenbay.loadgen;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class ZipfDistributionTests {
+
+    @Test
+    @DisplayName("JUnit test for Zipfian sampling favouring the first ranks")
+    void givenExponent_whenSample_thenFollowPopularity() {
+        ZipfDistribution distribution = new ZipfDistribution(100, 1.1);
+        SplittableRandom random = new SplittableRandom(7);
+        int[] counts = new int[100];
+        int samples = 200_000;
+        for (int i = 0; i < samples; i++) {
+            counts[distribution.sample(random)]++;
+        }
+
+        assertThat((double) counts[0] / samples).isCloseTo(distribution.probability(0), within(0.01));
+        assertThat(counts[0]).isGreaterThan(counts[1]);
+        assertThat(counts[1]).isGreaterThan(counts[10]);
+        assertThat(counts[10]).isGreaterThan(counts[99]);
+    }
+
+    @Test
+    @DisplayName("JUnit test for Zipfian sampling with exponent zero being uniform")
+    void givenZeroExponent_whenProbability_thenUniform() {
+        ZipfDistribution distribution = new ZipfDistribution(4, 0);
+
+        for (int rank = 0; rank < 4; rank++) {
+            assertThat(distribution.probability(rank)).isCloseTo(0.25, within(1e-9));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.pc.greenbay.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pc.greenbay.exception.LowBidException;
+import com.pc.greenbay.model.ErrorDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of answering a rejected bid before and after rejections became stackless. The old
+ * path builds a fresh exception with its stack trace, renders that trace the way the error
+ * log did and serializes the error body. The new path is the handler as it is today, with
+ * the shared rejection instance and the pre-serialized body.
+ * Run with ./gradlew jmh, it is not part of the test suite.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RejectionPathBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PrintWriter errorLog = new PrintWriter(Writer.nullWriter());
+    private RestExceptionHandler handler;
+
+    @Setup
+    public void setup() {
+        handler = new RestExceptionHandler(objectMapper, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Object stackTraceAndSerializedBody() throws Exception {
+        try {
+            throw new IllegalStateException(LowBidException.LOW_BID.getMessage());
+        } catch (IllegalStateException ex) {
+            ex.printStackTrace(errorLog);
+            return objectMapper.writeValueAsBytes(new ErrorDTO(ex.getMessage()));
+        }
+    }
+
+    @Benchmark
+    public Object sharedRejectionAndCachedBody() {
+        try {
+            throw LowBidException.LOW_BID;
+        } catch (LowBidException ex) {
+            return handler.handleBidRejectedException(ex);
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.pc.greenbay;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class GreenBayApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,53 @@
+package com.pc.greenbay.bootstrap;
+
+import com.pc.greenbay.entity.User;
+import com.pc.greenbay.repository.UserRepository;
+import com.pc.greenbay.service.UserService;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Synthetic users for the load generator, created with the loadtest profile only.
+ * They share one password hash, encoding it per user would dominate the startup.
+ */
+@Profile("loadtest")
+@Component
+public class LoadTestData implements CommandLineRunner {
+
+    private final UserRepository userRepository;
+    private final UserService userService;
+
+    @Value("${greenbay.loadtest.users:200}")
+    private int users;
+    @Value("${greenbay.loadtest.user-prefix:loaduser}")
+    private String userPrefix;
+    @Value("${greenbay.loadtest.password:load12345}")
+    private String password;
+    @Value("${greenbay.loadtest.balance:1000000}")
+    private double balance;
+
+    public LoadTestData(UserRepository userRepository, UserService userService) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+    }
+
+    @Transactional
+    @Override
+    public void run(String... args) throws Exception {
+        String encodedPassword = userService.encodePassword(password);
+        for (int i = 1; i <= users; i++) {
+            String username = userPrefix + i;
+            if (userRepository.findByUsername(username).isEmpty()) {
+                userService.saveUser(User.builder()
+                        .username(username)
+                        .password(encodedPassword)
+                        .balance(balance)
+                        .roles("ROLE_USER")
+                        .build());
+            }
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.pc.greenbay.config;
 
+import com.pc.greenbay.filter.IdempotencyFilter;
 import com.pc.greenbay.filter.JwtAuthFilter;
+import com.pc.greenbay.filter.RateLimitFilter;
 import com.pc.greenbay.service.UserInfoUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -33,26 +36,43 @@ public class DefaultSecurityConfig {
     @Autowired
     private JwtAuthFilter jwtAuthFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private IdempotencyFilter idempotencyFilter;
+
     @Bean
     SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http,
                                                    HandlerMappingIntrospector introspector) throws Exception {
         MvcRequestMatcher.Builder mvcMatcherBuilder = new MvcRequestMatcher.Builder(introspector);
         http.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
         http.authorizeHttpRequests((requests) -> requests
+//                        The initial request of an async response has already been authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(mvcMatcherBuilder.pattern("/api/login")).permitAll()
                         .requestMatchers(mvcMatcherBuilder.pattern("/api/isRunning")).hasRole("USER")
                         .requestMatchers(mvcMatcherBuilder.pattern(HttpMethod.POST,"/api/item")).hasRole("USER")
+                        .requestMatchers(mvcMatcherBuilder.pattern(HttpMethod.GET,"/api/item/search")).hasAnyRole("USER", "ADMIN")
                         .requestMatchers(mvcMatcherBuilder.pattern(HttpMethod.GET,"/api/item/{id}")).hasAnyRole("USER", "ADMIN")
+                        .requestMatchers(mvcMatcherBuilder.pattern(HttpMethod.GET,"/api/item/{id}/events")).hasAnyRole("USER", "ADMIN")
                         .requestMatchers(mvcMatcherBuilder.pattern(HttpMethod.GET,"/api/item")).hasAnyRole("USER", "ADMIN")
                         .requestMatchers(mvcMatcherBuilder.pattern("/api/bid/{itemId}")).hasRole("USER")
+                        .requestMatchers(mvcMatcherBuilder.pattern(HttpMethod.POST, "/api/bid/{itemId}/async")).hasRole("USER")
+                        .requestMatchers(mvcMatcherBuilder.pattern(HttpMethod.POST, "/api/bid/{itemId}/proxy")).hasRole("USER")
+                        .requestMatchers(mvcMatcherBuilder.pattern(HttpMethod.GET, "/api/bid/ticket/{ticketId}")).hasRole("USER")
+                        .requestMatchers(mvcMatcherBuilder.pattern(HttpMethod.POST, "/api/bids/batch")).hasRole("USER")
                         .requestMatchers(mvcMatcherBuilder.pattern("/api/user")).hasRole("ADMIN")
                         .requestMatchers(mvcMatcherBuilder.pattern("/api/balance")).hasRole("ADMIN")
                         .requestMatchers(mvcMatcherBuilder.pattern("/api/purchase/{id}/delete")).hasRole("ADMIN")
+                        .requestMatchers(mvcMatcherBuilder.pattern("/actuator/**")).hasRole("ADMIN")
 //                        .requestMatchers(mvcMatcherBuilder.pattern("/error")).permitAll() // Shouldn't be used with respect for frontend!
                         .anyRequest().authenticated())
                 .csrf((csrf) -> csrf.disable());
         http.authenticationProvider(authenticationProvider())
-                .addFilterBefore( jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore( jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthFilter.class)
+                .addFilterAfter(idempotencyFilter, RateLimitFilter.class);
 
         return http.build();
     }
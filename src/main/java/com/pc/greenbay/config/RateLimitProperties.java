@@ -0,0 +1,47 @@
+package com.pc.greenbay.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import lombok.*;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request limits per route, each user gets its own bucket for every route.
+ * Requests matching no route are not limited. Invalid limits stop the startup.
+ */
+@Data
+@NoArgsConstructor
+
+@Component
+@Validated
+@ConfigurationProperties(prefix = "greenbay.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private long idleEvictionSeconds = 600;
+    private List<@Valid Route> routes = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+
+    public static class Route {
+//        Any method when empty
+        private String method;
+        private String pattern;
+//        Requests allowed in a burst
+        @Min(value = 1, message = "Rate limit capacity must be at least 1")
+        private int capacity;
+        @DecimalMin(value = "0", inclusive = false, message = "Rate limit refill must be above 0 per second")
+        @DecimalMax(value = "1e9", message = "Rate limit refill must be at most 1e9 per second")
+        private double refillPerSecond;
+
+    }
+}
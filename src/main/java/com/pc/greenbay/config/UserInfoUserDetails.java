@@ -8,16 +8,19 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 public class UserInfoUserDetails implements UserDetails {
 
     private static final long serialVersionUID = -8773921465190832995L;
+    private UUID id;
     private String name;
     private String password;
     private List<GrantedAuthority> authorities;
 
     public UserInfoUserDetails(User user) {
+        id = user.getId();
         name = user.getUsername();
         password = user.getPassword();
         authorities = Arrays.stream(user.getRoles().split(","))
@@ -25,6 +28,10 @@ public class UserInfoUserDetails implements UserDetails {
                 .collect(Collectors.toList());
     }
 
+    public UUID getId() {
+        return id;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
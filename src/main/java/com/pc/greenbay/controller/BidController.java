@@ -1,8 +1,16 @@
 package com.pc.greenbay.controller;
 
+import com.pc.greenbay.config.UserInfoUserDetails;
+import com.pc.greenbay.model.ErrorDTO;
+import com.pc.greenbay.model.request.BidBatchEntryDTO;
 import com.pc.greenbay.model.request.BidRequestDTO;
+import com.pc.greenbay.model.request.ProxyBidRequestDTO;
+import com.pc.greenbay.model.response.BidTicketDTO;
 import com.pc.greenbay.entity.User;
+import com.pc.greenbay.service.BidBatchService;
 import com.pc.greenbay.service.BidService;
+import com.pc.greenbay.service.BidTicketService;
+import com.pc.greenbay.service.HighestBidCacheService;
 import com.pc.greenbay.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,7 +21,10 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api")
@@ -21,11 +32,20 @@ public class BidController {
 
     private final BidService bidService;
     private final UserService userService;
+    private final BidBatchService bidBatchService;
+    private final BidTicketService bidTicketService;
+    private final HighestBidCacheService highestBidCacheService;
+
+    private static final long MAX_TICKET_WAIT_MILLIS = 30_000;
 
     @Autowired
-    public BidController(BidService bidService, UserService userService) {
+    public BidController(BidService bidService, UserService userService, BidBatchService bidBatchService, BidTicketService bidTicketService,
+                         HighestBidCacheService highestBidCacheService) {
         this.bidService = bidService;
         this.userService = userService;
+        this.bidBatchService = bidBatchService;
+        this.bidTicketService = bidTicketService;
+        this.highestBidCacheService = highestBidCacheService;
     }
     @PostMapping("/bid/{itemId}")
     public ResponseEntity<?> placeBidPost(@PathVariable UUID itemId,
@@ -36,8 +56,74 @@ public class BidController {
                     .body(bidService.buildErrorResponseForBiding(bindingResult));
         }
 
+//        Hopeless bids are turned away before the bidder is loaded or a transaction is opened
+        if(userDetails instanceof UserInfoUserDetails details) {
+            highestBidCacheService.checkBid(itemId, details.getId(), bidRequestDTO.getBidAmount());
+        }
+
         User bidder = userService.findByUsername(userDetails.getUsername());
 
             return ResponseEntity.ok(bidService.placeBid(itemId, bidder, bidRequestDTO.getBidAmount()));
     }
+
+    @PostMapping("/bid/{itemId}/proxy")
+    public ResponseEntity<?> placeProxyBid(@PathVariable UUID itemId,
+                                           @Valid @RequestBody ProxyBidRequestDTO proxyBidRequestDTO, BindingResult bindingResult,
+                                           @AuthenticationPrincipal UserDetails userDetails) {
+        if(bindingResult.hasErrors()){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(bidService.buildErrorResponseForBiding(bindingResult));
+        }
+
+        User bidder = userService.findByUsername(userDetails.getUsername());
+
+        return ResponseEntity.ok(bidService.placeProxyBid(itemId, bidder, proxyBidRequestDTO.getMaxAmount()));
+    }
+
+    @PostMapping("/bid/{itemId}/async")
+    public ResponseEntity<?> placeBidAsync(@PathVariable UUID itemId,
+                                           @Valid @RequestBody BidRequestDTO bidRequestDTO, BindingResult bindingResult,
+                                           @AuthenticationPrincipal UserDetails userDetails) {
+        if(bindingResult.hasErrors()){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(bidService.buildErrorResponseForBiding(bindingResult));
+        }
+
+        User bidder = userService.findByUsername(userDetails.getUsername());
+
+        BidTicketDTO ticket = bidTicketService.submitBid(itemId, bidder, bidRequestDTO.getBidAmount());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/bid/ticket/" + ticket.getTicketId()))
+                .body(ticket);
+    }
+
+    @GetMapping("/bid/ticket/{ticketId}")
+    public CompletableFuture<ResponseEntity<?>> showBidTicket(@PathVariable UUID ticketId,
+                                                              @RequestParam(name = "wait", defaultValue = "0", required = false) long waitMillis,
+                                                              @AuthenticationPrincipal UserDetails userDetails) {
+        ResponseEntity<?> notFound = ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorDTO("Bid ticket not found."));
+        if(waitMillis <= 0) {
+            return CompletableFuture.completedFuture(bidTicketService.findTicket(ticketId, userDetails.getUsername())
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(notFound));
+        }
+        return bidTicketService.awaitTicket(ticketId, userDetails.getUsername(), Math.min(waitMillis, MAX_TICKET_WAIT_MILLIS))
+                .map(future -> future.<ResponseEntity<?>>thenApply(ResponseEntity::ok))
+                .orElse(CompletableFuture.completedFuture(notFound));
+    }
+
+    @PostMapping("/bids/batch")
+    public ResponseEntity<?> placeBidsBatch(@RequestBody List<BidBatchEntryDTO> bids,
+                                            @AuthenticationPrincipal UserDetails userDetails) {
+        if(bids == null || bids.isEmpty()) {
+            return ResponseEntity.badRequest().body(new ErrorDTO("No bids provided."));
+        }
+        if(bids.size() > bidBatchService.getMaxBatchSize()) {
+            return ResponseEntity.badRequest().body(new ErrorDTO("Too many bids, the maximum is " + bidBatchService.getMaxBatchSize() + "."));
+        }
+
+        User bidder = userService.findByUsername(userDetails.getUsername());
+
+        return ResponseEntity.ok(bidBatchService.placeBids(bidder, bids));
+    }
 }
@@ -1,19 +1,32 @@
 package com.pc.greenbay.controller;
 
 import com.pc.greenbay.model.ErrorDTO;
+import com.pc.greenbay.model.ItemCountMode;
+import com.pc.greenbay.model.ItemVersion;
+import com.pc.greenbay.model.ResponseCacheKey;
+import com.pc.greenbay.model.request.ItemFilterDTO;
 import com.pc.greenbay.model.request.ItemRequestDTO;
 import com.pc.greenbay.entity.User;
+import com.pc.greenbay.service.ItemEventService;
+import com.pc.greenbay.service.ItemSearchService;
 import com.pc.greenbay.service.ItemService;
+import com.pc.greenbay.service.ResponseCacheService;
 import com.pc.greenbay.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Locale;
 import java.util.UUID;
 
 @RestController
@@ -22,11 +35,18 @@ public class ItemController {
 
     private final ItemService itemService;
     private final UserService userService;
+    private final ItemSearchService itemSearchService;
+    private final ResponseCacheService responseCacheService;
+    private final ItemEventService itemEventService;
 
     @Autowired
-    public ItemController(ItemService itemService, UserService userService) {
+    public ItemController(ItemService itemService, UserService userService, ItemSearchService itemSearchService,
+                          ResponseCacheService responseCacheService, ItemEventService itemEventService) {
         this.itemService = itemService;
         this.userService = userService;
+        this.itemSearchService = itemSearchService;
+        this.responseCacheService = responseCacheService;
+        this.itemEventService = itemEventService;
     }
 
     @PostMapping("/item")
@@ -43,21 +63,146 @@ public class ItemController {
                     .body(itemService.createItem(itemRequestDTO, seller));
     }
 
+    @GetMapping("/item/search")
+    public ResponseEntity<?> searchItems(@RequestParam(name = "q", required = false) String query,
+                                         @RequestParam(name = "after", required = false) String after) {
+        return itemSearchService.search(query, after);
+    }
+
     @GetMapping("/item/{id}")
-    public ResponseEntity<?> showItemDetails(@PathVariable UUID id) {
-            return ResponseEntity.ok(itemService.showItemDetails(id));
+    public ResponseEntity<?> showItemDetails(@PathVariable UUID id,
+                                             @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                             @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+//        The version query alone decides a 304, the bids are only read when the details changed.
+//        Cached details are keyed by the same version, so the body sent always matches its ETag
+        String eTag = itemService.getItemVersion(id).map(ItemVersion::eTag).orElse(null);
+        String matched = matching(ifNoneMatch, eTag);
+        if (matched != null) {
+            return notModified(matched);
+        }
+        return withETag(responseCacheService.getOrLoad(ResponseCacheKey.details(id, eTag), acceptsGzip(acceptEncoding),
+                () -> ResponseEntity.ok(itemService.showItemDetails(id))), eTag);
+    }
+
+//    Watchers get new bids pushed instead of polling the details
+    @GetMapping(value = "/item/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter itemEvents(@PathVariable UUID id) {
+        return itemEventService.subscribe(id);
     }
 
     @GetMapping("/item")
-    public ResponseEntity<?> listItemsPages(@RequestParam(name = "page", defaultValue = "1", required = false) int page) {
+    public ResponseEntity<?> listItemsPages(@RequestParam(name = "page", required = false) Integer page,
+                                            @RequestParam(name = "after", required = false) String after,
+                                            @RequestParam(name = "count", required = false) String count,
+                                            @RequestParam(name = "sort", required = false) String sort,
+                                            @RequestParam(name = "min_bid", required = false) Integer minBid,
+                                            @RequestParam(name = "max_bid", required = false) Integer maxBid,
+                                            @RequestParam(name = "min_purchase_price", required = false) Integer minPurchasePrice,
+                                            @RequestParam(name = "max_purchase_price", required = false) Integer maxPurchasePrice,
+                                            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String eTag = responseCacheService.listingETag();
+        String matched = matching(ifNoneMatch, eTag);
+        if (matched != null) {
+            return notModified(matched);
+        }
+        ItemFilterDTO filter = new ItemFilterDTO(minBid, maxBid, minPurchasePrice, maxPurchasePrice);
+        return withETag(responseCacheService.getOrLoad(ResponseCacheKey.listing(page, after, count, sort, filter), acceptsGzip(acceptEncoding),
+                () -> listItems(page, after, count, sort, filter)), eTag);
+    }
+
+    private ResponseEntity<?> listItems(Integer page, String after, String count, String sort, ItemFilterDTO filter) {
+        boolean sortedOrFiltered = sort != null || !filter.isEmpty();
+//        Numbered pages stay for existing clients, without a page number the listing follows the cursor
+        if(page == null) {
+            return sortedOrFiltered ? itemService.getItemsSorted(sort, filter, after) : itemService.getItemsAfter(after);
+        }
+        if(sortedOrFiltered) {
+            return ResponseEntity.badRequest().body(new ErrorDTO("Sorting and filtering work without a page parameter only."));
+        }
+        ItemCountMode countMode = count == null ? null : ItemCountMode.fromParameter(count);
+        if(count != null && countMode == null) {
+            return ResponseEntity.badRequest().body(new ErrorDTO("Invalid count mode: " + count));
+        }
         if(page > 0) {
-            return itemService.getItemsPaged(page);
+            return itemService.getItemsPaged(page, countMode);
         }
         return ResponseEntity.badRequest().body(new ErrorDTO("Invalid parameters"));
     }
 
+//    If-None-Match compares weakly, so W/"x" matches "x". Either encoding of the version matches,
+//    the 304 repeats the tag the client holds
+    private static String matching(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || eTag == null) {
+            return null;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(eTag) || tag.equals(gzipETag(eTag))) {
+                return tag;
+            }
+            if (tag.equals("*")) {
+                return eTag;
+            }
+        }
+        return null;
+    }
+
+//    The gzip body is a different representation, a strong ETag may not be shared with the plain one
+    private static String gzipETag(String eTag) {
+        return eTag.substring(0, eTag.length() - 1) + "-gzip\"";
+    }
+
+//    no-cache lets clients keep the body as long as they ask again before using it
+    private static ResponseEntity<?> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .build();
+    }
+
+    private static ResponseEntity<?> withETag(ResponseEntity<?> response, String eTag) {
+        if (eTag == null || response.getStatusCode() != HttpStatus.OK) {
+            return response;
+        }
+        boolean gzip = "gzip".equals(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        return ResponseEntity.ok()
+                .headers(response.getHeaders())
+                .eTag(gzip ? gzipETag(eTag) : eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(response.getBody());
+    }
+
+//    gzip;q=0 is a refusal, anything else naming gzip or * is fine
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if ((name.equals("gzip") || name.equals("*"))
+                    && !(parts.length > 1 && parts[1].replace(" ", "").matches("q=0(\\.0*)?"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @GetMapping("/temp/show-all-items")
     public ResponseEntity<?> showAllItems() {
         return ResponseEntity.ok(itemService.listItems());
     }
+
+//    Asking for NDJSON streams the items instead of building the whole array first
+    @GetMapping(value = "/temp/show-all-items", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportAllItems() {
+        StreamingResponseBody body = itemService::exportItems;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
 }
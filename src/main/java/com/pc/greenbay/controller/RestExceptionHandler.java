@@ -1,12 +1,19 @@
 package com.pc.greenbay.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pc.greenbay.exception.*;
 import com.pc.greenbay.model.ErrorDTO;
+import com.pc.greenbay.model.MessageDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -15,11 +22,32 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 @ControllerAdvice
 public class RestExceptionHandler extends ResponseEntityExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(RestExceptionHandler.class);
 
+    private static final int MAX_CACHED_REJECTION_BODIES = 64;
+
+    private final ObjectMapper objectMapper;
+    private final Map<BidRejectionReason, Counter> rejectionCounters = new EnumMap<>(BidRejectionReason.class);
+    private final ConcurrentMap<String, byte[]> rejectionBodies = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RestExceptionHandler(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        for (BidRejectionReason reason : BidRejectionReason.values()) {
+            rejectionCounters.put(reason, Counter.builder("greenbay.bid.rejected")
+                    .tag("reason", reason.name())
+                    .register(meterRegistry));
+        }
+    }
+
     @ExceptionHandler(RecordNotFoundException.class)
     protected ResponseEntity<Object> handleRecordNotFoundException(RecordNotFoundException ex, WebRequest request) {
         log.error("Record not found", ex);
@@ -29,48 +57,66 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
                 request);
     }
 
-    @ExceptionHandler(NoMoneyException.class)
-    protected ResponseEntity<Object> handleNoMoneyException(NoMoneyException ex, WebRequest request) {
-        log.error("Bidder has no money", ex);
-        return handleExceptionInternal(ex,
-                new ErrorDTO(ex.getMessage()),
-                new HttpHeaders(), HttpStatus.BAD_REQUEST,
-                request);
+//    Rejected bids are expected traffic, no stack trace and no error log, the body is serialized once per message
+    @ExceptionHandler(BidRejectedException.class)
+    protected ResponseEntity<Object> handleBidRejectedException(BidRejectedException ex) {
+        rejectionCounters.get(ex.getReason()).increment();
+        log.debug("Bid rejected: {}", ex.getReason());
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(rejectionBody(ex.getMessage()));
+    }
+
+//    Messages come from a handful of constants, the size check only guards against an unexpected dynamic one
+    private byte[] rejectionBody(String message) {
+        byte[] body = rejectionBodies.get(message);
+        if (body == null) {
+            body = serializeError(message);
+            if (rejectionBodies.size() < MAX_CACHED_REJECTION_BODIES) {
+                rejectionBodies.putIfAbsent(message, body);
+            }
+        }
+        return body;
     }
 
-    @ExceptionHandler(NotEnoughMoneyException.class)
-    protected ResponseEntity<Object> handleNotEnoughMoneyException(NotEnoughMoneyException ex, WebRequest request) {
-        log.error("Bidder has not enough money", ex);
+    @ExceptionHandler(BidLockTimeoutException.class)
+    protected ResponseEntity<Object> handleBidLockTimeoutException(BidLockTimeoutException ex, WebRequest request) {
+        log.warn("Bid lock not acquired: {}", ex.getMessage());
         return handleExceptionInternal(ex,
                 new ErrorDTO(ex.getMessage()),
-                new HttpHeaders(), HttpStatus.BAD_REQUEST,
+                new HttpHeaders(), HttpStatus.SERVICE_UNAVAILABLE,
                 request);
     }
 
-    @ExceptionHandler(BidOnOwnItemException.class)
-    protected ResponseEntity<Object> handleBidOnOwnItemException(BidOnOwnItemException ex, WebRequest request) {
-        log.error("Cannot bid on own item", ex);
+//    Not an error, the bid was taken and may still be placed, the client checks the item before bidding again
+    @ExceptionHandler(BidPendingException.class)
+    protected ResponseEntity<Object> handleBidPendingException(BidPendingException ex, WebRequest request) {
+        log.warn("Bid not acknowledged in time: {}", ex.getMessage());
         return handleExceptionInternal(ex,
-                new ErrorDTO(ex.getMessage()),
-                new HttpHeaders(), HttpStatus.BAD_REQUEST,
+                new MessageDTO(ex.getMessage()),
+                new HttpHeaders(), HttpStatus.ACCEPTED,
                 request);
     }
 
-    @ExceptionHandler(ItemNotSellableException.class)
-    protected ResponseEntity<Object> handleItemNotSellableException(ItemNotSellableException ex, WebRequest request) {
-        log.error("Item not sellable", ex);
+    @ExceptionHandler(BidQueueFullException.class)
+    protected ResponseEntity<Object> handleBidQueueFullException(BidQueueFullException ex, WebRequest request) {
+        log.warn("Bid queue full: {}", ex.getMessage());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
         return handleExceptionInternal(ex,
                 new ErrorDTO(ex.getMessage()),
-                new HttpHeaders(), HttpStatus.BAD_REQUEST,
+                headers, HttpStatus.SERVICE_UNAVAILABLE,
                 request);
     }
 
-    @ExceptionHandler(LowBidException.class)
-    protected ResponseEntity<Object> handleLowBidException(LowBidException ex, WebRequest request) {
-        log.error("Bid too low", ex);
+    @ExceptionHandler(TooManyWatchersException.class)
+    protected ResponseEntity<Object> handleTooManyWatchersException(TooManyWatchersException ex, WebRequest request) {
+        log.warn("Item event stream refused: {}", ex.getMessage());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "5");
         return handleExceptionInternal(ex,
                 new ErrorDTO(ex.getMessage()),
-                new HttpHeaders(), HttpStatus.BAD_REQUEST,
+                headers, HttpStatus.SERVICE_UNAVAILABLE,
                 request);
     }
 
@@ -85,6 +131,23 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
                 request);
     }
 
+    private byte[] serializeError(String message) {
+        try {
+            return objectMapper.writeValueAsBytes(new ErrorDTO(message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @ExceptionHandler(BalanceBelowReservedException.class)
+    protected ResponseEntity<Object> handleBalanceBelowReservedException(BalanceBelowReservedException ex, WebRequest request) {
+        log.warn("Balance update refused: {}", ex.getMessage());
+        return handleExceptionInternal(ex,
+                new ErrorDTO(ex.getMessage()),
+                new HttpHeaders(), HttpStatus.BAD_REQUEST,
+                request);
+    }
+
     @ExceptionHandler(UsernameNotFoundException.class)
     protected ResponseEntity<Object> handleUsernameNotFoundException(UsernameNotFoundException ex, WebRequest request) {
         log.error("Cannot bid on own item", ex);
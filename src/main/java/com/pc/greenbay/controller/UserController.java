@@ -50,6 +50,7 @@ public class UserController {
             response.put("status", "ok");
             response.put("access_token", jwtService.generateToken(loginRequestDTO.getUsername()));
             response.put("balance", userService.showGreenBayDollarsBalance(loginRequestDTO.getUsername()));
+            response.put("available_balance", userService.showAvailableGreenBayDollars(loginRequestDTO.getUsername()));
 
             return ResponseEntity.ok(response);
     }
@@ -15,14 +15,15 @@ import lombok.*;
 @Table(name = "bids")
 public class Bid {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bids_seq")
+    @SequenceGenerator(name = "bids_seq", sequenceName = "bids_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
     @JoinColumn(name = "item_id")
     private Item item;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "bidder_id")
     private User bidder;
 
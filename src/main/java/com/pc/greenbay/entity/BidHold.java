@@ -0,0 +1,28 @@
+package com.pc.greenbay.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Money reserved by the bidder currently leading the auction of an item.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+
+@Entity
+@Table(name = "bid_holds")
+public class BidHold {
+    @Id
+    @Column(name = "item_id", nullable = false, updatable = false, columnDefinition = "uuid")
+    private UUID itemId;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "uuid")
+    private UUID userId;
+
+    private int amount;
+}
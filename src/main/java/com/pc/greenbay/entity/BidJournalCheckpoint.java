@@ -0,0 +1,25 @@
+package com.pc.greenbay.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Sequence of the last journaled bid of an engine shard that has been applied to the database.
+ * Updated in the same transaction as the bids, so a journal replay never applies a bid twice.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+
+@Entity
+@Table(name = "bid_journal_checkpoints")
+public class BidJournalCheckpoint {
+    @Id
+    @Column(nullable = false, updatable = false)
+    private int shard;
+
+    @Column(nullable = false)
+    private long lastSequence;
+}
@@ -0,0 +1,34 @@
+package com.pc.greenbay.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * First response sent for an Idempotency-Key, shared by all instances when the table store is enabled.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "idempotency_key", length = 400, nullable = false, updatable = false)
+    private String key;
+
+    private int status;
+
+    private String contentType;
+
+    private String location;
+
+    private byte[] body;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -9,6 +9,8 @@ import jakarta.validation.constraints.Pattern;
 import lombok.*;
 import org.hibernate.annotations.GenericGenerator;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -69,7 +71,16 @@ public class Item {
     @Builder.Default
     private boolean sellable = true;
 
-    @ManyToOne
+//    Auctions without an end time only close when someone pays the purchase price
+    @Column(name = "ends_at")
+    private Instant endsAt;
+
+//    Sort key of the item listing together with the id, stored with the database's microsecond precision
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+//    Lazy, the queries that need the seller fetch it in the same statement
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "seller_id")
     private User seller;
 
@@ -93,4 +104,11 @@ public class Item {
         this.bids = new ArrayList<>();
         this.purchases = new ArrayList<>();
     }
+
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package com.pc.greenbay.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Private maximum a bidder is willing to pay for an item. The server bids on the
+ * bidder's behalf up to this amount, only the resulting bids are visible.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+
+@Entity
+@Table(name = "proxy_bids", uniqueConstraints = @UniqueConstraint(name = "uk_proxy_bids_item_bidder", columnNames = {"item_id", "bidder_id"}))
+public class ProxyBid {
+    @Id
+    @GeneratedValue
+    @Column(name = "id", unique = true, nullable = false, updatable = false, columnDefinition = "uuid")
+    private UUID id;
+
+    @ManyToOne
+    @JoinColumn(name = "item_id", nullable = false)
+    private Item item;
+
+    @ManyToOne
+    @JoinColumn(name = "bidder_id", nullable = false)
+    private User bidder;
+
+    @Min(value = 1, message = "Maximum bid must be greater than or equal to 1")
+    private int maxAmount;
+
+//    Earlier proxies win ties
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    public ProxyBid(Item item, User bidder, int maxAmount) {
+        this.item = item;
+        this.bidder = bidder;
+        this.maxAmount = maxAmount;
+        this.createdAt = Instant.now();
+    }
+}
@@ -15,7 +15,8 @@ import lombok.*;
 @Table(name = "purchases")
 public class Purchase {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchases_seq")
+    @SequenceGenerator(name = "purchases_seq", sequenceName = "purchases_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -3,6 +3,7 @@ package com.pc.greenbay.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,6 +16,7 @@ import java.util.UUID;
 @Builder
 
 @Entity
+@DynamicUpdate
 @Table(name = "users")
 public class User {
 
@@ -33,6 +35,10 @@ public class User {
     @Builder.Default
     private double balance = 0;
 
+//    Sum of the holds of the auctions this user is leading
+    @Builder.Default
+    private double reservedBalance = 0;
+
     @Builder.Default
     private String roles = "ROLE_USER";
 
@@ -0,0 +1,7 @@
+package com.pc.greenbay.exception;
+
+public class BalanceBelowReservedException extends RuntimeException {
+    public BalanceBelowReservedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.pc.greenbay.exception;
+
+public class BidLockTimeoutException extends RuntimeException {
+    public BidLockTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -1,8 +1,9 @@
 package com.pc.greenbay.exception;
 
-public class BidOnOwnItemException extends RuntimeException {
-    public BidOnOwnItemException(String message) {
-        super(message);
+public class BidOnOwnItemException extends BidRejectedException {
+    public static final BidOnOwnItemException OWN_ITEM = new BidOnOwnItemException("You cannot bid on your own item.");
 
+    public BidOnOwnItemException(String message) {
+        super(message, BidRejectionReason.OWN_ITEM);
     }
 }
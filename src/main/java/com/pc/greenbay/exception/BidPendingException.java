@@ -0,0 +1,19 @@
+package com.pc.greenbay.exception;
+
+import com.pc.greenbay.model.response.BidCommonResponseDTO;
+
+import java.util.concurrent.CompletableFuture;
+
+public class BidPendingException extends RuntimeException {
+
+    private final transient CompletableFuture<BidCommonResponseDTO> outcome;
+
+    public BidPendingException(String message, CompletableFuture<BidCommonResponseDTO> outcome) {
+        super(message);
+        this.outcome = outcome;
+    }
+
+    public CompletableFuture<BidCommonResponseDTO> getOutcome() {
+        return outcome;
+    }
+}
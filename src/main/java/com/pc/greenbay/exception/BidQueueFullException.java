@@ -0,0 +1,7 @@
+package com.pc.greenbay.exception;
+
+public class BidQueueFullException extends RuntimeException {
+    public BidQueueFullException(String message) {
+        super(message);
+    }
+}
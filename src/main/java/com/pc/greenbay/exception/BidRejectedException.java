@@ -0,0 +1,19 @@
+package com.pc.greenbay.exception;
+
+/**
+ * A bid broke a business rule. Rejections are the common outcome during bidding wars, so
+ * these exceptions carry no stack trace and the ones with fixed messages are shared.
+ */
+public abstract class BidRejectedException extends RuntimeException {
+
+    private final BidRejectionReason reason;
+
+    protected BidRejectedException(String message, BidRejectionReason reason) {
+        super(message, null, false, false);
+        this.reason = reason;
+    }
+
+    public BidRejectionReason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,33 @@
+package com.pc.greenbay.exception;
+
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * Machine readable reason of a rejected bid, shared by the endpoints that report
+ * bid outcomes without failing the whole request.
+ */
+public enum BidRejectionReason {
+    INVALID,
+    NOT_FOUND,
+    NO_MONEY,
+    NOT_ENOUGH_MONEY,
+    OWN_ITEM,
+    NOT_SELLABLE,
+    LOW_BID,
+    UNSUPPORTED,
+    BUSY,
+    ERROR;
+
+    public static BidRejectionReason of(RuntimeException ex) {
+        if (ex instanceof BidRejectedException rejected) {
+            return rejected.getReason();
+        }
+        if (ex instanceof RecordNotFoundException || ex instanceof UsernameNotFoundException) {
+            return NOT_FOUND;
+        }
+        if (ex instanceof BidLockTimeoutException) {
+            return BUSY;
+        }
+        return ERROR;
+    }
+}
@@ -1,7 +1,10 @@
 package com.pc.greenbay.exception;
 
-public class ItemNotSellableException extends RuntimeException {
+public class ItemNotSellableException extends BidRejectedException {
+    public static final ItemNotSellableException NOT_SELLABLE = new ItemNotSellableException("Item is not sellable.");
+    public static final ItemNotSellableException AUCTION_ENDED = new ItemNotSellableException("Auction has ended.");
+
     public ItemNotSellableException(String message) {
-        super(message);
+        super(message, BidRejectionReason.NOT_SELLABLE);
     }
 }
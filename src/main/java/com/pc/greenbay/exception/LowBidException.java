@@ -1,7 +1,9 @@
 package com.pc.greenbay.exception;
 
-public class LowBidException extends RuntimeException {
+public class LowBidException extends BidRejectedException {
+    public static final LowBidException LOW_BID = new LowBidException("Your bid is too low.");
+
     public LowBidException(String message) {
-        super(message);
+        super(message, BidRejectionReason.LOW_BID);
     }
 }
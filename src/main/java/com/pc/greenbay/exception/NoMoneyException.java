@@ -1,7 +1,9 @@
 package com.pc.greenbay.exception;
 
-public class NoMoneyException extends RuntimeException {
+public class NoMoneyException extends BidRejectedException {
+    public static final NoMoneyException NO_MONEY = new NoMoneyException("You have no greenBay dollars, you can't bid.");
+
     public NoMoneyException(String message) {
-        super(message);
+        super(message, BidRejectionReason.NO_MONEY);
     }
 }
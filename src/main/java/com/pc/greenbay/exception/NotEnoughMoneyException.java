@@ -1,7 +1,10 @@
 package com.pc.greenbay.exception;
 
-public class NotEnoughMoneyException extends RuntimeException {
+public class NotEnoughMoneyException extends BidRejectedException {
+    public static final NotEnoughMoneyException NOT_ENOUGH_MONEY = new NotEnoughMoneyException("You have not enough greenBay dollars on your account.");
+    public static final NotEnoughMoneyException NOT_ENOUGH_AVAILABLE = new NotEnoughMoneyException("You have not enough available greenBay dollars, part of your balance is reserved by your leading bids.");
+
     public NotEnoughMoneyException(String message) {
-        super(message);
+        super(message, BidRejectionReason.NOT_ENOUGH_MONEY);
     }
 }
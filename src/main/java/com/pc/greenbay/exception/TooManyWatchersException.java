@@ -0,0 +1,7 @@
+package com.pc.greenbay.exception;
+
+public class TooManyWatchersException extends RuntimeException {
+    public TooManyWatchersException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.pc.greenbay.exception;
+
+public class UnsupportedBidException extends BidRejectedException {
+    public UnsupportedBidException(String message) {
+        super(message, BidRejectionReason.UNSUPPORTED);
+    }
+}
@@ -0,0 +1,171 @@
+package com.pc.greenbay.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pc.greenbay.model.ErrorDTO;
+import com.pc.greenbay.model.StoredResponse;
+import com.pc.greenbay.service.IdempotencyService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Replays the first response of a mutating request carrying an Idempotency-Key instead of
+ * running it again. Keys are scoped to the user, method and path and stored as a SHA-256
+ * digest of the four, so any header the filter accepts fits the key column. Server errors
+ * are not remembered, so a retry after one runs the request again.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final long waitMillis;
+    private final Counter replayCounter;
+
+    @Autowired
+    public IdempotencyFilter(IdempotencyService idempotencyService, ObjectMapper objectMapper,
+                             @Value("${greenbay.idempotency.wait-ms:10000}") long waitMillis,
+                             MeterRegistry meterRegistry) {
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.waitMillis = waitMillis;
+        this.replayCounter = Counter.builder("greenbay.idempotency.replayed")
+                .description("Responses replayed for a repeated Idempotency-Key")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(IDEMPOTENCY_KEY_HEADER) == null || !MUTATING_METHODS.contains(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters long.");
+            return;
+        }
+        String key = storageKey(authentication.getName(), request.getMethod(), request.getRequestURI(), idempotencyKey);
+
+        long deadline = System.currentTimeMillis() + waitMillis;
+        while (true) {
+            Optional<CompletableFuture<StoredResponse>> existing = idempotencyService.claim(key);
+            if (existing.isEmpty()) {
+                runFirst(key, request, response, filterChain);
+                return;
+            }
+            StoredResponse stored = await(existing.get(), deadline - System.currentTimeMillis());
+            if (stored != null) {
+                replayCounter.increment();
+                replay(response, stored);
+                return;
+            }
+            if (System.currentTimeMillis() >= deadline || !existing.get().isDone()) {
+                writeError(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still being processed.");
+                return;
+            }
+//            The first request failed, this one may run it again
+        }
+    }
+
+    static String storageKey(String username, String method, String path, String idempotencyKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((username + '|' + method + '|' + path + '|' + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    private void runFirst(String key, HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, wrapper);
+            if (!request.isAsyncStarted() && wrapper.getStatus() < 500) {
+                idempotencyService.complete(key, new StoredResponse(wrapper.getStatus(), wrapper.getContentType(),
+                        wrapper.getHeader(HttpHeaders.LOCATION), wrapper.getContentAsByteArray()));
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                idempotencyService.abandon(key);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> pending, long remainingMillis) throws IOException {
+        try {
+            return pending.get(Math.max(0, remainingMillis), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the first request with the same Idempotency-Key", e);
+        }
+    }
+
+    private void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.getStatus());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        if (stored.getLocation() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.getLocation());
+        }
+        if (stored.getBody() != null) {
+            response.setContentLength(stored.getBody().length);
+            response.getOutputStream().write(stored.getBody());
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorDTO(message));
+    }
+}
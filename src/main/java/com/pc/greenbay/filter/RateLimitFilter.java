@@ -0,0 +1,126 @@
+package com.pc.greenbay.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pc.greenbay.config.RateLimitProperties;
+import com.pc.greenbay.model.ErrorDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects requests over the configured per route limit with 429 before they reach a
+ * controller or open a transaction. Runs after {@link JwtAuthFilter}, so authenticated
+ * requests are limited per user and anonymous requests per client address.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final List<LimitedRoute> routes;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.routes = properties.getRoutes().stream()
+                .map(route -> new LimitedRoute(route, PathPatternParser.defaultInstance.parse(route.getPattern()),
+                        Counter.builder("greenbay.ratelimit.rejected")
+                                .tag("route", route.getPattern())
+                                .register(meterRegistry)))
+                .toList();
+        Gauge.builder("greenbay.ratelimit.buckets", buckets, ConcurrentMap::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || routes.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        LimitedRoute route = findRoute(request);
+        if (route != null) {
+            long now = System.nanoTime();
+            String key = route.route().getPattern() + '|' + clientKey(request);
+            long waitNanos = buckets
+                    .computeIfAbsent(key, k -> new TokenBucket(route.route().getCapacity(), route.route().getRefillPerSecond(), now))
+                    .tryConsume(now);
+            if (waitNanos > 0) {
+                route.rejected().increment();
+                reject(response, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${greenbay.rate-limit.eviction-sweep-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        long idleNanos = TimeUnit.SECONDS.toNanos(properties.getIdleEvictionSeconds());
+        buckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    private LimitedRoute findRoute(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (LimitedRoute route : routes) {
+            String method = route.route().getMethod();
+            if ((method == null || method.isEmpty() || method.equalsIgnoreCase(request.getMethod()))
+                    && route.pattern().matches(path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorDTO("Too many requests, please try again later."));
+    }
+
+    private record LimitedRoute(RateLimitProperties.Route route, PathPattern pattern, Counter rejected) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.pc.greenbay.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single theoretical arrival time (the generic cell rate algorithm),
+ * so taking a token is one compare-and-set without locks or allocation. The bucket is full
+ * once the arrival time lies in the past, a request is allowed while the arrival time is
+ * at most {@code capacity} intervals ahead of now.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong arrivalNanos;
+
+//    Outside these bounds the interval rounds to zero or the burst overflows, and every request would pass
+    TokenBucket(int capacity, double refillPerSecond, long nowNanos) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Token bucket capacity must be at least 1, was " + capacity);
+        }
+        if (!(refillPerSecond > 0 && refillPerSecond <= 1e9)) {
+            throw new IllegalArgumentException("Token bucket refill must be above 0 and at most 1e9 per second, was " + refillPerSecond);
+        }
+        this.intervalNanos = (long) (1_000_000_000L / refillPerSecond);
+        try {
+            this.burstNanos = Math.multiplyExact(intervalNanos, capacity);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Token bucket of " + capacity + " tokens refilled " + refillPerSecond
+                    + " per second is too large", e);
+        }
+        this.arrivalNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a token, returns zero when allowed or the nanoseconds until a token is available.
+     */
+    long tryConsume(long nowNanos) {
+        while (true) {
+            long arrival = arrivalNanos.get();
+            long next = Math.max(arrival, nowNanos) + intervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (arrivalNanos.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    boolean isIdle(long nowNanos, long idleNanos) {
+        return nowNanos - arrivalNanos.get() > idleNanos;
+    }
+}
@@ -0,0 +1,16 @@
+package com.pc.greenbay.model;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class AuctionDeadline {
+    private UUID itemId;
+    private Instant endsAt;
+
+}
@@ -0,0 +1,21 @@
+package com.pc.greenbay.model;
+
+import lombok.*;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class BidPlacement {
+    private BidPlacementStatus status;
+    private String itemName;
+    private String itemDescription;
+    private String photoURL;
+    private String sellerName;
+    private String buyerName;
+    private Instant extendedEndsAt;
+    private boolean hasProxies;
+
+}
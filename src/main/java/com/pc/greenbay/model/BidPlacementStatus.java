@@ -0,0 +1,15 @@
+package com.pc.greenbay.model;
+
+/**
+ * Status code returned by the place_bid database function.
+ */
+public enum BidPlacementStatus {
+    PLACED,
+    BOUGHT,
+    NOT_FOUND,
+    OWN_ITEM,
+    NOT_SELLABLE,
+    AUCTION_ENDED,
+    LOW_BID,
+    NOT_ENOUGH_MONEY
+}
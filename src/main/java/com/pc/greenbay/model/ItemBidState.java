@@ -0,0 +1,13 @@
+package com.pc.greenbay.model;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class ItemBidState {
+    private int lastBid;
+    private boolean sellable;
+
+}
@@ -0,0 +1,24 @@
+package com.pc.greenbay.model;
+
+import java.util.Locale;
+
+/**
+ * How a numbered item listing works out its total, chosen per request with the count parameter.
+ */
+public enum ItemCountMode {
+    EXACT,
+    COUNTER,
+    ESTIMATE,
+    NONE;
+
+    /**
+     * The mode of a count parameter, null when there is no mode by that name.
+     */
+    public static ItemCountMode fromParameter(String parameter) {
+        try {
+            return valueOf(parameter.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
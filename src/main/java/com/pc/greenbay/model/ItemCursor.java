@@ -0,0 +1,48 @@
+package com.pc.greenbay.model;
+
+import lombok.*;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class ItemCursor {
+    private Instant createdAt;
+    private UUID id;
+
+//    Opaque to clients: creation time in microseconds and the id, base64url encoded
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(24);
+        buffer.putLong(ChronoUnit.MICROS.between(Instant.EPOCH, createdAt));
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public static ItemCursor decode(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (bytes.length != 24) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        Instant createdAt;
+        try {
+            createdAt = Instant.EPOCH.plus(buffer.getLong(), ChronoUnit.MICROS);
+        } catch (ArithmeticException | DateTimeException e) {
+            return null;
+        }
+        return new ItemCursor(createdAt, new UUID(buffer.getLong(), buffer.getLong()));
+    }
+}
@@ -0,0 +1,24 @@
+package com.pc.greenbay.model;
+
+import lombok.*;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class ItemEvent {
+    public static final String BID = "bid";
+    public static final String SOLD = "sold";
+    public static final String CLOSED = "closed";
+
+    private String type;
+    private UUID itemId;
+    private int amount;
+
+//    Nothing follows a sale or a close, the stream ends with it
+    public boolean isFinal() {
+        return !BID.equals(type);
+    }
+}
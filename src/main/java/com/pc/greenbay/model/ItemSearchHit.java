@@ -0,0 +1,22 @@
+package com.pc.greenbay.model;
+
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * A sellable item matching a search, rank orders the hits from best to worst.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class ItemSearchHit {
+    private UUID id;
+    private String name;
+    private String photoURL;
+    private int lastBid;
+    private String sellerUsername;
+    private float rank;
+
+}
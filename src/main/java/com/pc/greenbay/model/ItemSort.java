@@ -0,0 +1,62 @@
+package com.pc.greenbay.model;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Orders of the cursor listing. Each one walks an index of sellable items, V9 for the
+ * creation time and V11 for the prices, forwards or backwards, with the id breaking ties.
+ */
+public enum ItemSort {
+    CREATED("createdAt", true),
+    NEWEST("createdAt", false),
+    BID("lastBid", true),
+    BID_DESC("lastBid", false),
+    PURCHASE_PRICE("purchasePrice", true),
+    PURCHASE_PRICE_DESC("purchasePrice", false);
+
+    private final String field;
+    private final boolean ascending;
+
+    ItemSort(String field, boolean ascending) {
+        this.field = field;
+        this.ascending = ascending;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public boolean isByPrice() {
+        return !"createdAt".equals(field);
+    }
+
+    /**
+     * The sort of a sort parameter, null when there is no sort by that name.
+     */
+    public static ItemSort fromParameter(String parameter) {
+        try {
+            return valueOf(parameter.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+//    Sort keys travel in the cursor as a long: microseconds of the creation time or the price
+    public long keyOf(ItemSummary item) {
+        return switch (this) {
+            case CREATED, NEWEST -> ChronoUnit.MICROS.between(Instant.EPOCH, item.getCreatedAt());
+            case BID, BID_DESC -> item.getLastBid();
+            case PURCHASE_PRICE, PURCHASE_PRICE_DESC -> item.getPurchasePrice();
+        };
+    }
+
+    public Object keyValue(long key) {
+        return isByPrice() ? (Object) Math.toIntExact(key) : Instant.EPOCH.plus(key, ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,24 @@
+package com.pc.greenbay.model;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Columns of a listed item, read with one join to the seller instead of loading the entities.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class ItemSummary {
+    private UUID id;
+    private String name;
+    private String photoURL;
+    private int lastBid;
+    private int purchasePrice;
+    private String sellerUsername;
+    private Instant createdAt;
+
+}
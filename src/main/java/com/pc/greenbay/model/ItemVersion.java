@@ -0,0 +1,18 @@
+package com.pc.greenbay.model;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class ItemVersion {
+    private int lastBid;
+    private boolean sellable;
+    private long bidCount;
+
+//    Everything that can change on an item's details, names and prices are fixed once it is listed
+    public String eTag() {
+        return "\"" + lastBid + "-" + (sellable ? "open" : "closed") + "-" + bidCount + "\"";
+    }
+}
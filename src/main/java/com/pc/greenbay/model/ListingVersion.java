@@ -0,0 +1,18 @@
+package com.pc.greenbay.model;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class ListingVersion {
+    private long itemCount;
+    private long sellableCount;
+    private long lastBidTotal;
+
+//    Items are only added, last bids only go up and items only close, so every change to a listing moves one of the three
+    public String eTag() {
+        return "\"" + itemCount + "-" + sellableCount + "-" + lastBidTotal + "\"";
+    }
+}
@@ -0,0 +1,52 @@
+package com.pc.greenbay.model;
+
+import com.pc.greenbay.model.request.ItemFilterDTO;
+import lombok.*;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class ResponseCacheKey {
+    private String value;
+    private UUID itemId;
+    private boolean orderedByBid;
+    private String version;
+
+    public boolean isListing() {
+        return itemId == null;
+    }
+
+    public static ResponseCacheKey details(UUID itemId) {
+        return details(itemId, null);
+    }
+
+//    The version is the ETag sent along, an entry stored under another version is not served for this key
+    public static ResponseCacheKey details(UUID itemId, String version) {
+        return new ResponseCacheKey("item/" + itemId, itemId, false, version);
+    }
+
+//    Same parameters, same key: absent ones are left out and the order is fixed
+    public static ResponseCacheKey listing(Integer page, String after, String count, String sort, ItemFilterDTO filter) {
+        StringBuilder value = new StringBuilder("item?");
+        append(value, "page", page);
+        append(value, "after", after);
+        append(value, "count", count);
+        append(value, "sort", sort);
+        append(value, "min_bid", filter.getMinBid());
+        append(value, "max_bid", filter.getMaxBid());
+        append(value, "min_purchase_price", filter.getMinPurchasePrice());
+        append(value, "max_purchase_price", filter.getMaxPurchasePrice());
+        ItemSort itemSort = sort == null ? null : ItemSort.fromParameter(sort);
+        boolean orderedByBid = filter.hasBidRange() || itemSort != null && "lastBid".equals(itemSort.getField());
+        return new ResponseCacheKey(value.toString(), null, orderedByBid, null);
+    }
+
+    private static void append(StringBuilder value, String name, Object parameter) {
+        if (parameter != null) {
+            value.append(name).append('=').append(parameter).append('&');
+        }
+    }
+}
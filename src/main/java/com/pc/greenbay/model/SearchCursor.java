@@ -0,0 +1,43 @@
+package com.pc.greenbay.model;
+
+import lombok.*;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class SearchCursor {
+    private float rank;
+    private UUID id;
+
+//    Opaque to clients: the exact rank bits and the id, base64url encoded
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(20);
+        buffer.putFloat(rank);
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public static SearchCursor decode(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (bytes.length != 20) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        float rank = buffer.getFloat();
+        if (Float.isNaN(rank)) {
+            return null;
+        }
+        return new SearchCursor(rank, new UUID(buffer.getLong(), buffer.getLong()));
+    }
+}
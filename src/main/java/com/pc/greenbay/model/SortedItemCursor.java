@@ -0,0 +1,49 @@
+package com.pc.greenbay.model;
+
+import lombok.*;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.util.Base64;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class SortedItemCursor {
+    private ItemSort sort;
+    private long key;
+    private UUID id;
+
+//    Opaque to clients: the sort, its key and the id, base64url encoded
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(25);
+        buffer.put((byte) sort.ordinal());
+        buffer.putLong(key);
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+//    A cursor of another sort, or with a key its sort cannot hold, is no cursor at all
+    public static SortedItemCursor decode(String cursor, ItemSort sort) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (bytes.length != 25 || bytes[0] != sort.ordinal()) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, 24);
+        long key = buffer.getLong();
+        try {
+            sort.keyValue(key);
+        } catch (ArithmeticException | DateTimeException e) {
+            return null;
+        }
+        return new SortedItemCursor(sort, key, new UUID(buffer.getLong(), buffer.getLong()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.pc.greenbay.model;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class StoredResponse {
+    private int status;
+    private String contentType;
+    private String location;
+    private byte[] body;
+
+}
@@ -0,0 +1,16 @@
+package com.pc.greenbay.model.request;
+
+import lombok.*;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class BidBatchEntryDTO {
+
+    private UUID itemId;
+    private Integer bidAmount;
+
+}
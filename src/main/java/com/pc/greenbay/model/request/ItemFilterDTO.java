@@ -0,0 +1,26 @@
+package com.pc.greenbay.model.request;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class ItemFilterDTO {
+    private Integer minBid;
+    private Integer maxBid;
+    private Integer minPurchasePrice;
+    private Integer maxPurchasePrice;
+
+    public boolean hasBidRange() {
+        return minBid != null || maxBid != null;
+    }
+
+    public boolean hasPurchasePriceRange() {
+        return minPurchasePrice != null || maxPurchasePrice != null;
+    }
+
+    public boolean isEmpty() {
+        return !hasBidRange() && !hasPurchasePriceRange();
+    }
+}
@@ -1,5 +1,6 @@
 package com.pc.greenbay.model.request;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -30,4 +31,12 @@ public class ItemRequestDTO {
     @Min(value = 1, message = "Purchase price must be greater than or equal to 1")
     private Integer purchasePrice;
 
+//    Optional, the default auction duration applies when missing
+    @Min(value = 1, message = "Auction duration must be at least 1 hour")
+    @Max(value = 720, message = "Auction duration must be at most 720 hours")
+    private Integer durationHours;
+
+    public ItemRequestDTO(String name, String description, String photoURL, Integer startingPrice, Integer purchasePrice) {
+        this(name, description, photoURL, startingPrice, purchasePrice, null);
+    }
 }
@@ -0,0 +1,17 @@
+package com.pc.greenbay.model.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class ProxyBidRequestDTO {
+
+    @NotNull(message = "Maximum bid is empty or missing.")
+    @Min(value = 1, message = "Maximum bid must be greater than or equal to 1")
+    private int maxAmount;
+
+}
@@ -0,0 +1,33 @@
+package com.pc.greenbay.model.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+
+public class BidBatchResultDTO {
+    private UUID itemId;
+    private Integer bidAmount;
+    private String status;
+    private String reason;
+    private String error;
+    private BidCommonResponseDTO result;
+
+    public static BidBatchResultDTO accepted(UUID itemId, int bidAmount, BidCommonResponseDTO result) {
+        String status = result instanceof ItemBoughtResponseDTO ? "bought" : "placed";
+        return new BidBatchResultDTO(itemId, bidAmount, status, null, null, result);
+    }
+
+    public static BidBatchResultDTO pending(UUID itemId, int bidAmount, String message) {
+        return new BidBatchResultDTO(itemId, bidAmount, "pending", null, message, null);
+    }
+
+    public static BidBatchResultDTO rejected(UUID itemId, Integer bidAmount, String reason, String error) {
+        return new BidBatchResultDTO(itemId, bidAmount, "rejected", reason, error, null);
+    }
+}
@@ -0,0 +1,23 @@
+package com.pc.greenbay.model.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+
+public class BidTicketDTO {
+    @JsonProperty("ticket_id")
+    private UUID ticketId;
+    private UUID itemId;
+    private int bidAmount;
+    private String status;
+    private String reason;
+    private String error;
+    private BidCommonResponseDTO result;
+}
@@ -1,6 +1,6 @@
 package com.pc.greenbay.model.response;
 
-import com.pc.greenbay.entity.Item;
+import com.pc.greenbay.model.ItemSummary;
 import lombok.*;
 
 import java.util.UUID;
@@ -16,11 +16,11 @@ public class ItemPageDTO {
     private int lastBid;
     private String sellerUsername;
 
-    public ItemPageDTO(Item item) {
+    public ItemPageDTO(ItemSummary item) {
       this.id = item.getId();
       this.name = item.getName();
       this.photoURL = item.getPhotoURL();
       this.lastBid = item.getLastBid();
-      this.sellerUsername = item.getSeller().getUsername();
+      this.sellerUsername = item.getSellerUsername();
     }
 }
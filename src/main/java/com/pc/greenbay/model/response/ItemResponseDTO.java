@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.pc.greenbay.entity.Item;
 import lombok.*;
 
+import java.time.Instant;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,6 +21,8 @@ public class ItemResponseDTO {
     private Integer startingPrice;
     @JsonProperty("purchase_price")
     private Integer purchasePrice;
+    @JsonProperty("ends_at")
+    private Instant endsAt;
 
     public static ItemResponseDTO fromEntity(Item item) {
         if (item == null) {
@@ -32,6 +36,7 @@ public class ItemResponseDTO {
         dto.setPhotoURL(item.getPhotoURL());
         dto.setStartingPrice(item.getStartingPrice());
         dto.setPurchasePrice(item.getPurchasePrice());
+        dto.setEndsAt(item.getEndsAt());
 
         return dto;
 
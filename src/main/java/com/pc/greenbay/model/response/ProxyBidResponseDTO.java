@@ -0,0 +1,23 @@
+package com.pc.greenbay.model.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+@EqualsAndHashCode(callSuper = true)
+@Data
+@NoArgsConstructor
+
+public class ProxyBidResponseDTO extends BidCommonResponseDTO {
+    @JsonProperty("max_bid")
+    private int maxAmount;
+    @JsonProperty("current_bid")
+    private int currentBid;
+    private boolean leading;
+
+    public ProxyBidResponseDTO(String name, String description, String photoURL, String sellerUsername, int maxAmount, int currentBid, boolean leading) {
+        super(name, description, photoURL, sellerUsername);
+        this.maxAmount = maxAmount;
+        this.currentBid = currentBid;
+        this.leading = leading;
+    }
+}
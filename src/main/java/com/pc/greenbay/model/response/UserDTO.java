@@ -14,6 +14,7 @@ public class UserDTO {
     private String username;
     private String password;
     private double balance;
+    private double reservedBalance;
     private String roles;
 
     public UserDTO(User user) {
@@ -21,6 +22,7 @@ public class UserDTO {
         this.username = user.getUsername();
         this.password = user.getPassword();
         this.balance = user.getBalance();
+        this.reservedBalance = user.getReservedBalance();
         this.roles = user.getRoles();
     }
 }
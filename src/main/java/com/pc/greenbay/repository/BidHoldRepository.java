@@ -0,0 +1,26 @@
+package com.pc.greenbay.repository;
+
+import com.pc.greenbay.entity.BidHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface BidHoldRepository extends JpaRepository<BidHold, UUID> {
+
+    @Modifying
+    @Query(value = "insert into bid_holds (item_id, user_id, amount) values (:itemId, :userId, :amount)", nativeQuery = true)
+    int insertHold(@Param("itemId") UUID itemId, @Param("userId") UUID userId, @Param("amount") int amount);
+
+    @Modifying
+    @Query("update BidHold h set h.userId = :userId, h.amount = :amount where h.itemId = :itemId")
+    int updateHold(@Param("itemId") UUID itemId, @Param("userId") UUID userId, @Param("amount") int amount);
+
+    @Modifying
+    @Query("delete from BidHold h where h.itemId = :itemId")
+    int deleteHold(@Param("itemId") UUID itemId);
+}
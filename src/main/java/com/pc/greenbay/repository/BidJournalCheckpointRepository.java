@@ -0,0 +1,9 @@
+package com.pc.greenbay.repository;
+
+import com.pc.greenbay.entity.BidJournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BidJournalCheckpointRepository extends JpaRepository<BidJournalCheckpoint, Integer> {
+}
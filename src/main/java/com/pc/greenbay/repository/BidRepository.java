@@ -2,12 +2,25 @@ package com.pc.greenbay.repository;
 
 import com.pc.greenbay.entity.Bid;
 import com.pc.greenbay.entity.Item;
+import com.pc.greenbay.model.response.BidListDTO;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface BidRepository extends JpaRepository<Bid, Long> {
     List<Bid> findAllByItem(Item item);
+
+    @Query("select new com.pc.greenbay.model.response.BidListDTO(b.id, u.username, b.bidAmount) " +
+            "from Bid b join b.bidder u where b.item.id = :itemId order by b.id")
+    List<BidListDTO> findBidListByItemId(@Param("itemId") UUID itemId);
+
+    @EntityGraph(attributePaths = "bidder")
+    Optional<Bid> findFirstByItemIdOrderByBidAmountDesc(UUID itemId);
 }
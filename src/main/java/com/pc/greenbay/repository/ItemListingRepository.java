@@ -0,0 +1,16 @@
+package com.pc.greenbay.repository;
+
+import com.pc.greenbay.model.ItemSort;
+import com.pc.greenbay.model.ItemSummary;
+import com.pc.greenbay.model.SortedItemCursor;
+
+import java.util.List;
+
+public interface ItemListingRepository {
+
+    /**
+     * Sellable items in the given order, starting after the cursor or from the first item
+     * when it is null. The minimum and maximum, both optional, bound the sort's own column.
+     */
+    List<ItemSummary> findSellableSorted(ItemSort sort, Integer minimum, Integer maximum, SortedItemCursor after, int limit);
+}
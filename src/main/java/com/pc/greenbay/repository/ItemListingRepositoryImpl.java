@@ -0,0 +1,55 @@
+package com.pc.greenbay.repository;
+
+import com.pc.greenbay.model.ItemSort;
+import com.pc.greenbay.model.ItemSummary;
+import com.pc.greenbay.model.SortedItemCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+/**
+ * Builds the listing query from the sort, so every range and the cursor bound the one
+ * column the index is ordered by. Only names taken from ItemSort go into the statement.
+ */
+public class ItemListingRepositoryImpl implements ItemListingRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ItemSummary> findSellableSorted(ItemSort sort, Integer minimum, Integer maximum, SortedItemCursor after, int limit) {
+        String column = "i." + sort.getField();
+        StringBuilder jpql = new StringBuilder("select new com.pc.greenbay.model.ItemSummary(i.id, i.name, i.photoURL, i.lastBid, " +
+                "i.purchasePrice, s.username, i.createdAt) from Item i join i.seller s where i.sellable = true");
+        if (minimum != null) {
+            jpql.append(" and ").append(column).append(" >= :minimum");
+        }
+        if (maximum != null) {
+            jpql.append(" and ").append(column).append(" <= :maximum");
+        }
+        if (after != null) {
+//            Same shape as findSellableAfter: the redundant bound starts the range scan at the cursor
+            String beyond = sort.isAscending() ? ">" : "<";
+            jpql.append(" and ").append(column).append(' ').append(beyond).append("= :key and (")
+                    .append(column).append(' ').append(beyond).append(" :key or i.id ").append(beyond).append(" :id)");
+        }
+        String direction = sort.isAscending() ? "" : " desc";
+        jpql.append(" order by ").append(column).append(direction).append(", i.id").append(direction);
+
+        TypedQuery<ItemSummary> query = entityManager.createQuery(jpql.toString(), ItemSummary.class)
+                .setMaxResults(limit);
+        if (minimum != null) {
+            query.setParameter("minimum", minimum);
+        }
+        if (maximum != null) {
+            query.setParameter("maximum", maximum);
+        }
+        if (after != null) {
+            query.setParameter("key", sort.keyValue(after.getKey()));
+            query.setParameter("id", after.getId());
+        }
+        return query.getResultList();
+    }
+}
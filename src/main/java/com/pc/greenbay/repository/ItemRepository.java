@@ -1,18 +1,100 @@
 package com.pc.greenbay.repository;
 
 import com.pc.greenbay.entity.Item;
+import com.pc.greenbay.model.AuctionDeadline;
+import com.pc.greenbay.model.ItemBidState;
+import com.pc.greenbay.model.ItemSummary;
+import com.pc.greenbay.model.ItemVersion;
+import com.pc.greenbay.model.ListingVersion;
+import com.pc.greenbay.model.response.ItemListDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, UUID>, PagingAndSortingRepository<Item, UUID> {
+public interface ItemRepository extends JpaRepository<Item, UUID>, PagingAndSortingRepository<Item, UUID>, ItemListingRepository {
+    @EntityGraph(attributePaths = "seller")
     Optional<Item> findItemById(UUID id);
+    @EntityGraph(attributePaths = "seller")
     Page<Item> findAllBySellableTrue(Pageable pageable);
+    long countBySellableTrue();
+    List<Item> findAllByCreatedAtGreaterThanEqual(Instant createdAt);
 
+    @Query("select new com.pc.greenbay.model.response.ItemListDTO(i.id, i.name, i.description, i.photoURL, i.lastBid, " +
+            "i.sellable, s.username) from Item i join i.seller s")
+    List<ItemListDTO> findItemList();
+
+//    Read forward only in chunks of the fetch size, the caller holds a transaction and closes the stream
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.pc.greenbay.model.response.ItemListDTO(i.id, i.name, i.description, i.photoURL, i.lastBid, " +
+            "i.sellable, s.username) from Item i join i.seller s")
+    Stream<ItemListDTO> streamItemList();
+
+//    Listing reads stop at the columns of the page, the description and the seller's other columns stay in the database
+    @Query("select new com.pc.greenbay.model.ItemSummary(i.id, i.name, i.photoURL, i.lastBid, i.purchasePrice, s.username, i.createdAt) " +
+            "from Item i join i.seller s where i.sellable = true order by i.createdAt, i.id")
+    Slice<ItemSummary> findSellableSummaries(Pageable pageable);
+
+    @Query("select new com.pc.greenbay.model.ItemSummary(i.id, i.name, i.photoURL, i.lastBid, i.purchasePrice, s.username, i.createdAt) " +
+            "from Item i join i.seller s where i.sellable = true order by i.createdAt, i.id")
+    List<ItemSummary> findSellableFirst(Pageable pageable);
+
+//    The redundant >= bounds the index range scan, the rest skips the rows of the cursor's own timestamp
+    @Query("select new com.pc.greenbay.model.ItemSummary(i.id, i.name, i.photoURL, i.lastBid, i.purchasePrice, s.username, i.createdAt) " +
+            "from Item i join i.seller s where i.sellable = true and i.createdAt >= :createdAt " +
+            "and (i.createdAt > :createdAt or i.id > :id) order by i.createdAt, i.id")
+    List<ItemSummary> findSellableAfter(@Param("createdAt") Instant createdAt, @Param("id") UUID id, Pageable pageable);
+
+    @Query("select i from Item i join fetch i.seller where i.id in :ids")
+    List<Item> findAllWithSellerByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Item i set i.lastBid = :bidAmount " +
+            "where i.id = :id and i.sellable = true and i.lastBid < :bidAmount")
+    int raiseLastBid(@Param("id") UUID id, @Param("bidAmount") int bidAmount);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Item i set i.lastBid = :bidAmount, i.sellable = false " +
+            "where i.id = :id and i.sellable = true and i.lastBid < :bidAmount")
+    int raiseLastBidAndClose(@Param("id") UUID id, @Param("bidAmount") int bidAmount);
+
+    @Query("select new com.pc.greenbay.model.ItemBidState(i.lastBid, i.sellable) from Item i where i.id = :id")
+    Optional<ItemBidState> findBidStateById(@Param("id") UUID id);
+
+    @Query("select new com.pc.greenbay.model.ItemVersion(i.lastBid, i.sellable, " +
+            "(select count(b) from Bid b where b.item.id = i.id)) from Item i where i.id = :id")
+    Optional<ItemVersion> findVersionById(@Param("id") UUID id);
+
+    @Query("select new com.pc.greenbay.model.ListingVersion(count(i), " +
+            "coalesce(sum(case when i.sellable = true then 1 else 0 end), 0L), coalesce(sum(i.lastBid), 0L)) from Item i")
+    ListingVersion findListingVersion();
+
+    @Query("select new com.pc.greenbay.model.AuctionDeadline(i.id, i.endsAt) from Item i " +
+            "where i.sellable = true and i.endsAt is not null")
+    List<AuctionDeadline> findOpenAuctionDeadlines();
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Item i set i.sellable = false where i.id = :id and i.sellable = true")
+    int closeAuction(@Param("id") UUID id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Item i set i.endsAt = :endsAt where i.id = :id and i.sellable = true and i.endsAt < :endsAt")
+    int extendAuction(@Param("id") UUID id, @Param("endsAt") Instant endsAt);
 }
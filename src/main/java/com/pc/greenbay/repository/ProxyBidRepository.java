@@ -0,0 +1,25 @@
+package com.pc.greenbay.repository;
+
+import com.pc.greenbay.entity.ProxyBid;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ProxyBidRepository extends JpaRepository<ProxyBid, UUID> {
+
+    @Query("select p from ProxyBid p join fetch p.bidder where p.item.id = :itemId")
+    List<ProxyBid> findAllWithBidderByItemId(@Param("itemId") UUID itemId);
+
+    Optional<ProxyBid> findByItemIdAndBidderId(UUID itemId, UUID bidderId);
+
+    @Modifying
+    @Query("delete from ProxyBid p where p.item.id = :itemId")
+    int deleteAllByItemId(@Param("itemId") UUID itemId);
+}
@@ -2,6 +2,9 @@ package com.pc.greenbay.repository;
 
 import com.pc.greenbay.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +17,25 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     List<User> findAllByRolesContains(String role);
 
+    @Modifying
+    @Query("update User u set u.reservedBalance = u.reservedBalance + :amount " +
+            "where u.id = :id and u.balance - u.reservedBalance >= :amount")
+    int reserve(@Param("id") UUID id, @Param("amount") double amount);
+
+    @Modifying
+    @Query("update User u set u.reservedBalance = u.reservedBalance - :amount where u.id = :id")
+    int release(@Param("id") UUID id, @Param("amount") double amount);
+
+    @Modifying
+    @Query("update User u set u.balance = u.balance - :amount, u.reservedBalance = u.reservedBalance - :held " +
+            "where u.id = :id and u.balance - u.reservedBalance + :held >= :amount")
+    int settle(@Param("id") UUID id, @Param("amount") double amount, @Param("held") double held);
+
+//    Never below what open bids hold, or the leading holds would have no money behind them
+    @Modifying(flushAutomatically = true)
+    @Query("update User u set u.balance = :balance where u.username = :username and u.reservedBalance <= :balance")
+    int updateBalance(@Param("username") String username, @Param("balance") double balance);
+
+    @Query("select u.balance - u.reservedBalance from User u where u.id = :id")
+    Optional<Double> findAvailableBalanceById(@Param("id") UUID id);
 }
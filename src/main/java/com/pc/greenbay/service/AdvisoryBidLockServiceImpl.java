@@ -0,0 +1,101 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.exception.BidLockTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Item bid lock shared by every application node using the same database, enabled with
+ * greenbay.bid.lock.mode=advisory. PostgreSQL takes a transaction scoped advisory lock
+ * keyed by the item id, released by the database itself on commit or rollback, so bids
+ * on one item are serialized across the cluster while bids on other items never wait.
+ * Other databases, H2 in tests, lock the item row with select ... for update instead.
+ */
+@Service
+@ConditionalOnProperty(name = "greenbay.bid.lock.mode", havingValue = "advisory")
+public class AdvisoryBidLockServiceImpl implements BidLockService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+    private final String lockTimeout;
+    private final Timer lockWaitTimer;
+    private final Counter lockTimeoutCounter;
+
+    @Autowired
+    public AdvisoryBidLockServiceImpl(JdbcTemplate jdbcTemplate, DataSource dataSource,
+                                      @Value("${greenbay.bid.lock.timeout-ms:2000}") long timeoutMillis,
+                                      MeterRegistry meterRegistry) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.postgres = "PostgreSQL".equals(product);
+        this.lockTimeout = String.valueOf(timeoutMillis);
+        this.lockWaitTimer = Timer.builder("greenbay.bid.lock.advisory.wait")
+                .description("Time spent waiting for the cluster wide item bid lock")
+                .register(meterRegistry);
+        this.lockTimeoutCounter = Counter.builder("greenbay.bid.lock.advisory.timeouts")
+                .description("Bids rejected because the cluster wide item bid lock was not acquired in time")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void lockItem(UUID itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Item bid lock requires an active transaction.");
+        }
+        long start = System.nanoTime();
+//        PostgreSQL reports an expired lock_timeout as a locking failure, H2 as a query timeout
+        try {
+            if (postgres) {
+                lockAdvisory(itemId);
+            } else {
+                lockRow(itemId);
+            }
+        } catch (PessimisticLockingFailureException | QueryTimeoutException e) {
+            lockTimeoutCounter.increment();
+            throw new BidLockTimeoutException("The item is busy, please try again.");
+        } finally {
+            lockWaitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+//    The lock timeout only applies while waiting for the lock, the statements after it keep the previous one
+    private void lockAdvisory(UUID itemId) {
+        String previous = jdbcTemplate.queryForObject(
+                "select current_setting('lock_timeout') as previous, set_config('lock_timeout', ?, true) as timeout",
+                (rs, rowNum) -> rs.getString("previous"), lockTimeout);
+        jdbcTemplate.query("select pg_advisory_xact_lock(?)::text as locked, set_config('lock_timeout', ?, true) as timeout",
+                rs -> null, advisoryKey(itemId), previous);
+    }
+
+//    H2 keeps the lock timeout for the session, so the pooled connection gets its previous one back
+    private void lockRow(UUID itemId) {
+        Integer previous = jdbcTemplate.queryForObject("select lock_timeout()", Integer.class);
+        jdbcTemplate.execute("SET LOCK_TIMEOUT " + lockTimeout);
+        try {
+            jdbcTemplate.query("select id from items where id = ? for update", rs -> null, itemId);
+        } finally {
+            jdbcTemplate.execute("SET LOCK_TIMEOUT " + previous);
+        }
+    }
+
+//    Folding the 128 bit id into the 64 bit key space may pair two items on one lock, which only costs some waiting
+    static long advisoryKey(UUID itemId) {
+        return itemId.getMostSignificantBits() ^ itemId.getLeastSignificantBits();
+    }
+}
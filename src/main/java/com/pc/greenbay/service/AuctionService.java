@@ -0,0 +1,35 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.Item;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface AuctionService {
+
+    /**
+     * End time of a new auction, the configured default applies when no duration is given.
+     */
+    Instant endOfAuction(Integer durationHours);
+
+    /**
+     * Schedules the auction to be closed at its end time, after the calling transaction commits.
+     */
+    void scheduleClose(UUID itemId, Instant endsAt);
+
+    /**
+     * Pushes the end of the auction back when a bid arrives shortly before it ends.
+     * Must run inside the transaction holding the item's bid lock.
+     */
+    void extendIfEndingSoon(Item item);
+
+    /**
+     * Drops the scheduled close of an auction that has been bought outright.
+     */
+    void cancelClose(UUID itemId);
+
+    /**
+     * Marks the expired auction not sellable and sells the item to the highest bidder, if any.
+     */
+    void closeAuction(UUID itemId);
+}
@@ -0,0 +1,209 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.Bid;
+import com.pc.greenbay.entity.Item;
+import com.pc.greenbay.entity.Purchase;
+import com.pc.greenbay.exception.NotEnoughMoneyException;
+import com.pc.greenbay.model.AuctionDeadline;
+import com.pc.greenbay.repository.BidRepository;
+import com.pc.greenbay.repository.ItemRepository;
+import com.pc.greenbay.repository.ProxyBidRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.pc.greenbay.service.TransactionCallbacks.afterCommit;
+
+/**
+ * Closes auctions at their end time. Deadlines live in memory on a hashed timing wheel,
+ * loaded once on startup, so the items table is never polled. Expired deadlines are closed
+ * on a separate thread so a slow close never delays the wheel.
+ */
+@Service
+public class AuctionServiceImpl implements AuctionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuctionServiceImpl.class);
+
+    private final ItemRepository itemRepository;
+    private final BidRepository bidRepository;
+    private final PurchaseService purchaseService;
+    private final BalanceHoldService balanceHoldService;
+    private final ProxyBidRepository proxyBidRepository;
+    private final BidLockService bidLockService;
+    private final ItemCountService itemCountService;
+    private final ResponseCacheService responseCacheService;
+    private final ItemEventService itemEventService;
+    private final BidService bidService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration defaultDuration;
+    private final Duration antiSnipingWindow;
+    private final AuctionTimingWheel wheel;
+    private final ExecutorService closeExecutor;
+    private final Counter soldCounter;
+    private final Counter unsoldCounter;
+
+    @Autowired
+    public AuctionServiceImpl(ItemRepository itemRepository, BidRepository bidRepository, PurchaseService purchaseService,
+                              BalanceHoldService balanceHoldService, ProxyBidRepository proxyBidRepository,
+                              BidLockService bidLockService, ItemCountService itemCountService, ResponseCacheService responseCacheService,
+                              ItemEventService itemEventService, @Lazy BidService bidService,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${greenbay.auction.default-duration-hours:168}") long defaultDurationHours,
+                              @Value("${greenbay.auction.anti-sniping.window-seconds:0}") long antiSnipingWindowSeconds,
+                              @Value("${greenbay.auction.wheel.tick-ms:1000}") long tickMillis,
+                              @Value("${greenbay.auction.wheel.slots:512}") int slots,
+                              MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.bidRepository = bidRepository;
+        this.purchaseService = purchaseService;
+        this.balanceHoldService = balanceHoldService;
+        this.proxyBidRepository = proxyBidRepository;
+        this.bidLockService = bidLockService;
+        this.itemCountService = itemCountService;
+        this.responseCacheService = responseCacheService;
+        this.itemEventService = itemEventService;
+        this.bidService = bidService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultDuration = Duration.ofHours(defaultDurationHours);
+        this.antiSnipingWindow = Duration.ofSeconds(antiSnipingWindowSeconds);
+        this.wheel = new AuctionTimingWheel(tickMillis, slots, System.currentTimeMillis(), this::closeLater);
+        this.closeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "auction-close");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.soldCounter = Counter.builder("greenbay.auction.closed").tag("outcome", "sold").register(meterRegistry);
+        this.unsoldCounter = Counter.builder("greenbay.auction.closed").tag("outcome", "unsold").register(meterRegistry);
+        Gauge.builder("greenbay.auction.scheduled", wheel, AuctionTimingWheel::size)
+                .description("Open auctions waiting for their end time")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleOpenAuctions() {
+        for (AuctionDeadline deadline : itemRepository.findOpenAuctionDeadlines()) {
+            wheel.schedule(deadline.getItemId(), deadline.getEndsAt().toEpochMilli());
+        }
+        log.info("Scheduled {} open auctions", wheel.size());
+        wheel.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+        closeExecutor.shutdown();
+    }
+
+    @Override
+    public Instant endOfAuction(Integer durationHours) {
+        Duration duration = durationHours != null ? Duration.ofHours(durationHours) : defaultDuration;
+        return Instant.now().plus(duration);
+    }
+
+    @Override
+    public void scheduleClose(UUID itemId, Instant endsAt) {
+        if (endsAt == null) {
+            return;
+        }
+        afterCommit(() -> wheel.schedule(itemId, endsAt.toEpochMilli()));
+    }
+
+    @Override
+    public void extendIfEndingSoon(Item item) {
+        if (antiSnipingWindow.isZero() || item.getEndsAt() == null) {
+            return;
+        }
+        Instant extendedEnd = Instant.now().plus(antiSnipingWindow);
+        if (item.getEndsAt().isBefore(extendedEnd) && itemRepository.extendAuction(item.getId(), extendedEnd) == 1) {
+            scheduleClose(item.getId(), extendedEnd);
+        }
+    }
+
+    @Override
+    public void cancelClose(UUID itemId) {
+        afterCommit(() -> wheel.cancel(itemId));
+    }
+
+    @Override
+    public void closeAuction(UUID itemId) {
+        Instant notYet = bidService.stopBidding(itemId);
+        if (notYet != null) {
+            wheel.schedule(itemId, notYet.toEpochMilli());
+            return;
+        }
+        Instant endsAt;
+        try {
+            endsAt = transactionTemplate.execute(status -> closeInTransaction(itemId, true));
+        } catch (NotEnoughMoneyException e) {
+            log.warn("Highest bidder of item {} can no longer pay, closing the auction without a sale", itemId);
+            endsAt = transactionTemplate.execute(status -> closeInTransaction(itemId, false));
+        }
+        if (endsAt != null) {
+            wheel.schedule(itemId, endsAt.toEpochMilli());
+        }
+    }
+
+    AuctionTimingWheel wheel() {
+        return wheel;
+    }
+
+    private void closeLater(UUID itemId) {
+        closeExecutor.execute(() -> {
+            try {
+                closeAuction(itemId);
+            } catch (RuntimeException e) {
+                log.error("Closing the auction of item {} failed", itemId, e);
+            }
+        });
+    }
+
+//    Returns the new end time when the auction has been extended since it was scheduled
+    private Instant closeInTransaction(UUID itemId, boolean sell) {
+        bidLockService.lockItem(itemId);
+        Optional<Item> optionalItem = itemRepository.findItemById(itemId);
+        if (optionalItem.isEmpty() || !optionalItem.get().isSellable() || optionalItem.get().getEndsAt() == null) {
+            return null;
+        }
+        Item item = optionalItem.get();
+        if (item.getEndsAt().isAfter(Instant.now())) {
+            return item.getEndsAt();
+        }
+        if (itemRepository.closeAuction(itemId) == 0) {
+            return null;
+        }
+        itemCountService.itemClosed();
+        responseCacheService.itemClosed(itemId);
+        Optional<Bid> highestBid = sell ? bidRepository.findFirstByItemIdOrderByBidAmountDesc(itemId) : Optional.empty();
+        if (highestBid.isPresent()) {
+            Bid bid = highestBid.get();
+            purchaseService.savePurchase(new Purchase(item, bid.getBidder(), bid.getBidAmount()));
+            balanceHoldService.settlePurchase(itemId, bid.getBidder().getId(), bid.getBidAmount());
+            soldCounter.increment();
+            itemEventService.itemSold(itemId, bid.getBidAmount());
+        } else {
+            balanceHoldService.releaseHold(itemId);
+            itemEventService.auctionEnded(itemId, item.getLastBid());
+            unsoldCounter.increment();
+        }
+        proxyBidRepository.deleteAllByItemId(itemId);
+        return null;
+    }
+}
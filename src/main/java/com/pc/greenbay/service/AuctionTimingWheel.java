@@ -0,0 +1,156 @@
+package com.pc.greenbay.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for auction deadlines. A deadline is hashed into one of a fixed
+ * number of slots by its tick and remembers how many full turns of the wheel are left,
+ * so scheduling, rescheduling and cancelling are O(1) and every tick only looks at one
+ * slot. Deadlines fire at most one tick late and never early.
+ * Slots are only touched by the thread calling {@link #advance(long)}, other threads hand
+ * new deadlines over through a lock free queue.
+ */
+final class AuctionTimingWheel {
+
+    private static final Logger log = LoggerFactory.getLogger(AuctionTimingWheel.class);
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final List<Deque<Timeout>> slots;
+    private final int mask;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final ConcurrentMap<UUID, Timeout> timeouts = new ConcurrentHashMap<>();
+    private final Consumer<UUID> expiry;
+    private long tick;
+    private volatile Thread worker;
+
+    AuctionTimingWheel(long tickMillis, int slotCount, long startMillis, Consumer<UUID> expiry) {
+        int size = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+//        Linked slots, expiring removes timeouts from the middle while iterating
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            slots.add(new LinkedList<>());
+        }
+        this.mask = size - 1;
+        this.expiry = expiry;
+    }
+
+    /**
+     * Schedules the key, replacing the deadline it had before.
+     */
+    void schedule(UUID key, long deadlineMillis) {
+        Timeout timeout = new Timeout(key, deadlineMillis);
+        Timeout previous = timeouts.put(key, timeout);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        pending.add(timeout);
+    }
+
+    void cancel(UUID key) {
+        Timeout timeout = timeouts.remove(key);
+        if (timeout != null) {
+            timeout.cancelled = true;
+        }
+    }
+
+    int size() {
+        return timeouts.size();
+    }
+
+    int slotCount() {
+        return slots.size();
+    }
+
+    /**
+     * Processes every tick that has fully passed by the given time.
+     */
+    void advance(long nowMillis) {
+        while (startMillis + (tick + 1) * tickMillis <= nowMillis) {
+            transferPending();
+            expire(slots.get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    void start() {
+        Thread thread = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                advance(System.currentTimeMillis());
+                try {
+                    Thread.sleep(tickMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "auction-wheel");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    void stop() {
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            long targetTick = Math.max((timeout.deadlineMillis - startMillis) / tickMillis, tick);
+            timeout.remainingRounds = (targetTick - tick) / slots.size();
+            slots.get((int) (targetTick & mask)).add(timeout);
+        }
+    }
+
+    private void expire(Deque<Timeout> slot) {
+        Iterator<Timeout> iterator = slot.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.cancelled) {
+                iterator.remove();
+            } else if (timeout.remainingRounds <= 0) {
+                iterator.remove();
+                if (timeouts.remove(timeout.key, timeout)) {
+                    fire(timeout.key);
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    private void fire(UUID key) {
+        try {
+            expiry.accept(key);
+        } catch (RuntimeException e) {
+            log.error("Auction deadline handler failed for item {}", key, e);
+        }
+    }
+
+    private static final class Timeout {
+        private final UUID key;
+        private final long deadlineMillis;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(UUID key, long deadlineMillis) {
+            this.key = key;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.pc.greenbay.service;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BalanceHoldService {
+
+    void holdForLeadingBid(UUID itemId, UUID bidderId, int bidAmount);
+
+    void settlePurchase(UUID itemId, UUID buyerId, int purchaseAmount);
+
+    void releaseHold(UUID itemId);
+
+    double getAvailableBalance(UUID userId);
+
+    Optional<UUID> findLeadingBidder(UUID itemId);
+
+    void reserveBalance(UUID userId, int amount);
+
+    void releaseBalance(UUID userId, int amount);
+
+    void moveReservedHold(UUID itemId, UUID bidderId, int bidAmount);
+
+    void settleReservedPurchase(UUID itemId, UUID buyerId, int purchaseAmount);
+}
@@ -0,0 +1,125 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.BidHold;
+import com.pc.greenbay.repository.BidHoldRepository;
+import com.pc.greenbay.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.pc.greenbay.exception.NotEnoughMoneyException.NOT_ENOUGH_AVAILABLE;
+
+/**
+ * Keeps the money of leading bids reserved. Every balance change is a single
+ * conditional update on the user row, so concurrent bids of the same user on
+ * different items can never reserve more than the user has.
+ * Callers must run inside the transaction that raised the item's last bid. Holding and
+ * settling start with their conditional update, so when they refuse nothing has changed
+ * yet and the caller may carry on without that bid.
+ */
+@Service
+public class BalanceHoldServiceImpl implements BalanceHoldService {
+
+    private final BidHoldRepository bidHoldRepository;
+    private final UserRepository userRepository;
+
+    @Autowired
+    public BalanceHoldServiceImpl(BidHoldRepository bidHoldRepository, UserRepository userRepository) {
+        this.bidHoldRepository = bidHoldRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public void holdForLeadingBid(UUID itemId, UUID bidderId, int bidAmount) {
+        Optional<BidHold> previous = bidHoldRepository.findById(itemId);
+        if (previous.isEmpty()) {
+            reserve(bidderId, bidAmount);
+            bidHoldRepository.insertHold(itemId, bidderId, bidAmount);
+            return;
+        }
+        BidHold hold = previous.get();
+        if (hold.getUserId().equals(bidderId)) {
+            reserve(bidderId, bidAmount - hold.getAmount());
+        } else {
+            reserve(bidderId, bidAmount);
+            userRepository.release(hold.getUserId(), hold.getAmount());
+        }
+        bidHoldRepository.updateHold(itemId, bidderId, bidAmount);
+    }
+
+    @Override
+    public void settlePurchase(UUID itemId, UUID buyerId, int purchaseAmount) {
+        Optional<BidHold> previous = bidHoldRepository.findById(itemId);
+        int held = previous.filter(hold -> hold.getUserId().equals(buyerId)).map(BidHold::getAmount).orElse(0);
+        if (userRepository.settle(buyerId, purchaseAmount, held) == 0) {
+            throw NOT_ENOUGH_AVAILABLE;
+        }
+        previous.ifPresent(hold -> {
+            if (!hold.getUserId().equals(buyerId)) {
+                userRepository.release(hold.getUserId(), hold.getAmount());
+            }
+            bidHoldRepository.deleteHold(itemId);
+        });
+    }
+
+    @Override
+    public void releaseHold(UUID itemId) {
+        bidHoldRepository.findById(itemId).ifPresent(hold -> {
+            userRepository.release(hold.getUserId(), hold.getAmount());
+            bidHoldRepository.deleteHold(itemId);
+        });
+    }
+
+    @Override
+    public double getAvailableBalance(UUID userId) {
+        return userRepository.findAvailableBalanceById(userId)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found."));
+    }
+
+    @Override
+    public Optional<UUID> findLeadingBidder(UUID itemId) {
+        return bidHoldRepository.findById(itemId).map(BidHold::getUserId);
+    }
+
+    @Override
+    public void reserveBalance(UUID userId, int amount) {
+        reserve(userId, amount);
+    }
+
+    @Override
+    public void releaseBalance(UUID userId, int amount) {
+        if (amount > 0) {
+            userRepository.release(userId, amount);
+        }
+    }
+
+//    The journal engine reserves the bid amount before the bid is accepted, here only the previous hold goes away
+    @Override
+    public void moveReservedHold(UUID itemId, UUID bidderId, int bidAmount) {
+        Optional<BidHold> previous = bidHoldRepository.findById(itemId);
+        if (previous.isEmpty()) {
+            bidHoldRepository.insertHold(itemId, bidderId, bidAmount);
+            return;
+        }
+        BidHold hold = previous.get();
+        userRepository.release(hold.getUserId(), hold.getAmount());
+        bidHoldRepository.updateHold(itemId, bidderId, bidAmount);
+    }
+
+    @Override
+    public void settleReservedPurchase(UUID itemId, UUID buyerId, int purchaseAmount) {
+        releaseHold(itemId);
+        if (userRepository.settle(buyerId, purchaseAmount, purchaseAmount) == 0) {
+            throw NOT_ENOUGH_AVAILABLE;
+        }
+    }
+
+    private void reserve(UUID userId, int amount) {
+        if (amount > 0 && userRepository.reserve(userId, amount) == 0) {
+            throw NOT_ENOUGH_AVAILABLE;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.User;
+import com.pc.greenbay.model.request.BidBatchEntryDTO;
+import com.pc.greenbay.model.response.BidBatchResultDTO;
+
+import java.util.List;
+
+public interface BidBatchService {
+
+    List<BidBatchResultDTO> placeBids(User bidder, List<BidBatchEntryDTO> bids);
+
+    int getMaxBatchSize();
+}
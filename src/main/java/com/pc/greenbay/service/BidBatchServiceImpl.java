@@ -0,0 +1,87 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.Item;
+import com.pc.greenbay.entity.User;
+import com.pc.greenbay.exception.BidPendingException;
+import com.pc.greenbay.exception.BidRejectionReason;
+import com.pc.greenbay.model.request.BidBatchEntryDTO;
+import com.pc.greenbay.model.response.BidBatchResultDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Places several bids of one bidder. The items are loaded with a single query and
+ * every bid runs in its own transaction, so a rejected bid does not roll back the others.
+ * This service is deliberately not transactional itself.
+ */
+@Service
+public class BidBatchServiceImpl implements BidBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(BidBatchServiceImpl.class);
+
+    private final BidService bidService;
+    private final ItemService itemService;
+    private final int maxBatchSize;
+
+    @Autowired
+    public BidBatchServiceImpl(BidService bidService, ItemService itemService,
+                               @Value("${greenbay.bid.batch.max-size:100}") int maxBatchSize) {
+        this.bidService = bidService;
+        this.itemService = itemService;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public List<BidBatchResultDTO> placeBids(User bidder, List<BidBatchEntryDTO> bids) {
+        Set<UUID> itemIds = bids.stream()
+                .map(BidBatchEntryDTO::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<UUID, Item> items = itemService.getItemsByIds(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        List<BidBatchResultDTO> results = new ArrayList<>(bids.size());
+        for (BidBatchEntryDTO entry : bids) {
+            results.add(placeBid(bidder, entry, items));
+        }
+        return results;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    private BidBatchResultDTO placeBid(User bidder, BidBatchEntryDTO entry, Map<UUID, Item> items) {
+        if (entry.getItemId() == null) {
+            return BidBatchResultDTO.rejected(null, entry.getBidAmount(), BidRejectionReason.INVALID.name(), "Item id is empty or missing.");
+        }
+        if (entry.getBidAmount() == null || entry.getBidAmount() < 1) {
+            return BidBatchResultDTO.rejected(entry.getItemId(), entry.getBidAmount(), BidRejectionReason.INVALID.name(),
+                    "Bid amount must be greater than or equal to 1");
+        }
+        Item item = items.get(entry.getItemId());
+        if (item == null) {
+            return BidBatchResultDTO.rejected(entry.getItemId(), entry.getBidAmount(), BidRejectionReason.NOT_FOUND.name(), "Item not found.");
+        }
+        try {
+            return BidBatchResultDTO.accepted(entry.getItemId(), entry.getBidAmount(),
+                    bidService.placeBid(item, bidder, entry.getBidAmount()));
+        } catch (BidPendingException ex) {
+            return BidBatchResultDTO.pending(entry.getItemId(), entry.getBidAmount(), ex.getMessage());
+        } catch (RuntimeException ex) {
+            BidRejectionReason reason = BidRejectionReason.of(ex);
+            if (reason == BidRejectionReason.ERROR) {
+                log.error("Bid in batch failed", ex);
+            }
+            return BidBatchResultDTO.rejected(entry.getItemId(), entry.getBidAmount(), reason.name(), ex.getMessage());
+        }
+    }
+}
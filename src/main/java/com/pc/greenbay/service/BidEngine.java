@@ -0,0 +1,328 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.exception.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+import static com.pc.greenbay.exception.BidOnOwnItemException.OWN_ITEM;
+import static com.pc.greenbay.exception.ItemNotSellableException.AUCTION_ENDED;
+import static com.pc.greenbay.exception.ItemNotSellableException.NOT_SELLABLE;
+import static com.pc.greenbay.exception.LowBidException.LOW_BID;
+
+/**
+ * Single writer bid engine. Bids are queued on a bounded ring per shard, chosen by item
+ * id, and one thread per shard applies them to the in-memory item state in arrival order.
+ * Accepted bids of a drained batch are appended to the shard's journal with one fsync
+ * before any of them is acknowledged, then handed to the projection, which brings the
+ * database up to date asynchronously. State changes of a batch only become visible once
+ * the journal write succeeded, so a failed write leaves the engine as it was.
+ * Auction closes pass through the same ring, so the engine stops taking bids on an item
+ * exactly after the bids queued before the close.
+ */
+final class BidEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(BidEngine.class);
+
+    private final Shard[] shards;
+    private final int maxBatchSize;
+    private final Duration antiSnipingWindow;
+    private final long compactBytes;
+    private final BiConsumer<Integer, List<BidJournal.Entry>> projection;
+
+    /**
+     * What the engine knows about an item. Loaded from the database the first time the
+     * item is bid on, afterwards the engine is the only one changing it. Dropped once the item
+     * is sold or closed and the database has caught up with it, a later bid loads it again.
+     */
+    record ItemState(UUID itemId, String name, String description, String photoURL, UUID sellerId, String sellerUsername,
+                     int startingPrice, int purchasePrice, int lastBid, boolean sellable, Instant endsAt) {
+
+        ItemState accept(int amount, boolean purchase, Instant endsAt) {
+            return new ItemState(itemId, name, description, photoURL, sellerId, sellerUsername,
+                    startingPrice, purchasePrice, amount, !purchase, endsAt);
+        }
+
+        ItemState close() {
+            return new ItemState(itemId, name, description, photoURL, sellerId, sellerUsername,
+                    startingPrice, purchasePrice, lastBid, false, endsAt);
+        }
+    }
+
+//    The item can be dropped once the projection has reached the sequence
+    private record Retired(UUID itemId, long sequence) {
+    }
+
+    record Command(UUID itemId, UUID bidderId, int amount, boolean close, ItemState snapshot, CompletableFuture<Accepted> result) {
+    }
+
+    /**
+     * The journaled bid and the item after it. A close journals nothing, its entry is null.
+     */
+    record Accepted(BidJournal.Entry entry, ItemState item) {
+    }
+
+    BidEngine(List<BidJournal> journals, long[] nextSequences, int ringSize, int maxBatchSize,
+              Duration antiSnipingWindow, long compactBytes, BiConsumer<Integer, List<BidJournal.Entry>> projection) {
+        this.maxBatchSize = maxBatchSize;
+        this.antiSnipingWindow = antiSnipingWindow;
+        this.compactBytes = compactBytes;
+        this.projection = projection;
+        this.shards = new Shard[journals.size()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i, journals.get(i), nextSequences[i], ringSize);
+        }
+    }
+
+    void start() {
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+    }
+
+    void stop() {
+        for (Shard shard : shards) {
+            shard.running = false;
+            shard.thread.interrupt();
+        }
+        for (Shard shard : shards) {
+            try {
+                shard.thread.join(1000);
+                shard.journal.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                log.warn("Could not close bid journal of shard {}", shard.index, e);
+            }
+        }
+    }
+
+    boolean knows(UUID itemId) {
+        return shardFor(itemId).items.containsKey(itemId);
+    }
+
+    CompletableFuture<Accepted> submit(UUID itemId, UUID bidderId, int amount, ItemState snapshot) {
+        return enqueue(new Command(itemId, bidderId, amount, false, snapshot, new CompletableFuture<>()));
+    }
+
+    /**
+     * Stops taking bids on the item once the bids queued before are applied, unless one of
+     * them has pushed the end of the auction past now. Completes with the item as it is then.
+     */
+    CompletableFuture<Accepted> close(UUID itemId, ItemState snapshot) {
+        return enqueue(new Command(itemId, null, 0, true, snapshot, new CompletableFuture<>()));
+    }
+
+    private CompletableFuture<Accepted> enqueue(Command command) {
+        Shard shard = shardFor(command.itemId());
+        if (!shard.running) {
+            command.result().completeExceptionally(new IllegalStateException("Bid engine is shut down"));
+        } else if (!shard.ring.offer(command)) {
+            command.result().completeExceptionally(new BidQueueFullException("Too many bids are waiting, please try again later."));
+        }
+        return command.result();
+    }
+
+//    The projection reports back, so the writer knows when the journal holds nothing unprojected
+    void projected(int shardIndex, long sequence) {
+        shards[shardIndex].projectedSequence = sequence;
+    }
+
+//    Bids accepted on the item so far are journaled at or below this sequence
+    long lastSequence(UUID itemId) {
+        return shardFor(itemId).nextSequence - 1;
+    }
+
+    boolean isProjected(UUID itemId, long sequence) {
+        return shardFor(itemId).projectedSequence >= sequence;
+    }
+
+    long lag() {
+        long lag = 0;
+        for (Shard shard : shards) {
+            lag += shard.nextSequence - 1 - shard.projectedSequence;
+        }
+        return lag;
+    }
+
+    private Shard shardFor(UUID itemId) {
+        return shards[Math.floorMod(itemId.hashCode(), shards.length)];
+    }
+
+    private final class Shard {
+
+        private final int index;
+        private final BidJournal journal;
+        private final ArrayBlockingQueue<Command> ring;
+        private final ConcurrentMap<UUID, ItemState> items = new ConcurrentHashMap<>();
+        private final Queue<Retired> retired = new ArrayDeque<>();
+        private final Thread thread;
+        private volatile long nextSequence;
+        private volatile long projectedSequence;
+        private volatile boolean running = true;
+
+        private Shard(int index, BidJournal journal, long nextSequence, int ringSize) {
+            this.index = index;
+            this.journal = journal;
+            this.nextSequence = nextSequence;
+            this.projectedSequence = nextSequence - 1;
+            this.ring = new ArrayBlockingQueue<>(ringSize);
+            this.thread = new Thread(this::run, "bid-engine-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void run() {
+            List<Command> batch = new ArrayList<>(maxBatchSize);
+            while (running) {
+                try {
+                    dropProjectedRetired();
+                    Command first = ring.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        compactIfProjected();
+                        continue;
+                    }
+                    batch.add(first);
+                    ring.drainTo(batch, maxBatchSize - 1);
+                    apply(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (RuntimeException e) {
+                    log.error("Bid engine shard {} failed to apply a batch", index, e);
+                    batch.forEach(command -> command.result().completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+            Command left;
+            while ((left = ring.poll()) != null) {
+                left.result().completeExceptionally(new IllegalStateException("Bid engine is shut down"));
+            }
+        }
+
+        private void apply(List<Command> batch) {
+            Map<UUID, ItemState> changed = new HashMap<>();
+            List<BidJournal.Entry> entries = new ArrayList<>(batch.size());
+            Object[] results = new Object[batch.size()];
+            long sequence = nextSequence;
+            Instant now = Instant.now();
+            for (int i = 0; i < batch.size(); i++) {
+                Command command = batch.get(i);
+                ItemState item = changed.get(command.itemId());
+                if (item == null) {
+                    item = items.get(command.itemId());
+                }
+                if (item == null) {
+                    item = command.snapshot();
+                }
+                if (item == null) {
+                    results[i] = new RecordNotFoundException("Item not found.");
+                    continue;
+                }
+                if (command.close()) {
+                    ItemState closed = closeIfEnded(item, now);
+                    changed.put(command.itemId(), closed);
+                    results[i] = new Accepted(null, closed);
+                    continue;
+                }
+                BidRejectedException rejection = check(item, command, now);
+                if (rejection != null) {
+                    results[i] = rejection;
+                    continue;
+                }
+                boolean purchase = command.amount() >= item.purchasePrice();
+                BidJournal.Entry entry = new BidJournal.Entry(sequence++, now.toEpochMilli(), command.itemId(), command.bidderId(),
+                        command.amount(), purchase);
+                ItemState next = item.accept(command.amount(), purchase, extendedEnd(item.endsAt(), now));
+                changed.put(command.itemId(), next);
+                entries.add(entry);
+                results[i] = new Accepted(entry, next);
+            }
+            try {
+                journal.append(entries);
+            } catch (IOException e) {
+                log.error("Bid journal write failed on shard {}", index, e);
+                IllegalStateException failure = new IllegalStateException("Bid could not be recorded.", e);
+                batch.forEach(command -> command.result().completeExceptionally(failure));
+                return;
+            }
+            nextSequence = sequence;
+            items.putAll(changed);
+            for (ItemState item : changed.values()) {
+                if (!item.sellable()) {
+                    retired.add(new Retired(item.itemId(), sequence - 1));
+                }
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                if (results[i] instanceof Accepted result) {
+                    batch.get(i).result().complete(result);
+                } else {
+                    batch.get(i).result().completeExceptionally((RuntimeException) results[i]);
+                }
+            }
+            if (!entries.isEmpty()) {
+                projection.accept(index, entries);
+            }
+        }
+
+        private BidRejectedException check(ItemState item, Command command, Instant now) {
+            if (command.bidderId().equals(item.sellerId())) {
+                return OWN_ITEM;
+            }
+            if (!item.sellable()) {
+                return NOT_SELLABLE;
+            }
+            if (item.endsAt() != null && !item.endsAt().isAfter(now)) {
+                return AUCTION_ENDED;
+            }
+            if (command.amount() < item.startingPrice() || command.amount() <= item.lastBid()) {
+                return LOW_BID;
+            }
+            return null;
+        }
+
+//        An auction a bid has extended, which the database may not have seen yet, stays open
+        private ItemState closeIfEnded(ItemState item, Instant now) {
+            if (!item.sellable() || item.endsAt() != null && item.endsAt().isAfter(now)) {
+                return item;
+            }
+            return item.close();
+        }
+
+        private Instant extendedEnd(Instant endsAt, Instant now) {
+            if (endsAt == null || antiSnipingWindow.isZero()) {
+                return endsAt;
+            }
+            Instant extended = now.plus(antiSnipingWindow);
+            return endsAt.isBefore(extended) ? extended : endsAt;
+        }
+
+//        Sequences only grow, so the queue is in projection order. A sold item's purchase is in the
+//        database by then, a closed one has its end in the past and is refused again once reloaded.
+//        An item the database has reopened since is sellable again and stays
+        private void dropProjectedRetired() {
+            Retired next;
+            while ((next = retired.peek()) != null && projectedSequence >= next.sequence()) {
+                retired.poll();
+                items.computeIfPresent(next.itemId(), (itemId, item) -> item.sellable() ? item : null);
+            }
+        }
+
+//    Only the writer touches the file, and only once the projection has caught up with it
+        private void compactIfProjected() {
+            try {
+                if (projectedSequence == nextSequence - 1 && journal.size() >= compactBytes) {
+                    journal.reset();
+                }
+            } catch (IOException e) {
+                log.warn("Could not compact bid journal of shard {}", index, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.model.BidPlacement;
+
+import java.util.UUID;
+
+public interface BidFunctionService {
+
+    /**
+     * Whether bids are placed by the place_bid database function, greenbay.bid.placement=function.
+     */
+    boolean isEnabled();
+
+    /**
+     * Validates and writes a bid in one call, must run inside the bid transaction.
+     * A rejected bid returns its status and leaves the database untouched.
+     */
+    BidPlacement placeBid(UUID itemId, UUID bidderId, int bidAmount);
+}
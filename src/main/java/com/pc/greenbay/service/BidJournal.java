@@ -0,0 +1,161 @@
+package com.pc.greenbay.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of accepted bids, one fixed size record per bid. Every record ends
+ * with a checksum, so a record torn by a crash is detected on replay and cut off.
+ * Not thread safe, each shard of the bid engine owns its own journal.
+ */
+final class BidJournal implements Closeable {
+
+    static final int RECORD_SIZE = 8 + 8 + 16 + 16 + 4 + 1 + 8;
+
+    private final boolean fsync;
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 64);
+
+    /**
+     * A bid the engine accepted, purchase marks the bid that bought the item outright.
+     */
+    record Entry(long sequence, long timestamp, UUID itemId, UUID bidderId, int amount, boolean purchase) {
+    }
+
+    BidJournal(Path file, boolean fsync) throws IOException {
+        this.fsync = fsync;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+    }
+
+    /**
+     * Reads every intact record and truncates the file after the last one.
+     */
+    List<Entry> replay() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        long position = 0;
+        while (true) {
+            record.clear();
+            if (!readFully(record, position)) {
+                break;
+            }
+            record.flip();
+            Entry entry = decode(record);
+            if (entry == null) {
+                break;
+            }
+            entries.add(entry);
+            position += RECORD_SIZE;
+        }
+        channel.truncate(position);
+        channel.position(position);
+        return entries;
+    }
+
+//    One write and at most one fsync per batch, the callers acknowledge the bids afterwards
+    void append(List<Entry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        int required = entries.size() * RECORD_SIZE;
+        if (buffer.capacity() < required) {
+            buffer = ByteBuffer.allocate(required);
+        }
+        buffer.clear();
+        for (Entry entry : entries) {
+            encode(entry, buffer);
+        }
+        buffer.flip();
+        long start = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            channel.truncate(start);
+            channel.position(start);
+            throw e;
+        }
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+//    Called once every record in the file has been projected to the database
+    void reset() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        if (fsync) {
+            channel.force(true);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean readFully(ByteBuffer record, long position) throws IOException {
+        while (record.hasRemaining()) {
+            if (channel.read(record, position + record.position()) <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void encode(Entry entry, ByteBuffer target) {
+        int start = target.position();
+        target.putLong(entry.sequence());
+        target.putLong(entry.timestamp());
+        putUuid(target, entry.itemId());
+        putUuid(target, entry.bidderId());
+        target.putInt(entry.amount());
+        target.put((byte) (entry.purchase() ? 1 : 0));
+        target.putLong(checksum(target, start, target.position() - start));
+    }
+
+    private static Entry decode(ByteBuffer source) {
+        long expected = checksum(source, 0, RECORD_SIZE - 8);
+        if (source.getLong(RECORD_SIZE - 8) != expected) {
+            return null;
+        }
+        long sequence = source.getLong();
+        long timestamp = source.getLong();
+        UUID itemId = getUuid(source);
+        UUID bidderId = getUuid(source);
+        int amount = source.getInt();
+        boolean purchase = source.get() == 1;
+        return new Entry(sequence, timestamp, itemId, bidderId, amount, purchase);
+    }
+
+    private static long checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        return crc.getValue();
+    }
+
+    private static void putUuid(ByteBuffer target, UUID uuid) {
+        target.putLong(uuid.getMostSignificantBits());
+        target.putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer source) {
+        return new UUID(source.getLong(), source.getLong());
+    }
+}
@@ -0,0 +1,12 @@
+package com.pc.greenbay.service;
+
+import java.util.UUID;
+
+public interface BidLockService {
+
+    /**
+     * Serializes bids on one item. The lock is taken in the calling transaction
+     * and released only after that transaction commits or rolls back.
+     */
+    void lockItem(UUID itemId);
+}
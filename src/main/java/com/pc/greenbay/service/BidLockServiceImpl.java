@@ -0,0 +1,107 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.exception.BidLockTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Item bid lock inside one JVM, the default greenbay.bid.lock.mode=jvm. Several nodes
+ * sharing a database need the advisory mode instead.
+ */
+@Service
+@ConditionalOnProperty(name = "greenbay.bid.lock.mode", havingValue = "jvm", matchIfMissing = true)
+public class BidLockServiceImpl implements BidLockService {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutMillis;
+    private final Timer lockWaitTimer;
+    private final Counter lockTimeoutCounter;
+
+    @Autowired
+    public BidLockServiceImpl(@Value("${greenbay.bid.lock.stripes:64}") int stripeCount,
+                              @Value("${greenbay.bid.lock.timeout-ms:2000}") long timeoutMillis,
+                              MeterRegistry meterRegistry) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("greenbay.bid.lock.stripes must be at least 1");
+        }
+//        Power of two, so the stripe index is a mask instead of a modulo
+        int size = stripeCount == 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock(true);
+        }
+        this.mask = size - 1;
+        this.timeoutMillis = timeoutMillis;
+        this.lockWaitTimer = Timer.builder("greenbay.bid.lock.wait")
+                .description("Time spent waiting for an item bid lock")
+                .register(meterRegistry);
+        this.lockTimeoutCounter = Counter.builder("greenbay.bid.lock.timeouts")
+                .description("Bids rejected because the item bid lock was not acquired in time")
+                .register(meterRegistry);
+        Gauge.builder("greenbay.bid.lock.queued", this, BidLockServiceImpl::queuedThreads)
+                .description("Threads currently waiting for an item bid lock")
+                .register(meterRegistry);
+        Gauge.builder("greenbay.bid.lock.stripes", stripes, s -> s.length)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void lockItem(UUID itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Item bid lock requires an active transaction.");
+        }
+        ReentrantLock lock = stripeFor(itemId);
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BidLockTimeoutException("Bid processing was interrupted, please try again.");
+        } finally {
+            lockWaitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            lockTimeoutCounter.increment();
+            throw new BidLockTimeoutException("The item is busy, please try again.");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+
+    int stripeIndex(UUID itemId) {
+        long bits = itemId.getMostSignificantBits() ^ itemId.getLeastSignificantBits();
+        int hash = (int) (bits ^ (bits >>> 32));
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private ReentrantLock stripeFor(UUID itemId) {
+        return stripes[stripeIndex(itemId)];
+    }
+
+    private double queuedThreads() {
+        return Arrays.stream(stripes).mapToInt(ReentrantLock::getQueueLength).sum();
+    }
+}
@@ -7,6 +7,7 @@ import com.pc.greenbay.model.response.BidListDTO;
 import com.pc.greenbay.entity.User;
 import org.springframework.validation.BindingResult;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -17,7 +18,18 @@ public interface BidService {
 
     BidCommonResponseDTO placeBid(UUID itemId, User bidder, int bidAmount);
 
+    BidCommonResponseDTO placeBid(Item item, User bidder, int bidAmount);
+
+    BidCommonResponseDTO placeProxyBid(UUID itemId, User bidder, int maxAmount);
+
     List<BidListDTO> findBidsByItem(Item item);
 
+    /**
+     * Makes sure no bid on the item can be accepted any more before its auction is closed in
+     * the database. Returns when to try again, if bids are still being taken or applied, or
+     * null once the close may go ahead.
+     */
+    Instant stopBidding(UUID itemId);
+
     Map<String, String> buildErrorResponseForBiding(BindingResult bindingResult);
 }
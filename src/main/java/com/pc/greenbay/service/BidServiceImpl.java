@@ -3,14 +3,16 @@ package com.pc.greenbay.service;
 import com.pc.greenbay.exception.*;
 import com.pc.greenbay.entity.Bid;
 import com.pc.greenbay.entity.Item;
+import com.pc.greenbay.entity.ProxyBid;
 import com.pc.greenbay.entity.Purchase;
-import com.pc.greenbay.model.response.BidCommonResponseDTO;
-import com.pc.greenbay.model.response.BidListDTO;
-import com.pc.greenbay.model.response.BidPlacedResponseDTO;
-import com.pc.greenbay.model.response.ItemBoughtResponseDTO;
+import com.pc.greenbay.model.response.*;
 import com.pc.greenbay.entity.User;
+import com.pc.greenbay.model.BidPlacement;
 import com.pc.greenbay.repository.BidRepository;
+import com.pc.greenbay.repository.ProxyBidRepository;
 import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.dao.DataAccessException;
@@ -18,23 +20,58 @@ import org.springframework.stereotype.Service;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import static com.pc.greenbay.exception.BidOnOwnItemException.OWN_ITEM;
+import static com.pc.greenbay.exception.ItemNotSellableException.AUCTION_ENDED;
+import static com.pc.greenbay.exception.ItemNotSellableException.NOT_SELLABLE;
+import static com.pc.greenbay.exception.LowBidException.LOW_BID;
+import static com.pc.greenbay.exception.NoMoneyException.NO_MONEY;
+import static com.pc.greenbay.exception.NotEnoughMoneyException.NOT_ENOUGH_AVAILABLE;
+import static com.pc.greenbay.exception.NotEnoughMoneyException.NOT_ENOUGH_MONEY;
+
 @Service
 public class BidServiceImpl implements BidService {
 
+    private static final Logger log = LoggerFactory.getLogger(BidServiceImpl.class);
+
     private final BidRepository bidRepository;
     private final ItemService itemService;
     private final PurchaseService purchaseService;
     private final UserService userService;
+    private final BidLockService bidLockService;
+    private final BalanceHoldService balanceHoldService;
+    private final BidWriterService bidWriterService;
+    private final ProxyBidRepository proxyBidRepository;
+    private final AuctionService auctionService;
+    private final BidFunctionService bidFunctionService;
+    private final HighestBidCacheService highestBidCacheService;
+    private final ItemCountService itemCountService;
+    private final ResponseCacheService responseCacheService;
+    private final ItemEventService itemEventService;
 
     @Autowired
-    public BidServiceImpl(BidRepository bidRepository, @Lazy ItemService itemService, PurchaseService purchaseService, UserService userService) {
+    public BidServiceImpl(BidRepository bidRepository, @Lazy ItemService itemService, PurchaseService purchaseService, UserService userService,
+                          BidLockService bidLockService, BalanceHoldService balanceHoldService, BidWriterService bidWriterService,
+                          ProxyBidRepository proxyBidRepository, AuctionService auctionService, BidFunctionService bidFunctionService,
+                          HighestBidCacheService highestBidCacheService, ItemCountService itemCountService,
+                          ResponseCacheService responseCacheService, ItemEventService itemEventService) {
         this.bidRepository = bidRepository;
         this.itemService = itemService;
         this.purchaseService = purchaseService;
         this.userService = userService;
+        this.bidLockService = bidLockService;
+        this.balanceHoldService = balanceHoldService;
+        this.bidWriterService = bidWriterService;
+        this.proxyBidRepository = proxyBidRepository;
+        this.auctionService = auctionService;
+        this.bidFunctionService = bidFunctionService;
+        this.highestBidCacheService = highestBidCacheService;
+        this.itemCountService = itemCountService;
+        this.responseCacheService = responseCacheService;
+        this.itemEventService = itemEventService;
     }
 
 //    Only for the purpose of testing
@@ -55,27 +92,185 @@ public class BidServiceImpl implements BidService {
     @Override
     @Transactional
     public BidCommonResponseDTO placeBid(UUID itemId, User bidder, int bidAmount) {
-        if(bidder.getBalance() <= 0) {
-            throw new NoMoneyException("You have no greenBay dollars, you can't bid.");
+        checkBidderBalance(bidder, bidAmount);
+        highestBidCacheService.checkBid(itemId, bidder.getId(), bidAmount);
+
+        bidLockService.lockItem(itemId);
+        if(bidFunctionService.isEnabled()) {
+            return placeBidWithFunction(itemId, bidder, bidAmount);
         }
-        if(bidder.getBalance() < bidAmount) {
-            throw new NotEnoughMoneyException("You have not enough greenBay dollars on your account.");
+        Item item = itemService.getItemById(itemId);
+        highestBidCacheService.remember(item);
+        return placeBidAndResolveProxies(item, bidder, bidAmount);
+    }
+
+//    The item may have been read before this transaction, the conditional last bid update keeps that safe
+    @Override
+    @Transactional
+    public BidCommonResponseDTO placeBid(Item item, User bidder, int bidAmount) {
+        checkBidderBalance(bidder, bidAmount);
+        highestBidCacheService.remember(item);
+        highestBidCacheService.checkBid(item.getId(), bidder.getId(), bidAmount);
+
+        bidLockService.lockItem(item.getId());
+        if(bidFunctionService.isEnabled()) {
+            return placeBidWithFunction(item.getId(), bidder, bidAmount);
         }
+        return placeBidAndResolveProxies(item, bidder, bidAmount);
+    }
 
+    @Override
+    @Transactional
+    public BidCommonResponseDTO placeProxyBid(UUID itemId, User bidder, int maxAmount) {
+        checkBidderBalance(bidder, maxAmount);
+
+        bidLockService.lockItem(itemId);
         Item item = itemService.getItemById(itemId);
         if(bidder.getId().equals(item.getSeller().getId())) {
-            throw new BidOnOwnItemException("You cannot bid on your own item.");
+            throw OWN_ITEM;
         }
-        if(!item.isSellable()) {
-            throw new ItemNotSellableException("Item is not sellable.");
+        checkAuctionOpen(item);
+        int lastBid = item.getLastBid();
+        if(maxAmount < item.getStartingPrice() || maxAmount <= lastBid) {
+            throw LOW_BID;
+        }
+
+        ProxyBid proxyBid = proxyBidRepository.findByItemIdAndBidderId(itemId, bidder.getId())
+                .orElseGet(() -> new ProxyBid(item, bidder, maxAmount));
+        proxyBid.setMaxAmount(maxAmount);
+        proxyBid.setCreatedAt(Instant.now());
+        proxyBidRepository.save(proxyBid);
+
+        ProxyResolution resolution = resolveProxies(item, lastBid, balanceHoldService.findLeadingBidder(itemId).orElse(null));
+        boolean leading = bidder.getId().equals(resolution.leaderId());
+        if(leading && resolution.bought() != null) {
+            return resolution.bought();
+        }
+        return new ProxyBidResponseDTO(item.getName(), item.getDescription(), item.getPhotoURL(), item.getSeller().getUsername(),
+                maxAmount, resolution.lastBid(), leading);
+    }
+
+//    One statement for the whole bid; the item bid lock is still taken so proxy bids and auction closes stay serialized with it
+    private BidCommonResponseDTO placeBidWithFunction(UUID itemId, User bidder, int bidAmount) {
+        BidPlacement placement = bidFunctionService.placeBid(itemId, bidder.getId(), bidAmount);
+        switch (placement.getStatus()) {
+            case PLACED -> {
+                if(placement.getExtendedEndsAt() != null) {
+                    auctionService.scheduleClose(itemId, placement.getExtendedEndsAt());
+                }
+                highestBidCacheService.recordBid(itemId, bidAmount);
+                responseCacheService.itemBid(itemId);
+                itemEventService.bidPlaced(itemId, bidAmount);
+                if(placement.isHasProxies()) {
+                    resolveProxies(itemService.getItemById(itemId), bidAmount, bidder.getId());
+                }
+                return new BidPlacedResponseDTO(placement.getItemName(), placement.getItemDescription(), placement.getPhotoURL(),
+                        placement.getSellerName(), bidAmount);
+            }
+            case BOUGHT -> {
+                highestBidCacheService.recordBid(itemId, bidAmount);
+                itemCountService.itemClosed();
+                responseCacheService.itemClosed(itemId);
+                itemEventService.itemSold(itemId, bidAmount);
+                auctionService.cancelClose(itemId);
+                return new ItemBoughtResponseDTO(placement.getItemName(), placement.getItemDescription(), placement.getPhotoURL(),
+                        placement.getSellerName(), placement.getBuyerName(), bidAmount);
+            }
+            case NOT_FOUND -> throw new RecordNotFoundException("Item not found.");
+            case OWN_ITEM -> throw OWN_ITEM;
+            case NOT_SELLABLE -> throw NOT_SELLABLE;
+            case AUCTION_ENDED -> throw AUCTION_ENDED;
+            case LOW_BID -> throw LOW_BID;
+            default -> throw NOT_ENOUGH_AVAILABLE;
+        }
+    }
+
+    private BidCommonResponseDTO placeBidAndResolveProxies(Item item, User bidder, int bidAmount) {
+        BidCommonResponseDTO response = placeBidOnItem(item, bidder, bidAmount);
+        if(response instanceof BidPlacedResponseDTO) {
+            resolveProxies(item, bidAmount, bidder.getId());
+        }
+        return response;
+    }
+
+//    Places the visible bids the proxies of the item end up with, the item lock is already held.
+//    A proxy whose owner cannot pay its step after all is left out and the rest resolved again from where the bids stand.
+    private ProxyResolution resolveProxies(Item item, int lastBid, UUID leaderId) {
+        ProxyResolution resolution = new ProxyResolution(lastBid, leaderId, null);
+        List<ProxyBid> proxyBids = new ArrayList<>(proxyBidRepository.findAllWithBidderByItemId(item.getId()));
+        while(!proxyBids.isEmpty()) {
+            ProxyResolution current = resolution;
+            List<ProxyBidResolver.Candidate> candidates = proxyBids.stream()
+                    .map(proxyBid -> new ProxyBidResolver.Candidate(proxyBid, affordableMax(proxyBid, current.lastBid(), current.leaderId())))
+                    .toList();
+            ProxyBid failed = null;
+            for (ProxyBidResolver.Step step : ProxyBidResolver.resolve(current.lastBid(), item.getStartingPrice(), item.getPurchasePrice(),
+                    current.leaderId(), candidates)) {
+                User proxyBidder = step.proxy().getBidder();
+                BidCommonResponseDTO response = placeProxyStep(item, proxyBidder, step.bidAmount());
+                if(response == null) {
+                    failed = step.proxy();
+                    break;
+                }
+                resolution = new ProxyResolution(step.bidAmount(), proxyBidder.getId(),
+                        response instanceof ItemBoughtResponseDTO bought ? bought : null);
+            }
+            if(failed == null) {
+                return resolution;
+            }
+            proxyBids.remove(failed);
         }
+        return resolution;
+    }
+
+//    The money is taken before anything else of the bid, so a refusal leaves the manual bid and earlier steps in place
+    private BidCommonResponseDTO placeProxyStep(Item item, User proxyBidder, int bidAmount) {
+        try {
+            return placeBidOnItem(item, proxyBidder, bidAmount);
+        } catch (NotEnoughMoneyException e) {
+            log.info("Proxy bid of {} on item {} skipped, {} is no longer available", proxyBidder.getUsername(), item.getId(), bidAmount);
+            return null;
+        }
+    }
+
+//    A proxy never bids more than its owner can pay, the leader's own hold on this item counts as available
+    private int affordableMax(ProxyBid proxyBid, int lastBid, UUID leaderId) {
+        User proxyBidder = proxyBid.getBidder();
+        double available = balanceHoldService.getAvailableBalance(proxyBidder.getId());
+        if(proxyBidder.getId().equals(leaderId)) {
+            available += lastBid;
+        }
+        return (int) Math.min(proxyBid.getMaxAmount(), Math.min(proxyBidder.getBalance(), available));
+    }
+
+    private record ProxyResolution(int lastBid, UUID leaderId, ItemBoughtResponseDTO bought) {
+    }
+
+    private void checkBidderBalance(User bidder, int bidAmount) {
+        if(bidder.getBalance() <= 0) {
+            throw NO_MONEY;
+        }
+        if(bidder.getBalance() < bidAmount) {
+            throw NOT_ENOUGH_MONEY;
+        }
+    }
+
+    private BidCommonResponseDTO placeBidOnItem(Item item, User bidder, int bidAmount) {
+        UUID itemId = item.getId();
+        if(bidder.getId().equals(item.getSeller().getId())) {
+            throw OWN_ITEM;
+        }
+        checkAuctionOpen(item);
         if(bidAmount < item.getStartingPrice() || bidAmount <= item.getLastBid()) {
-            throw new LowBidException("Your bid is too low.");
+            throw LOW_BID;
         }
         if(bidAmount > item.getLastBid() && bidAmount < item.getPurchasePrice() && bidder.getBalance() >= bidAmount) {
             try {
-                itemService.saveLastBid(item, bidAmount);
-                bidRepository.save(new Bid(item, bidder, bidAmount));
+                balanceHoldService.holdForLeadingBid(itemId, bidder.getId(), bidAmount);
+                requireApplied(itemService.raiseLastBid(itemId, bidAmount, false));
+                auctionService.extendIfEndingSoon(item);
+                bidWriterService.writeBid(new Bid(item, bidder, bidAmount));
+                highestBidCacheService.recordBid(itemId, bidAmount);
                 return new BidPlacedResponseDTO(item.getName(), item.getDescription(), item.getPhotoURL(), item.getSeller().getUsername(), bidAmount);
             } catch (DataAccessException e) {
                 throw new DataAccessException("Database error occurred while placing your bid. The operation has failed.") {
@@ -84,12 +279,13 @@ public class BidServiceImpl implements BidService {
         }
         if(bidAmount >= item.getPurchasePrice() && bidder.getBalance() >= bidAmount) {
             try {
-                itemService.saveLastBid(item, bidAmount);
-                itemService.makeNotSellable(item);
-                bidRepository.save(new Bid(item, bidder, bidAmount));
+                balanceHoldService.settlePurchase(itemId, bidder.getId(), bidAmount);
+                requireApplied(itemService.raiseLastBid(itemId, bidAmount, true));
+                bidWriterService.writeBid(new Bid(item, bidder, bidAmount));
                 purchaseService.savePurchase(new Purchase(item, bidder, bidAmount));
-                bidder.setBalance(bidder.getBalance() - bidAmount);
-                userService.saveUser(bidder);
+                proxyBidRepository.deleteAllByItemId(itemId);
+                auctionService.cancelClose(itemId);
+                highestBidCacheService.recordBid(itemId, bidAmount);
                 return new ItemBoughtResponseDTO(item.getName(), item.getDescription(), item.getPhotoURL(), item.getSeller().getUsername(), bidder.getUsername(), bidAmount);
             } catch (DataAccessException e) {
                 throw new DataAccessException("Database error occurred while saving your purchase. The operation has failed.") {
@@ -99,9 +295,34 @@ public class BidServiceImpl implements BidService {
         return null;
     }
 
+//    The close scheduler may run up to one tick after the end time
+    private void checkAuctionOpen(Item item) {
+        if(!item.isSellable()) {
+            throw NOT_SELLABLE;
+        }
+        if(item.getEndsAt() != null && !item.getEndsAt().isAfter(Instant.now())) {
+            throw AUCTION_ENDED;
+        }
+    }
+
+    private void requireApplied(BidUpdateOutcome outcome) {
+        switch (outcome) {
+            case APPLIED -> {
+            }
+            case NOT_FOUND -> throw new RecordNotFoundException("Item not found.");
+            case NOT_SELLABLE -> throw NOT_SELLABLE;
+            default -> throw LOW_BID;
+        }
+    }
+
     @Override
     public List<BidListDTO> findBidsByItem(Item item) {
-        return bidRepository.findAllByItem(item).stream()
-                .map(o -> new BidListDTO(o.getId(), o.getBidder().getUsername(), o.getBidAmount())).collect(Collectors.toList());
+        return bidRepository.findBidListByItemId(item.getId());
+    }
+
+//    Bids and the close both take the item lock, nothing is left to stop
+    @Override
+    public Instant stopBidding(UUID itemId) {
+        return null;
     }
 }
@@ -0,0 +1,90 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.exception.BidRejectionReason;
+import com.pc.greenbay.model.response.BidCommonResponseDTO;
+import com.pc.greenbay.model.response.BidTicketDTO;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * State of one asynchronously placed bid. The status moves QUEUED, PROCESSING and
+ * ends in ACCEPTED or REJECTED; {@link #completion()} finishes with the final state.
+ */
+class BidTicket {
+
+    enum Status { QUEUED, PROCESSING, ACCEPTED, REJECTED }
+
+    private final UUID id = UUID.randomUUID();
+    private final UUID itemId;
+    private final String bidderUsername;
+    private final int bidAmount;
+    private final CompletableFuture<BidTicketDTO> completion = new CompletableFuture<>();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile BidCommonResponseDTO result;
+    private volatile BidRejectionReason reason;
+    private volatile String error;
+    private volatile long completedAtMillis;
+
+    BidTicket(UUID itemId, String bidderUsername, int bidAmount) {
+        this.itemId = itemId;
+        this.bidderUsername = bidderUsername;
+        this.bidAmount = bidAmount;
+    }
+
+    UUID getId() {
+        return id;
+    }
+
+    UUID getItemId() {
+        return itemId;
+    }
+
+    String getBidderUsername() {
+        return bidderUsername;
+    }
+
+    int getBidAmount() {
+        return bidAmount;
+    }
+
+    boolean isDone() {
+        return completion.isDone();
+    }
+
+    long getCompletedAtMillis() {
+        return completedAtMillis;
+    }
+
+    CompletableFuture<BidTicketDTO> completion() {
+        return completion;
+    }
+
+    void processing() {
+        status = Status.PROCESSING;
+    }
+
+    void accept(BidCommonResponseDTO result) {
+        this.result = result;
+        this.status = Status.ACCEPTED;
+        complete();
+    }
+
+    void reject(BidRejectionReason reason, String error) {
+        this.reason = reason;
+        this.error = error;
+        this.status = Status.REJECTED;
+        complete();
+    }
+
+    BidTicketDTO toDTO() {
+        return new BidTicketDTO(id, itemId, bidAmount, status.name(),
+                reason == null ? null : reason.name(), error, result);
+    }
+
+    private void complete() {
+        completedAtMillis = System.currentTimeMillis();
+        completion.complete(toDTO());
+    }
+}
@@ -0,0 +1,17 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.User;
+import com.pc.greenbay.model.response.BidTicketDTO;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+public interface BidTicketService {
+
+    BidTicketDTO submitBid(UUID itemId, User bidder, int bidAmount);
+
+    Optional<BidTicketDTO> findTicket(UUID ticketId, String bidderUsername);
+
+    Optional<CompletableFuture<BidTicketDTO>> awaitTicket(UUID ticketId, String bidderUsername, long waitMillis);
+}
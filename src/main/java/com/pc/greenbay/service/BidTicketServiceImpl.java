@@ -0,0 +1,147 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.User;
+import com.pc.greenbay.exception.BidPendingException;
+import com.pc.greenbay.exception.BidQueueFullException;
+import com.pc.greenbay.exception.BidRejectionReason;
+import com.pc.greenbay.model.response.BidTicketDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts bids without holding the request thread for the transaction. Bids are queued
+ * on a fixed number of single threaded shards chosen by item id, so bids on one item are
+ * applied in arrival order while different items proceed in parallel.
+ */
+@Service
+public class BidTicketServiceImpl implements BidTicketService {
+
+    private static final Logger log = LoggerFactory.getLogger(BidTicketServiceImpl.class);
+
+    private final BidService bidService;
+    private final ThreadPoolExecutor[] shards;
+    private final ConcurrentMap<UUID, BidTicket> tickets = new ConcurrentHashMap<>();
+    private final long ticketTtlMillis;
+    private final Counter overloadCounter;
+
+    @Autowired
+    public BidTicketServiceImpl(BidService bidService,
+                                @Value("${greenbay.bid.async.shards:4}") int shardCount,
+                                @Value("${greenbay.bid.async.queue-capacity:1000}") int queueCapacity,
+                                @Value("${greenbay.bid.async.ticket-ttl-seconds:300}") long ticketTtlSeconds,
+                                MeterRegistry meterRegistry) {
+        this.bidService = bidService;
+        this.ticketTtlMillis = TimeUnit.SECONDS.toMillis(ticketTtlSeconds);
+        this.shards = new ThreadPoolExecutor[shardCount];
+        AtomicInteger threadNumber = new AtomicInteger();
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "bid-async-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+        this.overloadCounter = Counter.builder("greenbay.bid.async.rejected")
+                .description("Asynchronous bids refused because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("greenbay.bid.async.queued", shards,
+                        s -> Arrays.stream(s).mapToInt(executor -> executor.getQueue().size()).sum())
+                .description("Asynchronous bids waiting to be placed")
+                .register(meterRegistry);
+        Gauge.builder("greenbay.bid.async.tickets", tickets, ConcurrentMap::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public BidTicketDTO submitBid(UUID itemId, User bidder, int bidAmount) {
+        BidTicket ticket = new BidTicket(itemId, bidder.getUsername(), bidAmount);
+        tickets.put(ticket.getId(), ticket);
+        try {
+            shardFor(itemId).execute(() -> process(ticket, bidder));
+        } catch (RejectedExecutionException e) {
+            tickets.remove(ticket.getId());
+            overloadCounter.increment();
+            throw new BidQueueFullException("Too many bids are waiting, please try again later.");
+        }
+        return ticket.toDTO();
+    }
+
+    @Override
+    public Optional<BidTicketDTO> findTicket(UUID ticketId, String bidderUsername) {
+        return ownTicket(ticketId, bidderUsername).map(BidTicket::toDTO);
+    }
+
+    @Override
+    public Optional<CompletableFuture<BidTicketDTO>> awaitTicket(UUID ticketId, String bidderUsername, long waitMillis) {
+        return ownTicket(ticketId, bidderUsername).map(ticket -> ticket.completion().copy()
+                .completeOnTimeout(null, waitMillis, TimeUnit.MILLISECONDS)
+                .thenApply(done -> done != null ? done : ticket.toDTO()));
+    }
+
+    @Scheduled(fixedDelayString = "${greenbay.bid.async.ticket-sweep-ms:10000}")
+    public void evictExpiredTickets() {
+        long expiredBefore = System.currentTimeMillis() - ticketTtlMillis;
+        tickets.values().removeIf(ticket -> ticket.isDone() && ticket.getCompletedAtMillis() < expiredBefore);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor shard : shards) {
+            shard.shutdown();
+        }
+    }
+
+    private Optional<BidTicket> ownTicket(UUID ticketId, String bidderUsername) {
+        return Optional.ofNullable(tickets.get(ticketId))
+                .filter(ticket -> ticket.getBidderUsername().equals(bidderUsername));
+    }
+
+    private void process(BidTicket ticket, User bidder) {
+        ticket.processing();
+        try {
+            ticket.accept(bidService.placeBid(ticket.getItemId(), bidder, ticket.getBidAmount()));
+        } catch (BidPendingException ex) {
+//            The ticket stays processing until the bid has an outcome
+            ex.getOutcome().whenComplete((result, failure) -> {
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+                if (cause == null) {
+                    ticket.accept(result);
+                } else {
+                    reject(ticket, cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause));
+                }
+            });
+        } catch (RuntimeException ex) {
+            reject(ticket, ex);
+        }
+    }
+
+    private void reject(BidTicket ticket, RuntimeException ex) {
+        BidRejectionReason reason = BidRejectionReason.of(ex);
+        if (reason == BidRejectionReason.ERROR) {
+            log.error("Asynchronous bid failed", ex);
+        }
+        ticket.reject(reason, ex.getMessage());
+    }
+
+    private ThreadPoolExecutor shardFor(UUID itemId) {
+        int hash = itemId.hashCode();
+        return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+    }
+}
@@ -0,0 +1,12 @@
+package com.pc.greenbay.service;
+
+/**
+ * Result of a conditional last bid update on an item.
+ */
+public enum BidUpdateOutcome {
+    APPLIED,
+    OUTBID,
+    NOT_SELLABLE,
+    NOT_FOUND,
+    RETRIES_EXHAUSTED
+}
@@ -0,0 +1,14 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.Bid;
+
+public interface BidWriterService {
+
+    /**
+     * Records a bid as part of the calling transaction. With group commit enabled the insert
+     * is batched with bids of concurrent requests and the calling transaction commits only
+     * after that batch has been committed, a failed batch rolls the calling transaction back.
+     * When the calling transaction rolls back anyway, its bid is dropped or deleted again.
+     */
+    void writeBid(Bid bid);
+}
@@ -0,0 +1,301 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.Bid;
+import com.pc.greenbay.repository.BidRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+/**
+ * Group commit for bid inserts. Request threads hand their bid to a single writer thread
+ * when their transaction is about to commit. The writer collects the bids arriving within
+ * a short window and inserts them in one transaction, which Hibernate sends as one JDBC
+ * batch thanks to the pooled sequence ids. Each request waits for its batch before it
+ * commits its own changes, so a bid is never acknowledged before its row is durable.
+ * The batch commits apart from the requests, so a request that rolls back after all, or
+ * gives up waiting, takes its bid back: a bid still queued is skipped, a written row is
+ * deleted again by the writer. Until then the row is visible, which is why it is off by
+ * default.
+ * The writer holds a connection of its own for its whole life: waiting requests keep
+ * theirs until the ack, so a writer borrowing from the pool could wait for them forever.
+ */
+@Service
+public class BidWriterServiceImpl implements BidWriterService {
+
+    private static final Logger log = LoggerFactory.getLogger(BidWriterServiceImpl.class);
+//    Already done, so flush skips it, it only wakes the writer up to delete the orphans
+    private static final PendingBid WAKE_UP = new PendingBid(null, CompletableFuture.completedFuture(null));
+
+    private final BidRepository bidRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final boolean groupCommitEnabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long ackTimeoutMillis;
+    private final BlockingQueue<PendingBid> pending = new LinkedBlockingQueue<>();
+    private final Queue<Bid> orphans = new ConcurrentLinkedQueue<>();
+    private final Thread writerThread;
+    private final DistributionSummary batchSizes;
+    private final Timer flushTimer;
+    private final Counter orphanCounter;
+    private volatile boolean running = true;
+    private EntityManager writerEntityManager;
+
+    @Autowired
+    public BidWriterServiceImpl(BidRepository bidRepository, EntityManagerFactory entityManagerFactory,
+                                @Value("${greenbay.bid.group-commit.enabled:false}") boolean groupCommitEnabled,
+                                @Value("${greenbay.bid.group-commit.window-ms:2}") long windowMillis,
+                                @Value("${greenbay.bid.group-commit.max-batch-size:200}") int maxBatchSize,
+                                @Value("${greenbay.bid.group-commit.ack-timeout-ms:5000}") long ackTimeoutMillis,
+                                MeterRegistry meterRegistry) {
+        this.bidRepository = bidRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.groupCommitEnabled = groupCommitEnabled;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.ackTimeoutMillis = ackTimeoutMillis;
+        this.batchSizes = DistributionSummary.builder("greenbay.bid.writer.batch.size")
+                .description("Bids inserted per group commit")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("greenbay.bid.writer.flush")
+                .description("Time spent inserting and committing one batch of bids")
+                .register(meterRegistry);
+        this.orphanCounter = Counter.builder("greenbay.bid.writer.orphans")
+                .description("Written bids deleted again because their request rolled back")
+                .register(meterRegistry);
+        Gauge.builder("greenbay.bid.writer.pending", pending, BlockingQueue::size)
+                .register(meterRegistry);
+        this.writerThread = new Thread(this::run, "bid-writer");
+        this.writerThread.setDaemon(true);
+        if (groupCommitEnabled) {
+            writerThread.start();
+        }
+    }
+
+    @Override
+    public void writeBid(Bid bid) {
+        if (!groupCommitEnabled || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            bidRepository.save(bid);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private CompletableFuture<Bid> written;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                written = submit(bid);
+                awaitWritten(written);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK && written != null) {
+                    abandon(written);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writerThread.interrupt();
+    }
+
+    CompletableFuture<Bid> submit(Bid bid) {
+        PendingBid pendingBid = new PendingBid(bid, new CompletableFuture<>());
+        if (!running) {
+            pendingBid.written().completeExceptionally(new IllegalStateException("Bid writer is shut down"));
+            return pendingBid.written();
+        }
+        pending.add(pendingBid);
+        return pendingBid.written();
+    }
+
+//    Either the writer has not taken the bid yet and skips it, or the row is there and has to go
+    void abandon(CompletableFuture<Bid> written) {
+        if (written.cancel(false) || written.isCompletedExceptionally()) {
+            return;
+        }
+        deleteLater(written.join());
+    }
+
+    private void deleteLater(Bid bid) {
+        orphans.add(bid);
+        pending.add(WAKE_UP);
+    }
+
+    private void awaitWritten(CompletableFuture<Bid> written) {
+        try {
+            written.get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw writeFailed(e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw writeFailed(e);
+        }
+    }
+
+    private DataAccessException writeFailed(Exception cause) {
+        return new DataAccessException("Bid could not be recorded.", cause) {
+        };
+    }
+
+    private void run() {
+        List<PendingBid> batch = new ArrayList<>(maxBatchSize);
+        openWriterEntityManager();
+        while (running) {
+            try {
+                batch.add(pending.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingBid next = pending.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+                deleteOrphans();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        closeWriterEntityManager();
+        failRemaining();
+    }
+
+//    Bound to the writer thread, the repository's transactions run on it instead of a pooled connection
+    private void openWriterEntityManager() {
+        if (entityManagerFactory == null) {
+            return;
+        }
+        try {
+            writerEntityManager = entityManagerFactory.unwrap(SessionFactory.class).withOptions()
+                    .connectionHandlingMode(PhysicalConnectionHandlingMode.IMMEDIATE_ACQUISITION_AND_HOLD)
+                    .openSession();
+            TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(writerEntityManager));
+        } catch (RuntimeException e) {
+            log.warn("Bid writer could not reserve a connection, it borrows from the pool until the next failure", e);
+            writerEntityManager = null;
+        }
+    }
+
+    private void closeWriterEntityManager() {
+        if (writerEntityManager == null) {
+            return;
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+        try {
+            writerEntityManager.close();
+        } catch (RuntimeException e) {
+            log.warn("Bid writer could not release its connection", e);
+        }
+        writerEntityManager = null;
+    }
+
+//    A failed flush leaves the session unusable and may mean the connection itself is gone
+    private void reopenWriterEntityManager() {
+        closeWriterEntityManager();
+        openWriterEntityManager();
+    }
+
+    private void clearWriterEntityManager() {
+        if (writerEntityManager != null) {
+            writerEntityManager.clear();
+        }
+    }
+
+    void flush(List<PendingBid> queued) {
+//        A request that gave up has cancelled its bid, nobody would take it back after the insert
+        List<PendingBid> batch = queued.stream().filter(pendingBid -> !pendingBid.written().isDone()).toList();
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchSizes.record(batch.size());
+        try {
+            flushTimer.record(() -> bidRepository.saveAll(batch.stream().map(PendingBid::bid).toList()));
+            clearWriterEntityManager();
+            batch.forEach(this::acknowledge);
+        } catch (RuntimeException batchFailure) {
+//            One bad row must not fail the whole group, retry them one by one to find it
+            log.warn("Bid batch of {} failed, writing the bids one by one", batch.size(), batchFailure);
+            reopenWriterEntityManager();
+            for (PendingBid pendingBid : batch) {
+                pendingBid.bid().setId(null);
+                try {
+                    bidRepository.save(pendingBid.bid());
+                    clearWriterEntityManager();
+                    acknowledge(pendingBid);
+                } catch (RuntimeException e) {
+                    pendingBid.written().completeExceptionally(e);
+                    reopenWriterEntityManager();
+                }
+            }
+        }
+    }
+
+//    Cancelled while its batch was being written, the row is already committed
+    private void acknowledge(PendingBid pendingBid) {
+        if (!pendingBid.written().complete(pendingBid.bid())) {
+            orphans.add(pendingBid.bid());
+        }
+    }
+
+    void deleteOrphans() {
+        List<Bid> deleted = new ArrayList<>();
+        for (Bid bid = orphans.poll(); bid != null; bid = orphans.poll()) {
+            deleted.add(bid);
+        }
+        if (deleted.isEmpty()) {
+            return;
+        }
+        List<Long> ids = deleted.stream().map(Bid::getId).toList();
+        try {
+            bidRepository.deleteAllByIdInBatch(ids);
+            clearWriterEntityManager();
+            orphanCounter.increment(ids.size());
+        } catch (RuntimeException e) {
+            log.error("Bids {} of rolled back requests could not be deleted", ids, e);
+            reopenWriterEntityManager();
+        }
+    }
+
+    private void failRemaining() {
+        List<PendingBid> remaining = new ArrayList<>();
+        pending.drainTo(remaining);
+        remaining.forEach(pendingBid -> pendingBid.written()
+                .completeExceptionally(new IllegalStateException("Bid writer is shut down")));
+        if (!orphans.isEmpty()) {
+            log.error("Bid writer shut down before deleting the bids {} of rolled back requests",
+                    orphans.stream().map(Bid::getId).toList());
+        }
+    }
+
+    record PendingBid(Bid bid, CompletableFuture<Bid> written) {
+    }
+}
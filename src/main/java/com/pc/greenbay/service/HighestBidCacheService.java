@@ -0,0 +1,26 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.Item;
+
+import java.util.UUID;
+
+public interface HighestBidCacheService {
+
+    /**
+     * Rejects a bid the cached item state already rules out, without a database call.
+     * A missing or stale entry never rejects a valid bid, the transaction still does
+     * the authoritative check for everything that passes.
+     */
+    void checkBid(UUID itemId, UUID bidderId, int bidAmount);
+
+    /**
+     * Caches the state of an item read from the database.
+     */
+    void remember(Item item);
+
+    /**
+     * Raises the cached last bid once the calling transaction commits, a bid at or above
+     * the purchase price marks the item as sold.
+     */
+    void recordBid(UUID itemId, int bidAmount);
+}
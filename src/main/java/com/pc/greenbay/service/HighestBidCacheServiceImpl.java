@@ -0,0 +1,108 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.Item;
+import com.pc.greenbay.exception.BidRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.pc.greenbay.exception.BidOnOwnItemException.OWN_ITEM;
+import static com.pc.greenbay.exception.ItemNotSellableException.NOT_SELLABLE;
+import static com.pc.greenbay.exception.LowBidException.LOW_BID;
+import static com.pc.greenbay.service.TransactionCallbacks.afterCommit;
+
+/**
+ * Last bid, seller and prices of recently bid items. Entries only ever move the way the
+ * database does, the last bid up and sellable to false, so merging an older read into a
+ * newer entry cannot make it reject a bid the database would accept.
+ */
+@Service
+public class HighestBidCacheServiceImpl implements HighestBidCacheService {
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final int maxEntries;
+    private final Counter rejectedCounter;
+
+    private record Entry(int lastBid, boolean sellable, UUID sellerId, int startingPrice, int purchasePrice) {
+
+        Entry merge(Entry other) {
+            return new Entry(Math.max(lastBid, other.lastBid), sellable && other.sellable, sellerId, startingPrice, purchasePrice);
+        }
+    }
+
+    @Autowired
+    public HighestBidCacheServiceImpl(@Value("${greenbay.bid.cache.enabled:true}") boolean enabled,
+                                      @Value("${greenbay.bid.cache.max-entries:100000}") int maxEntries,
+                                      MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.rejectedCounter = Counter.builder("greenbay.bid.cache.rejected")
+                .description("Bids rejected from the highest bid cache without a database call")
+                .register(meterRegistry);
+        Gauge.builder("greenbay.bid.cache.size", entries, Map::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void checkBid(UUID itemId, UUID bidderId, int bidAmount) {
+        if (!enabled) {
+            return;
+        }
+        Entry entry = entries.get(itemId);
+        if (entry == null) {
+            return;
+        }
+        BidRejectedException rejection = null;
+        if (bidderId.equals(entry.sellerId())) {
+            rejection = OWN_ITEM;
+        } else if (!entry.sellable()) {
+            rejection = NOT_SELLABLE;
+        } else if (bidAmount < entry.startingPrice() || bidAmount <= entry.lastBid()) {
+            rejection = LOW_BID;
+        }
+        if (rejection != null) {
+            rejectedCounter.increment();
+            throw rejection;
+        }
+    }
+
+    @Override
+    public void remember(Item item) {
+        if (!enabled || item.getSeller() == null) {
+            return;
+        }
+        Entry entry = new Entry(item.getLastBid(), item.isSellable(), item.getSeller().getId(),
+                item.getStartingPrice(), item.getPurchasePrice());
+//        Full cache: known items keep being updated, new ones simply fall through to the database
+        if (entries.size() >= maxEntries && !entries.containsKey(item.getId())) {
+            return;
+        }
+        entries.merge(item.getId(), entry, Entry::merge);
+    }
+
+    @Override
+    public void recordBid(UUID itemId, int bidAmount) {
+        if (!enabled) {
+            return;
+        }
+//        A bid rolled back must never show up here, it would reject bids the database accepts
+        afterCommit(() -> raise(itemId, bidAmount));
+    }
+
+    private void raise(UUID itemId, int bidAmount) {
+        entries.computeIfPresent(itemId, (id, entry) -> entry.merge(new Entry(bidAmount, bidAmount < entry.purchasePrice(),
+                entry.sellerId(), entry.startingPrice(), entry.purchasePrice())));
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
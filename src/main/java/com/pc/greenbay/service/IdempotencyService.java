@@ -0,0 +1,20 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.model.StoredResponse;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface IdempotencyService {
+
+    /**
+     * Claims the key for the caller. Returns empty when the caller now owns the key and must
+     * either complete or abandon it, otherwise the response of the request owning the key.
+     * That future completes with null when the owner abandons the key.
+     */
+    Optional<CompletableFuture<StoredResponse>> claim(String key);
+
+    void complete(String key, StoredResponse response);
+
+    void abandon(String key);
+}
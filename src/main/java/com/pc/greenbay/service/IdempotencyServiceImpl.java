@@ -0,0 +1,150 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.IdempotencyRecord;
+import com.pc.greenbay.model.StoredResponse;
+import com.pc.greenbay.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+/**
+ * Remembers the first response per Idempotency-Key in memory for a limited time and up to
+ * a limited number of keys. Requests still running are kept as futures, so duplicates wait
+ * for the first one instead of running in parallel. Completed keys are queued in the order
+ * they completed, so going over the limit drops the oldest from the head of that queue
+ * without looking at the others. Completed responses can additionally be
+ * written to the idempotency_keys table so they survive restarts and are shared between instances.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final boolean tableEnabled;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Completed> completed = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository,
+                                  @Value("${greenbay.idempotency.table.enabled:false}") boolean tableEnabled,
+                                  @Value("${greenbay.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                                  @Value("${greenbay.idempotency.max-entries:100000}") int maxEntries,
+                                  MeterRegistry meterRegistry) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.tableEnabled = tableEnabled;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.maxEntries = maxEntries;
+        Gauge.builder("greenbay.idempotency.keys", entries, ConcurrentMap::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<CompletableFuture<StoredResponse>> claim(String key) {
+        Entry claimed = new Entry(new CompletableFuture<>(), System.currentTimeMillis());
+        Entry existing = entries.putIfAbsent(key, claimed);
+        if (existing != null && existing.isExpired(claimed.createdAtMillis, ttlMillis)) {
+            if (entries.replace(key, existing, claimed)) {
+                existing = null;
+            } else {
+                return claim(key);
+            }
+        }
+        if (existing != null) {
+            return Optional.of(existing.response);
+        }
+        if (entries.size() > maxEntries) {
+            evict();
+        }
+        Optional<StoredResponse> stored = findStored(key);
+        if (stored.isPresent()) {
+            claimed.response.complete(stored.get());
+            completed.add(new Completed(key, claimed));
+            return Optional.of(claimed.response);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return;
+        }
+        if (tableEnabled) {
+            try {
+                idempotencyRecordRepository.save(new IdempotencyRecord(key, response.getStatus(), response.getContentType(),
+                        response.getLocation(), response.getBody(), Instant.ofEpochMilli(entry.createdAtMillis)));
+            } catch (DataAccessException e) {
+                log.warn("Could not store the response for an idempotency key, it is only kept in memory", e);
+            }
+        }
+        entry.response.complete(response);
+        completed.add(new Completed(key, entry));
+    }
+
+    @Override
+    public void abandon(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            entry.response.complete(null);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${greenbay.idempotency.sweep-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now, ttlMillis));
+        completed.removeIf(done -> entries.get(done.key()) != done.entry());
+        if (tableEnabled) {
+            idempotencyRecordRepository.deleteAllCreatedBefore(Instant.ofEpochMilli(now - ttlMillis));
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+//    Drops the oldest completed keys, never requests still running. A queued key that was
+//    abandoned, expired or claimed again since is skipped, removing it only if the entry is unchanged.
+    private void evict() {
+        while (entries.size() > maxEntries) {
+            Completed oldest = completed.poll();
+            if (oldest == null) {
+                return;
+            }
+            entries.remove(oldest.key(), oldest.entry());
+        }
+    }
+
+    private Optional<StoredResponse> findStored(String key) {
+        if (!tableEnabled) {
+            return Optional.empty();
+        }
+        return idempotencyRecordRepository.findById(key)
+                .filter(record -> record.getCreatedAt().toEpochMilli() > System.currentTimeMillis() - ttlMillis)
+                .map(record -> new StoredResponse(record.getStatus(), record.getContentType(), record.getLocation(), record.getBody()));
+    }
+
+    private record Entry(CompletableFuture<StoredResponse> response, long createdAtMillis) {
+        boolean isExpired(long nowMillis, long ttlMillis) {
+            return response.isDone() && createdAtMillis < nowMillis - ttlMillis;
+        }
+    }
+
+    private record Completed(String key, Entry entry) {
+    }
+}
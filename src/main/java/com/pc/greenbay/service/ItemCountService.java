@@ -0,0 +1,23 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.model.ItemCountMode;
+
+import java.util.OptionalLong;
+
+public interface ItemCountService {
+
+    /**
+     * Number of sellable items the way the mode works it out, empty for ItemCountMode.NONE.
+     */
+    OptionalLong countSellable(ItemCountMode mode);
+
+    /**
+     * Counts a newly listed item once the calling transaction commits.
+     */
+    void itemListed();
+
+    /**
+     * Stops counting an item that was sold or whose auction closed, once the calling transaction commits.
+     */
+    void itemClosed();
+}
@@ -0,0 +1,102 @@
+package com.pc.greenbay.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pc.greenbay.model.ItemCountMode;
+import com.pc.greenbay.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.pc.greenbay.service.TransactionCallbacks.afterCommit;
+
+/**
+ * Totals for the numbered item listing. The counter is seeded with one exact count the
+ * first time it is read, then moved by item creations and closes, and reconciled with an
+ * exact count now and then to wipe out drift. The estimate comes from the row count the
+ * PostgreSQL planner expects for the sellable items, other databases use the counter.
+ */
+@Service
+public class ItemCountServiceImpl implements ItemCountService {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemCountServiceImpl.class);
+
+    private final ItemRepository itemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean postgres;
+    private final AtomicLong counter = new AtomicLong();
+    private volatile boolean seeded;
+
+    @Autowired
+    public ItemCountServiceImpl(ItemRepository itemRepository, JdbcTemplate jdbcTemplate, DataSource dataSource,
+                                ObjectMapper objectMapper) throws MetaDataAccessException {
+        this.itemRepository = itemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.postgres = "PostgreSQL".equals(JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+    }
+
+    @Override
+    public OptionalLong countSellable(ItemCountMode mode) {
+        return switch (mode) {
+            case EXACT -> OptionalLong.of(itemRepository.countBySellableTrue());
+            case COUNTER -> OptionalLong.of(counterValue());
+            case ESTIMATE -> OptionalLong.of(postgres ? estimate() : counterValue());
+            case NONE -> OptionalLong.empty();
+        };
+    }
+
+    @Override
+    public void itemListed() {
+        afterCommit(counter::incrementAndGet);
+    }
+
+    @Override
+    public void itemClosed() {
+        afterCommit(counter::decrementAndGet);
+    }
+
+//    Changes committed between the count and the set are lost until the next run, the drift stays small and short lived
+    @Scheduled(fixedDelayString = "${greenbay.item.count.reconcile-ms:300000}", initialDelayString = "${greenbay.item.count.reconcile-ms:300000}")
+    public void reconcile() {
+        counter.set(itemRepository.countBySellableTrue());
+        seeded = true;
+    }
+
+    private long counterValue() {
+        if (!seeded) {
+            synchronized (this) {
+                if (!seeded) {
+                    reconcile();
+                }
+            }
+        }
+        return Math.max(counter.get(), 0);
+    }
+
+//    The planner's guess rests on the statistics of the last analyze, so no row is read
+    private long estimate() {
+        String plan = jdbcTemplate.queryForObject("explain (format json) select 1 from items where sellable", String.class);
+        try {
+            JsonNode rows = objectMapper.readTree(plan).path(0).path("Plan").path("Plan Rows");
+            if (rows.isNumber()) {
+                return rows.asLong();
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Could not read the item count estimate", e);
+        }
+        return counterValue();
+    }
+}
@@ -0,0 +1,29 @@
+package com.pc.greenbay.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+public interface ItemEventService {
+
+    /**
+     * Opens an event stream of the item. The current last bid is sent first, then every new
+     * bid, and the stream ends with the sale or the close of the auction.
+     */
+    SseEmitter subscribe(UUID itemId);
+
+    /**
+     * Tells the watchers of the item about a new highest bid once the calling transaction commits.
+     */
+    void bidPlaced(UUID itemId, int amount);
+
+    /**
+     * Tells the watchers the item was sold for the amount once the calling transaction commits.
+     */
+    void itemSold(UUID itemId, int amount);
+
+    /**
+     * Tells the watchers the auction ended without a sale once the calling transaction commits.
+     */
+    void auctionEnded(UUID itemId, int lastBid);
+}
@@ -0,0 +1,278 @@
+package com.pc.greenbay.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pc.greenbay.exception.RecordNotFoundException;
+import com.pc.greenbay.exception.TooManyWatchersException;
+import com.pc.greenbay.model.ItemEvent;
+import com.pc.greenbay.model.ItemVersion;
+import com.pc.greenbay.repository.ItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.pc.greenbay.service.TransactionCallbacks.afterCommit;
+
+/**
+ * Live bids of an item as server-sent events. Publishing reads the watchers of the item
+ * without a lock, serializes the event once and leaves it in each watcher's single slot,
+ * where a newer event replaces one not yet sent. A slow client therefore holds at most one
+ * pending event and only ever misses bids that were already outbid. Sending happens on a
+ * small pool, each watcher is queued there at most once at a time.
+ */
+@Service
+public class ItemEventServiceImpl implements ItemEventService {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemEventServiceImpl.class);
+
+    private final ItemRepository itemRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxConnections;
+    private final int maxPerItem;
+    private final long timeoutMillis;
+    private final ConcurrentMap<UUID, Set<Watcher>> watchers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ExecutorService sender;
+    private final Counter publishedCounter;
+    private final Counter mergedCounter;
+    private final Counter rejectedCounter;
+
+    private record Pending(String name, int amount, boolean last, String data) {
+    }
+
+    private static final class Watcher {
+
+        private final UUID itemId;
+        private final SseEmitter emitter;
+        private final AtomicReference<Pending> pending = new AtomicReference<>();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicBoolean queued = new AtomicBoolean();
+        private volatile boolean closed;
+        private int sentAmount = -1;
+
+        private Watcher(UUID itemId, SseEmitter emitter) {
+            this.itemId = itemId;
+            this.emitter = emitter;
+        }
+
+//        A final event always wins, among bids the higher one, commits of concurrent bids may arrive out of order
+        private boolean offer(Pending event) {
+            Pending previous = pending.getAndUpdate(current -> current == null
+                    || event.last() && !current.last()
+                    || !current.last() && event.amount() > current.amount() ? event : current);
+            return previous != null;
+        }
+
+        private boolean hasWork() {
+            return !closed && (pending.get() != null || heartbeatDue.get());
+        }
+    }
+
+    @Autowired
+    public ItemEventServiceImpl(ItemRepository itemRepository, ObjectMapper objectMapper,
+                                @Value("${greenbay.item.events.max-connections:10000}") int maxConnections,
+                                @Value("${greenbay.item.events.max-per-item:2000}") int maxPerItem,
+                                @Value("${greenbay.item.events.timeout-ms:1800000}") long timeoutMillis,
+                                @Value("${greenbay.item.events.sender-threads:4}") int senderThreads,
+                                MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.objectMapper = objectMapper;
+        this.maxConnections = maxConnections;
+        this.maxPerItem = maxPerItem;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "item-events-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.publishedCounter = Counter.builder("greenbay.item.events.published")
+                .description("Item events published to their watchers")
+                .register(meterRegistry);
+        this.mergedCounter = Counter.builder("greenbay.item.events.merged")
+                .description("Unsent item events replaced by a newer one for a slow watcher")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("greenbay.item.events.rejected")
+                .description("Item event streams refused because of the connection limits")
+                .register(meterRegistry);
+        Gauge.builder("greenbay.item.events.connections", connections, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SseEmitter subscribe(UUID itemId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            rejectedCounter.increment();
+            throw new TooManyWatchersException("Too many open event streams, please try again later.");
+        }
+        Watcher watcher = new Watcher(itemId, new SseEmitter(timeoutMillis));
+        AtomicBoolean added = new AtomicBoolean();
+        watchers.compute(itemId, (id, itemWatchers) -> {
+            Set<Watcher> current = itemWatchers == null ? ConcurrentHashMap.newKeySet() : itemWatchers;
+            if (current.size() < maxPerItem) {
+                added.set(current.add(watcher));
+            }
+            return current.isEmpty() ? null : current;
+        });
+        if (!added.get()) {
+            connections.decrementAndGet();
+            rejectedCounter.increment();
+            throw new TooManyWatchersException("Too many watchers of this item, please try again later.");
+        }
+        watcher.emitter.onCompletion(() -> remove(watcher));
+        watcher.emitter.onTimeout(() -> remove(watcher));
+        watcher.emitter.onError(e -> remove(watcher));
+
+//        Registered before the snapshot is read, so a bid committed in between is published to the watcher, not lost
+        Optional<ItemVersion> version = itemRepository.findVersionById(itemId);
+        if (version.isEmpty()) {
+            remove(watcher);
+            throw new RecordNotFoundException("Item not found.");
+        }
+        ItemEvent current = new ItemEvent(version.get().isSellable() ? ItemEvent.BID : ItemEvent.CLOSED, itemId, version.get().getLastBid());
+        Pending snapshot = pending(current);
+        if (snapshot != null) {
+            watcher.offer(snapshot);
+            queue(watcher);
+        }
+        return watcher.emitter;
+    }
+
+    @Override
+    public void bidPlaced(UUID itemId, int amount) {
+        afterCommit(() -> publish(new ItemEvent(ItemEvent.BID, itemId, amount)));
+    }
+
+    @Override
+    public void itemSold(UUID itemId, int amount) {
+        afterCommit(() -> publish(new ItemEvent(ItemEvent.SOLD, itemId, amount)));
+    }
+
+    @Override
+    public void auctionEnded(UUID itemId, int lastBid) {
+        afterCommit(() -> publish(new ItemEvent(ItemEvent.CLOSED, itemId, lastBid)));
+    }
+
+//    Proxies and load balancers close idle connections, a comment line keeps them open
+    @Scheduled(fixedDelayString = "${greenbay.item.events.heartbeat-ms:15000}", initialDelayString = "${greenbay.item.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Set<Watcher> itemWatchers : watchers.values()) {
+            for (Watcher watcher : itemWatchers) {
+                watcher.heartbeatDue.set(true);
+                queue(watcher);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        for (Set<Watcher> itemWatchers : watchers.values()) {
+            itemWatchers.forEach(watcher -> watcher.emitter.complete());
+        }
+    }
+
+    int connections() {
+        return connections.get();
+    }
+
+    private void publish(ItemEvent event) {
+        Set<Watcher> itemWatchers = watchers.get(event.getItemId());
+        if (itemWatchers == null) {
+            return;
+        }
+        Pending pending = pending(event);
+        if (pending == null) {
+            return;
+        }
+        publishedCounter.increment();
+        for (Watcher watcher : itemWatchers) {
+            if (watcher.offer(pending)) {
+                mergedCounter.increment();
+            }
+            queue(watcher);
+        }
+    }
+
+    private Pending pending(ItemEvent event) {
+        try {
+            return new Pending(event.getType(), event.getAmount(), event.isFinal(), objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize the {} event of item {}", event.getType(), event.getItemId(), e);
+            return null;
+        }
+    }
+
+    private void queue(Watcher watcher) {
+        if (watcher.closed || !watcher.queued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(() -> send(watcher));
+        } catch (RejectedExecutionException e) {
+            watcher.queued.set(false);
+        }
+    }
+
+    private void send(Watcher watcher) {
+        try {
+            Pending event = watcher.pending.getAndSet(null);
+            if (event != null) {
+//                An older bid that committed after a newer one was sent is not worth showing
+                if (event.last() || event.amount() > watcher.sentAmount) {
+                    watcher.emitter.send(SseEmitter.event().name(event.name()).data(event.data(), MediaType.APPLICATION_JSON));
+                    watcher.sentAmount = event.amount();
+                }
+                watcher.heartbeatDue.set(false);
+                if (event.last()) {
+                    remove(watcher);
+                    watcher.emitter.complete();
+                }
+            } else if (watcher.heartbeatDue.getAndSet(false)) {
+                watcher.emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Item event stream of item {} closed", watcher.itemId, e);
+            remove(watcher);
+        } finally {
+            watcher.queued.set(false);
+            if (watcher.hasWork()) {
+                queue(watcher);
+            }
+        }
+    }
+
+    private void remove(Watcher watcher) {
+        if (watcher.closed) {
+            return;
+        }
+        AtomicBoolean removed = new AtomicBoolean();
+        watchers.computeIfPresent(watcher.itemId, (id, itemWatchers) -> {
+            removed.set(itemWatchers.remove(watcher));
+            return itemWatchers.isEmpty() ? null : itemWatchers;
+        });
+        watcher.closed = true;
+        if (removed.get()) {
+            connections.decrementAndGet();
+        }
+    }
+}
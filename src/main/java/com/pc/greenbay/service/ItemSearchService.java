@@ -0,0 +1,13 @@
+package com.pc.greenbay.service;
+
+import org.springframework.http.ResponseEntity;
+
+public interface ItemSearchService {
+
+    /**
+     * One page of sellable items whose name or description contains every word of the
+     * query, best ranked first, starting after the given cursor or from the best hit when
+     * it is null. The response carries the cursor of the next page.
+     */
+    ResponseEntity<?> search(String query, String after);
+}
@@ -0,0 +1,212 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.Item;
+import com.pc.greenbay.model.ErrorDTO;
+import com.pc.greenbay.model.ItemSearchHit;
+import com.pc.greenbay.model.SearchCursor;
+import com.pc.greenbay.model.response.ItemPageDTO;
+import com.pc.greenbay.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over the name and description of sellable items. PostgreSQL answers
+ * from the generated search_vector column and its GIN index of V10, ranked by ts_rank.
+ * Other databases, H2 in tests, use an in-memory inverted index built from the items
+ * table and extended with the items created since the last search. Pages of hot queries
+ * are kept for a short while, so their bids may be that much behind.
+ */
+@Service
+public class ItemSearchServiceImpl implements ItemSearchService {
+
+    private static final int MAX_QUERY_LENGTH = 200;
+//    The ts_rank default weights of the A and B labels of V10
+    private static final float NAME_WEIGHT = 1.0f;
+    private static final float DESCRIPTION_WEIGHT = 0.4f;
+
+    private static final String HITS = "select * from (select i.id, i.name, i.photourl, i.last_bid, u.username, " +
+            "ts_rank(i.search_vector, q) as rank from items i join users u on u.id = i.seller_id, " +
+            "plainto_tsquery('simple', ?) q where i.sellable and i.search_vector @@ q) hits ";
+
+    private static final RowMapper<ItemSearchHit> HIT_MAPPER = (rs, rowNum) -> new ItemSearchHit(
+            rs.getObject("id", UUID.class),
+            rs.getString("name"),
+            rs.getString("photourl"),
+            rs.getInt("last_bid"),
+            rs.getString("username"),
+            rs.getFloat("rank"));
+
+    private static final Comparator<ItemSearchHit> BEST_FIRST = Comparator.comparing(ItemSearchHit::getRank).reversed()
+            .thenComparing(hit -> hit.getId().toString());
+
+    private final ItemRepository itemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+    private final int pageSize;
+    private final long cacheTtlMillis;
+    private final int cacheMaxEntries;
+    private final Map<String, CachedPage> cache = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<UUID>> postings = new ConcurrentHashMap<>();
+    private final Map<UUID, Map<String, Float>> termWeights = new ConcurrentHashMap<>();
+    private Instant indexedUntil = Instant.EPOCH;
+
+    private record CachedPage(Map<String, Object> body, long expiresAt) {
+    }
+
+    @Autowired
+    public ItemSearchServiceImpl(ItemRepository itemRepository, JdbcTemplate jdbcTemplate, DataSource dataSource,
+                                 @Value("${greenbay.item.page-size:20}") int pageSize,
+                                 @Value("${greenbay.item.search.cache-ttl-ms:5000}") long cacheTtlMillis,
+                                 @Value("${greenbay.item.search.cache-max-entries:1000}") int cacheMaxEntries) throws MetaDataAccessException {
+        this.itemRepository = itemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.postgres = "PostgreSQL".equals(JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+        this.pageSize = pageSize;
+        this.cacheTtlMillis = cacheTtlMillis;
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+
+    @Override
+    public ResponseEntity<?> search(String query, String after) {
+        if (query != null && query.length() > MAX_QUERY_LENGTH) {
+            return ResponseEntity.badRequest().body(new ErrorDTO("Search query is too long."));
+        }
+        SortedSet<String> terms = terms(query);
+        if (terms.isEmpty()) {
+            return ResponseEntity.badRequest().body(new ErrorDTO("Search query is empty."));
+        }
+        SearchCursor cursor = null;
+        if (after != null && !after.isBlank()) {
+            cursor = SearchCursor.decode(after);
+            if (cursor == null) {
+                return ResponseEntity.badRequest().body(new ErrorDTO("Invalid cursor."));
+            }
+        }
+
+//        Normalized, so the same words in any order and case share one entry
+        String key = String.join(" ", terms) + "|" + (cursor == null ? "" : cursor.encode());
+        long now = System.currentTimeMillis();
+        CachedPage cached = cache.get(key);
+        if (cached != null && cached.expiresAt() > now) {
+            return ResponseEntity.ok(cached.body());
+        }
+
+        List<ItemSearchHit> hits = postgres ? searchDatabase(terms, cursor) : searchIndex(terms, cursor);
+        boolean hasNext = hits.size() > pageSize;
+        List<ItemSearchHit> page = hasNext ? hits.subList(0, pageSize) : hits;
+        Map<String, Object> body = new HashMap<>();
+        body.put("items", page.stream()
+                .map(hit -> new ItemPageDTO(hit.getId(), hit.getName(), hit.getPhotoURL(), hit.getLastBid(), hit.getSellerUsername()))
+                .collect(Collectors.toList()));
+        ItemSearchHit last = page.isEmpty() ? null : page.get(page.size() - 1);
+        body.put("next_cursor", hasNext ? new SearchCursor(last.getRank(), last.getId()).encode() : null);
+
+        Map<String, Object> response = Collections.unmodifiableMap(body);
+        if (cacheTtlMillis > 0 && cache.size() < cacheMaxEntries) {
+            cache.put(key, new CachedPage(response, now + cacheTtlMillis));
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @Scheduled(fixedDelayString = "${greenbay.item.search.cache-sweep-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(page -> page.expiresAt() <= now);
+    }
+
+    int cacheSize() {
+        return cache.size();
+    }
+
+//    Ranks are compared as real, the type ts_rank returns, so the cursor's rank matches its own row exactly
+    private List<ItemSearchHit> searchDatabase(SortedSet<String> terms, SearchCursor cursor) {
+        String query = String.join(" ", terms);
+        if (cursor == null) {
+            return jdbcTemplate.query(HITS + "order by rank desc, id limit ?", HIT_MAPPER, query, pageSize + 1);
+        }
+        return jdbcTemplate.query(HITS + "where rank < ?::real or (rank = ?::real and id > ?) order by rank desc, id limit ?",
+                HIT_MAPPER, query, cursor.getRank(), cursor.getRank(), cursor.getId(), pageSize + 1);
+    }
+
+    private List<ItemSearchHit> searchIndex(SortedSet<String> terms, SearchCursor cursor) {
+        refreshIndex();
+        Set<UUID> candidates = null;
+        for (String term : terms) {
+            Set<UUID> ids = postings.getOrDefault(term, Set.of());
+            if (candidates == null) {
+                candidates = new HashSet<>(ids);
+            } else {
+                candidates.retainAll(ids);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+//        Bids and sales change the rows, not the words, so the current state is read from the table
+        return itemRepository.findAllWithSellerByIdIn(candidates).stream()
+                .filter(Item::isSellable)
+                .map(item -> new ItemSearchHit(item.getId(), item.getName(), item.getPhotoURL(), item.getLastBid(),
+                        item.getSeller().getUsername(), rank(item.getId(), terms)))
+                .filter(hit -> cursor == null || BEST_FIRST.compare(hit, new ItemSearchHit(cursor.getId(), null, null, 0, null, cursor.getRank())) > 0)
+                .sorted(BEST_FIRST)
+                .limit(pageSize + 1)
+                .collect(Collectors.toList());
+    }
+
+    private float rank(UUID itemId, Set<String> terms) {
+        Map<String, Float> weights = termWeights.getOrDefault(itemId, Map.of());
+        float rank = 0;
+        for (String term : terms) {
+            rank += weights.getOrDefault(term, 0f);
+        }
+        return rank;
+    }
+
+//    Items committed late with an older creation time than the newest indexed one are missed, fine for a fallback
+    private synchronized void refreshIndex() {
+        Instant newest = indexedUntil;
+        for (Item item : itemRepository.findAllByCreatedAtGreaterThanEqual(indexedUntil)) {
+            if (item.getCreatedAt().isAfter(newest)) {
+                newest = item.getCreatedAt();
+            }
+            if (termWeights.containsKey(item.getId())) {
+                continue;
+            }
+            Map<String, Float> weights = new HashMap<>();
+            tokens(item.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Float::sum));
+            tokens(item.getDescription()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Float::sum));
+            termWeights.put(item.getId(), weights);
+            weights.keySet().forEach(term -> postings.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(item.getId()));
+        }
+        indexedUntil = newest;
+    }
+
+    private static SortedSet<String> terms(String text) {
+        return new TreeSet<>(tokens(text));
+    }
+
+//    Words as the simple text search configuration sees them: runs of letters and digits, lower case
+    private static List<String> tokens(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+}
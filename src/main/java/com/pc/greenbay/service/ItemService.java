@@ -1,5 +1,9 @@
 package com.pc.greenbay.service;
 
+import com.pc.greenbay.model.ItemCountMode;
+import com.pc.greenbay.model.ItemVersion;
+import com.pc.greenbay.model.ListingVersion;
+import com.pc.greenbay.model.request.ItemFilterDTO;
 import com.pc.greenbay.model.request.ItemRequestDTO;
 import com.pc.greenbay.model.response.ItemCommonResponseDTO;
 import com.pc.greenbay.model.response.ItemListDTO;
@@ -10,8 +14,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface ItemService {
@@ -24,17 +32,56 @@ public interface ItemService {
 
     List<ItemListDTO> listItems();
 
+    /**
+     * Writes every item as newline delimited JSON while it is read from the database,
+     * so memory use does not grow with the number of items.
+     */
+    void exportItems(OutputStream out) throws IOException;
+
     Item getItemById(UUID id);
 
+    List<Item> getItemsByIds(Collection<UUID> ids);
+
     void saveLastBid(Item item, int bidAmount);
 
     void makeNotSellable(Item item);
 
+    BidUpdateOutcome raiseLastBid(UUID itemId, int bidAmount, boolean closeAuction);
+
     ItemCommonResponseDTO showItemDetails(UUID id);
 
+    /**
+     * Last bid, sellable flag and bid count of the item in one query, enough to tell whether
+     * its details changed without loading them. Empty when there is no such item.
+     */
+    Optional<ItemVersion> getItemVersion(UUID id);
+
+    /**
+     * Item count, sellable count and last bid total of all items in one query, the same on
+     * every node for the same data. Any created, bid on or closed item changes it.
+     */
+    ListingVersion getListingVersion();
+
     Item saveItem(Item item);
 
     Page<Item> getItemsBySellableTrueAndPage(int page);
 
-    ResponseEntity<?> getItemsPaged(int page);
+    /**
+     * One numbered page of sellable items. The total pages come from the count mode, a null
+     * mode uses the configured default, and ItemCountMode.NONE only tells whether there is a next page.
+     */
+    ResponseEntity<?> getItemsPaged(int page, ItemCountMode countMode);
+
+    /**
+     * One page of sellable items in creation order, starting after the given cursor or
+     * from the first item when it is null. The response carries the cursor of the next page.
+     */
+    ResponseEntity<?> getItemsAfter(String after);
+
+    /**
+     * One page of sellable items in the named order, narrowed by the price range of the
+     * filter. A range is only accepted together with a sort by its own column, so every
+     * request is answered from an index.
+     */
+    ResponseEntity<?> getItemsSorted(String sort, ItemFilterDTO filter, String after);
 }
@@ -1,24 +1,44 @@
 package com.pc.greenbay.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.pc.greenbay.exception.RecordNotFoundException;
 import com.pc.greenbay.model.ErrorDTO;
 import com.pc.greenbay.entity.Purchase;
+import com.pc.greenbay.model.request.ItemFilterDTO;
 import com.pc.greenbay.model.request.ItemRequestDTO;
 import com.pc.greenbay.model.response.*;
 import com.pc.greenbay.entity.Item;
 import com.pc.greenbay.entity.User;
+import com.pc.greenbay.model.ItemBidState;
+import com.pc.greenbay.model.ItemCountMode;
+import com.pc.greenbay.model.ItemCursor;
+import com.pc.greenbay.model.ItemSort;
+import com.pc.greenbay.model.SortedItemCursor;
+import com.pc.greenbay.model.ItemSummary;
+import com.pc.greenbay.model.ItemVersion;
+import com.pc.greenbay.model.ListingVersion;
 import com.pc.greenbay.repository.ItemRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ItemServiceImpl implements ItemService {
@@ -26,12 +46,33 @@ public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final PurchaseService purchaseService;
     private final BidService bidService;
+    private final AuctionService auctionService;
+    private final ItemCountService itemCountService;
+    private final ResponseCacheService responseCacheService;
+    private final ItemEventService itemEventService;
+    private final ObjectMapper objectMapper;
+    private final int maxBidUpdateAttempts;
+    private final int pageSize;
+    private final ItemCountMode defaultCountMode;
 
     @Autowired
-    public ItemServiceImpl(ItemRepository itemRepository, PurchaseService purchaseService, BidService bidService) {
+    public ItemServiceImpl(ItemRepository itemRepository, PurchaseService purchaseService, BidService bidService, AuctionService auctionService,
+                           ItemCountService itemCountService, ResponseCacheService responseCacheService, ItemEventService itemEventService,
+                           ObjectMapper objectMapper,
+                           @Value("${greenbay.bid.cas.max-attempts:3}") int maxBidUpdateAttempts,
+                           @Value("${greenbay.item.page-size:20}") int pageSize,
+                           @Value("${greenbay.item.count.default-mode:counter}") ItemCountMode defaultCountMode) {
         this.itemRepository = itemRepository;
         this.purchaseService = purchaseService;
         this.bidService = bidService;
+        this.auctionService = auctionService;
+        this.itemCountService = itemCountService;
+        this.responseCacheService = responseCacheService;
+        this.itemEventService = itemEventService;
+        this.objectMapper = objectMapper;
+        this.maxBidUpdateAttempts = maxBidUpdateAttempts;
+        this.pageSize = pageSize;
+        this.defaultCountMode = defaultCountMode;
     }
 
     @Override
@@ -45,7 +86,11 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public ItemResponseDTO createItem(ItemRequestDTO itemRequestDTO, User seller) {
         Item itemToSave = new Item(itemRequestDTO, seller);
+        itemToSave.setEndsAt(auctionService.endOfAuction(itemRequestDTO.getDurationHours()));
             Item savedItem = itemRepository.save(itemToSave);
+            auctionService.scheduleClose(savedItem.getId(), savedItem.getEndsAt());
+            itemCountService.itemListed();
+            responseCacheService.itemCreated();
             return ItemResponseDTO.fromEntity(savedItem);
     }
     @Override
@@ -55,29 +100,102 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public List<ItemListDTO> listItems() {
-         return itemRepository.findAll().stream()
-                 .map(ItemListDTO::new).collect(Collectors.toList());
+         return itemRepository.findItemList();
+    }
+
+//    Rows are projections, nothing piles up in the persistence context; the caller's stream is flushed once at the end
+    @Override
+    @Transactional(readOnly = true)
+    public void exportItems(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.createGenerator(out);
+        generator.setRootValueSeparator(null);
+        ObjectWriter writer = objectMapper.writerFor(ItemListDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<ItemListDTO> items = itemRepository.streamItemList()) {
+            Iterator<ItemListDTO> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+            }
+        }
+        generator.flush();
     }
     @Override
     public Item getItemById(UUID id) {
         return itemRepository.findItemById(id).orElseThrow(() -> new RecordNotFoundException("Item not found."));
     }
 
+    @Override
+    public List<Item> getItemsByIds(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return itemRepository.findAllWithSellerByIdIn(ids);
+    }
+
     @Override
     public void saveLastBid(Item item, int bidAmount) {
         item.setLastBid(bidAmount);
         itemRepository.save(item);
+        responseCacheService.itemBid(item.getId());
+        itemEventService.bidPlaced(item.getId(), bidAmount);
     }
     @Override
     public void makeNotSellable(Item item) {
+        boolean wasSellable = item.isSellable();
         item.setSellable(false);
         itemRepository.save(item);
+        responseCacheService.itemClosed(item.getId());
+        if (wasSellable) {
+            itemCountService.itemClosed();
+            itemEventService.itemSold(item.getId(), item.getLastBid());
+        }
+    }
+
+    /**
+     * Raises last bid with a single conditional update, so a concurrent higher bid
+     * or a sale is never overwritten. When no row matches, the current state tells
+     * why; an update that should have matched is retried a bounded number of times.
+     */
+    @Override
+    public BidUpdateOutcome raiseLastBid(UUID itemId, int bidAmount, boolean closeAuction) {
+        for (int attempt = 1; attempt <= maxBidUpdateAttempts; attempt++) {
+            int updated = closeAuction
+                    ? itemRepository.raiseLastBidAndClose(itemId, bidAmount)
+                    : itemRepository.raiseLastBid(itemId, bidAmount);
+            if (updated == 1) {
+                if (closeAuction) {
+                    itemCountService.itemClosed();
+                    responseCacheService.itemClosed(itemId);
+                    itemEventService.itemSold(itemId, bidAmount);
+                } else {
+                    responseCacheService.itemBid(itemId);
+                    itemEventService.bidPlaced(itemId, bidAmount);
+                }
+                return BidUpdateOutcome.APPLIED;
+            }
+            Optional<ItemBidState> state = itemRepository.findBidStateById(itemId);
+            if (state.isEmpty()) {
+                return BidUpdateOutcome.NOT_FOUND;
+            }
+            if (!state.get().isSellable()) {
+                return BidUpdateOutcome.NOT_SELLABLE;
+            }
+            if (state.get().getLastBid() >= bidAmount) {
+                return BidUpdateOutcome.OUTBID;
+            }
+        }
+        return BidUpdateOutcome.RETRIES_EXHAUSTED;
     }
+
     @Override
     public ItemCommonResponseDTO showItemDetails(UUID id) {
         Item item = getItemById(id);
         if(!item.isSellable()) {
             Optional<Purchase> optionalPurchase = purchaseService.getPurchaseByItem(item);
+            if(optionalPurchase.isEmpty() && item.getEndsAt() != null) {
+//                The auction ended without a sale
+                return new ItemNotSellableResponseDTO(item.getName(), item.getDescription(), item.getPhotoURL(), item.getSeller().getUsername(), null, 0);
+            }
             if(optionalPurchase.isEmpty()){
                 throw new RecordNotFoundException("Purchase record not found.");
             }
@@ -87,6 +205,16 @@ public class ItemServiceImpl implements ItemService {
         return new ItemSellableResponseDTO(item, bidList);
 
     }
+    @Override
+    public Optional<ItemVersion> getItemVersion(UUID id) {
+        return itemRepository.findVersionById(id);
+    }
+
+    @Override
+    public ListingVersion getListingVersion() {
+        return itemRepository.findListingVersion();
+    }
+
     @Override
     public Item saveItem(Item item) {
         return itemRepository.save(item);
@@ -94,25 +222,112 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public Page<Item> getItemsBySellableTrueAndPage(int page) {
-        Pageable pageable = PageRequest.of(page, 3); // 3 items per page
+        Pageable pageable = PageRequest.of(page, pageSize, Sort.by("createdAt", "id"));
         return itemRepository.findAllBySellableTrue(pageable);
     }
 
+//    A slice reads one row past the page instead of counting, the total comes from the count service
     @Override
-    public ResponseEntity<?> getItemsPaged(int page) {
-        Page<Item> itemPage = getItemsBySellableTrueAndPage(page - 1);
+    public ResponseEntity<?> getItemsPaged(int page, ItemCountMode countMode) {
+        ItemCountMode mode = countMode == null ? defaultCountMode : countMode;
+        Slice<ItemSummary> itemSlice = itemRepository.findSellableSummaries(PageRequest.of(page - 1, pageSize));
+        if (!itemSlice.hasContent()) {
+            return ResponseEntity.badRequest().body(new ErrorDTO("There is no page: " + page));
+        }
 
-        if (itemPage.hasContent() && page <= itemPage.getTotalPages()) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("page", page);
-            response.put("total_pages", itemPage.getTotalPages());
-            response.put("items", itemPage.getContent().stream()
-                    .map(ItemPageDTO::new)
-                    .collect(Collectors.toList()));
+        Map<String, Object> response = new HashMap<>();
+        response.put("page", page);
+        response.put("has_next", itemSlice.hasNext());
+        itemCountService.countSellable(mode).ifPresent(total -> {
+//            Counter and estimate may lag behind, the pages actually seen are a lower bound
+            long totalPages = Math.max((total + pageSize - 1) / pageSize, itemSlice.hasNext() ? page + 1 : page);
+            response.put("total_pages", totalPages);
+        });
+        response.put("items", itemSlice.getContent().stream()
+                .map(ItemPageDTO::new)
+                .collect(Collectors.toList()));
+
+        return ResponseEntity.ok(response);
+    }
 
-            return ResponseEntity.ok(response);
+//    One row more than the page tells whether there is a next page, no count query needed
+    @Override
+    public ResponseEntity<?> getItemsAfter(String after) {
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<ItemSummary> items;
+        if (after == null || after.isBlank()) {
+            items = itemRepository.findSellableFirst(limit);
         } else {
-            return ResponseEntity.badRequest().body(new ErrorDTO("There is no page: " + page));
+            ItemCursor cursor = ItemCursor.decode(after);
+            if (cursor == null) {
+                return ResponseEntity.badRequest().body(new ErrorDTO("Invalid cursor."));
+            }
+            items = itemRepository.findSellableAfter(cursor.getCreatedAt(), cursor.getId(), limit);
+        }
+
+        boolean hasNext = items.size() > pageSize;
+        List<ItemSummary> page = hasNext ? items.subList(0, pageSize) : items;
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", page.stream()
+                .map(ItemPageDTO::new)
+                .collect(Collectors.toList()));
+        ItemSummary last = page.isEmpty() ? null : page.get(page.size() - 1);
+        response.put("next_cursor", hasNext ? new ItemCursor(last.getCreatedAt(), last.getId()).encode() : null);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @Override
+    public ResponseEntity<?> getItemsSorted(String sortParameter, ItemFilterDTO filter, String after) {
+        if (filter.hasBidRange() && filter.hasPurchasePriceRange()) {
+            return ResponseEntity.badRequest().body(new ErrorDTO("Filter by either the last bid or the purchase price."));
         }
+        ItemSort sort;
+        if (sortParameter != null) {
+            sort = ItemSort.fromParameter(sortParameter);
+            if (sort == null) {
+                return ResponseEntity.badRequest().body(new ErrorDTO("Invalid sort: " + sortParameter));
+            }
+        } else {
+            sort = filter.hasBidRange() ? ItemSort.BID : filter.hasPurchasePriceRange() ? ItemSort.PURCHASE_PRICE : ItemSort.CREATED;
+        }
+
+//        A range on another column than the sort's would mean reading the index and filtering, or sorting the matches
+        Integer minimum = null;
+        Integer maximum = null;
+        if (filter.hasBidRange()) {
+            if (!"lastBid".equals(sort.getField())) {
+                return ResponseEntity.badRequest().body(new ErrorDTO("Filtering by the last bid needs sort=bid or sort=bid_desc."));
+            }
+            minimum = filter.getMinBid();
+            maximum = filter.getMaxBid();
+        } else if (filter.hasPurchasePriceRange()) {
+            if (!"purchasePrice".equals(sort.getField())) {
+                return ResponseEntity.badRequest().body(
+                        new ErrorDTO("Filtering by the purchase price needs sort=purchase_price or sort=purchase_price_desc."));
+            }
+            minimum = filter.getMinPurchasePrice();
+            maximum = filter.getMaxPurchasePrice();
+        }
+
+        SortedItemCursor cursor = null;
+        if (after != null && !after.isBlank()) {
+            cursor = SortedItemCursor.decode(after, sort);
+            if (cursor == null) {
+                return ResponseEntity.badRequest().body(new ErrorDTO("Invalid cursor."));
+            }
+        }
+
+        List<ItemSummary> items = itemRepository.findSellableSorted(sort, minimum, maximum, cursor, pageSize + 1);
+        boolean hasNext = items.size() > pageSize;
+        List<ItemSummary> page = hasNext ? items.subList(0, pageSize) : items;
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", page.stream()
+                .map(ItemPageDTO::new)
+                .collect(Collectors.toList()));
+        ItemSummary last = page.isEmpty() ? null : page.get(page.size() - 1);
+        response.put("next_cursor", hasNext ? new SortedItemCursor(sort, sort.keyOf(last), last.getId()).encode() : null);
+
+        return ResponseEntity.ok(response);
     }
 }
@@ -0,0 +1,458 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.*;
+import com.pc.greenbay.exception.*;
+import com.pc.greenbay.model.response.BidCommonResponseDTO;
+import com.pc.greenbay.model.response.BidListDTO;
+import com.pc.greenbay.model.response.BidPlacedResponseDTO;
+import com.pc.greenbay.model.response.ItemBoughtResponseDTO;
+import com.pc.greenbay.repository.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.BindingResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static com.pc.greenbay.exception.NoMoneyException.NO_MONEY;
+import static com.pc.greenbay.exception.NotEnoughMoneyException.NOT_ENOUGH_MONEY;
+
+/**
+ * Bidding through the single writer {@link BidEngine} instead of row locks, enabled with
+ * greenbay.bid.engine=journal. The bid amount is reserved on the bidder's balance before
+ * the bid enters the engine, so an acknowledged bid never fails later for lack of money.
+ * The engine journals accepted bids and this service projects them to the database, in
+ * journal order per shard, together with the shard's checkpoint. On startup the unprojected
+ * tail of every journal is replayed before the engine takes new bids. An entry the database
+ * keeps refusing while it is reachable goes to the shard's dead letter file, so one bad bid
+ * does not hold up the bids behind it. Auctions are closed through the engine first, so no
+ * bid is acknowledged on an item the database has already closed.
+ * Bid history and balances catch up with the engine within a few milliseconds.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "greenbay.bid.engine", havingValue = "journal")
+public class JournalBidServiceImpl implements BidService {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalBidServiceImpl.class);
+
+    private static final UnsupportedBidException NO_PROXY_BIDS = new UnsupportedBidException("Proxy bids are not available at the moment.");
+    private static final long MAX_RETRY_DELAY_MILLIS = 5000;
+    private static final int ISOLATE_AFTER_ATTEMPTS = 3;
+    private static final int ENTRY_ATTEMPTS = 2;
+    private static final long PROJECTION_POLL_MILLIS = 10;
+    private static final Duration CLOSE_RETRY_DELAY = Duration.ofSeconds(1);
+
+    private final BidService databaseBidService;
+    private final ItemService itemService;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final BidRepository bidRepository;
+    private final PurchaseService purchaseService;
+    private final BalanceHoldService balanceHoldService;
+    private final ProxyBidRepository proxyBidRepository;
+    private final AuctionService auctionService;
+    private final BidJournalCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate reservationTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Path directory;
+    private final int shardCount;
+    private final int ringSize;
+    private final int maxBatchSize;
+    private final boolean fsync;
+    private final long compactBytes;
+    private final long ackTimeoutMillis;
+    private final Duration antiSnipingWindow;
+    private final ExecutorService[] projectors;
+    private final BidJournal[] deadLetters;
+    private final Counter deadLetterCounter;
+    private BidEngine engine;
+
+    @Autowired
+    public JournalBidServiceImpl(@Qualifier("bidServiceImpl") BidService databaseBidService, @Lazy ItemService itemService,
+                                 ItemRepository itemRepository, UserRepository userRepository, BidRepository bidRepository,
+                                 PurchaseService purchaseService, BalanceHoldService balanceHoldService,
+                                 ProxyBidRepository proxyBidRepository, AuctionService auctionService,
+                                 BidJournalCheckpointRepository checkpointRepository, PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${greenbay.bid.journal.directory:data/journal}") String directory,
+                                 @Value("${greenbay.bid.journal.shards:4}") int shardCount,
+                                 @Value("${greenbay.bid.journal.ring-size:4096}") int ringSize,
+                                 @Value("${greenbay.bid.journal.max-batch-size:256}") int maxBatchSize,
+                                 @Value("${greenbay.bid.journal.fsync:true}") boolean fsync,
+                                 @Value("${greenbay.bid.journal.compact-bytes:67108864}") long compactBytes,
+                                 @Value("${greenbay.bid.journal.ack-timeout-ms:2000}") long ackTimeoutMillis,
+                                 @Value("${greenbay.auction.anti-sniping.window-seconds:0}") long antiSnipingWindowSeconds) {
+        this.databaseBidService = databaseBidService;
+        this.itemService = itemService;
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+        this.bidRepository = bidRepository;
+        this.purchaseService = purchaseService;
+        this.balanceHoldService = balanceHoldService;
+        this.proxyBidRepository = proxyBidRepository;
+        this.auctionService = auctionService;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reservationTemplate = new TransactionTemplate(transactionManager);
+        this.reservationTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.directory = Path.of(directory);
+        this.shardCount = shardCount;
+        this.ringSize = ringSize;
+        this.maxBatchSize = maxBatchSize;
+        this.fsync = fsync;
+        this.compactBytes = compactBytes;
+        this.ackTimeoutMillis = ackTimeoutMillis;
+        this.antiSnipingWindow = Duration.ofSeconds(antiSnipingWindowSeconds);
+        this.projectors = new ExecutorService[shardCount];
+        this.deadLetters = new BidJournal[shardCount];
+        this.deadLetterCounter = Counter.builder("greenbay.bid.journal.dead-letters")
+                .description("Journaled bids the database refused, moved to the dead letter files")
+                .register(meterRegistry);
+        for (int i = 0; i < shardCount; i++) {
+            String name = "bid-projection-" + i;
+            projectors[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+//    Nothing in the journals may be left unprojected before the engine loads item state from the database
+    @PostConstruct
+    public void start() throws IOException {
+        List<BidJournal> journals = new ArrayList<>(shardCount);
+        long[] nextSequences = new long[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            deadLetters[shard] = new BidJournal(directory.resolve("bids-" + shard + ".dead"), true);
+            BidJournal journal = new BidJournal(directory.resolve("bids-" + shard + ".journal"), fsync);
+            long checkpoint = checkpointRepository.findById(shard).map(BidJournalCheckpoint::getLastSequence).orElse(0L);
+            List<BidJournal.Entry> unprojected = journal.replay().stream()
+                    .filter(entry -> entry.sequence() > checkpoint)
+                    .toList();
+            if (!unprojected.isEmpty()) {
+                log.info("Replaying {} journaled bids of shard {}", unprojected.size(), shard);
+                replay(shard, unprojected);
+            }
+            journal.reset();
+            nextSequences[shard] = (unprojected.isEmpty() ? checkpoint : unprojected.get(unprojected.size() - 1).sequence()) + 1;
+            journals.add(journal);
+        }
+        engine = new BidEngine(journals, nextSequences, ringSize, maxBatchSize, antiSnipingWindow, compactBytes,
+                (shard, entries) -> projectors[shard].execute(() -> projectWithRetry(shard, entries)));
+        Gauge.builder("greenbay.bid.journal.lag", engine, BidEngine::lag)
+                .description("Journaled bids not yet applied to the database")
+                .register(meterRegistry);
+        engine.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        engine.stop();
+        for (ExecutorService projector : projectors) {
+            projector.shutdown();
+        }
+        for (ExecutorService projector : projectors) {
+            projector.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        for (BidJournal deadLetter : deadLetters) {
+            try {
+                deadLetter.close();
+            } catch (IOException e) {
+                log.warn("Could not close a dead letter file", e);
+            }
+        }
+    }
+
+    @Override
+    public Bid saveBid(Bid bid) {
+        return databaseBidService.saveBid(bid);
+    }
+
+    @Override
+    public BidCommonResponseDTO placeBid(UUID itemId, User bidder, int bidAmount) {
+        checkBidderBalance(bidder, bidAmount);
+        BidEngine.ItemState snapshot = engine.knows(itemId) ? null : snapshotOf(itemService.getItemById(itemId));
+        return place(itemId, snapshot, bidder, bidAmount);
+    }
+
+    @Override
+    public BidCommonResponseDTO placeBid(Item item, User bidder, int bidAmount) {
+        checkBidderBalance(bidder, bidAmount);
+        BidEngine.ItemState snapshot = engine.knows(item.getId()) ? null : snapshotOf(item);
+        return place(item.getId(), snapshot, bidder, bidAmount);
+    }
+
+//    Proxy resolution reads and writes several rows under the item lock, which the engine does not take
+    @Override
+    public BidCommonResponseDTO placeProxyBid(UUID itemId, User bidder, int maxAmount) {
+        throw NO_PROXY_BIDS;
+    }
+
+//    Reads the projected bids, the latest few milliseconds of bids may be missing
+    @Override
+    public List<BidListDTO> findBidsByItem(Item item) {
+        return databaseBidService.findBidsByItem(item);
+    }
+
+    @Override
+    public Map<String, String> buildErrorResponseForBiding(BindingResult bindingResult) {
+        return databaseBidService.buildErrorResponseForBiding(bindingResult);
+    }
+
+//    The engine closes the item behind the bids already queued, then the database close waits for their projection
+    @Override
+    public Instant stopBidding(UUID itemId) {
+        try {
+            BidEngine.ItemState snapshot = engine.knows(itemId) ? null : snapshotOf(itemService.getItemById(itemId));
+            BidEngine.ItemState item = engine.close(itemId, snapshot).get(ackTimeoutMillis, TimeUnit.MILLISECONDS).item();
+            if (item.sellable()) {
+                return item.endsAt();
+            }
+            long sequence = engine.lastSequence(itemId);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ackTimeoutMillis);
+            while (!engine.isProjected(itemId, sequence)) {
+                if (System.nanoTime() > deadline) {
+                    return Instant.now().plus(CLOSE_RETRY_DELAY);
+                }
+                Thread.sleep(PROJECTION_POLL_MILLIS);
+            }
+            return null;
+        } catch (RecordNotFoundException e) {
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Could not stop the bidding on item {}, retrying the close later", itemId, e);
+            return Instant.now().plus(CLOSE_RETRY_DELAY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Instant.now().plus(CLOSE_RETRY_DELAY);
+        }
+    }
+
+    private BidCommonResponseDTO place(UUID itemId, BidEngine.ItemState snapshot, User bidder, int bidAmount) {
+        reservationTemplate.executeWithoutResult(status -> balanceHoldService.reserveBalance(bidder.getId(), bidAmount));
+        CompletableFuture<BidEngine.Accepted> result = engine.submit(itemId, bidder.getId(), bidAmount, snapshot);
+        BidEngine.Accepted accepted;
+        try {
+            accepted = result.get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            releaseReservation(bidder.getId(), bidAmount);
+//            The engine dropped a sold or closed item after knows(), the snapshot brings it back for the rejection
+            if (e.getCause() instanceof RecordNotFoundException && snapshot == null) {
+                return place(itemId, snapshotOf(itemService.getItemById(itemId)), bidder, bidAmount);
+            }
+            if (e.getCause() instanceof BidRejectedException
+                    || e.getCause() instanceof RecordNotFoundException
+                    || e.getCause() instanceof BidQueueFullException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new DataAccessException("Bid could not be recorded.", e.getCause()) {
+            };
+        } catch (TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            result.whenCompleteAsync((late, ex) -> {
+                if (ex != null) {
+                    releaseReservation(bidder.getId(), bidAmount);
+                }
+            });
+//            The bid is still queued and may yet be accepted, so it is not reported as rejected
+            throw new BidPendingException("Your bid is still being processed, check the item before bidding again.",
+                    result.thenApply(late -> respond(late, bidder, bidAmount)));
+        }
+        return respond(accepted, bidder, bidAmount);
+    }
+
+    private BidCommonResponseDTO respond(BidEngine.Accepted accepted, User bidder, int bidAmount) {
+        BidEngine.ItemState item = accepted.item();
+        if (accepted.entry().purchase()) {
+            return new ItemBoughtResponseDTO(item.name(), item.description(), item.photoURL(), item.sellerUsername(),
+                    bidder.getUsername(), bidAmount);
+        }
+        return new BidPlacedResponseDTO(item.name(), item.description(), item.photoURL(), item.sellerUsername(), bidAmount);
+    }
+
+    private void releaseReservation(UUID bidderId, int bidAmount) {
+        try {
+            reservationTemplate.executeWithoutResult(status -> balanceHoldService.releaseBalance(bidderId, bidAmount));
+        } catch (RuntimeException e) {
+            log.error("Could not release {} reserved for a rejected bid of user {}", bidAmount, bidderId, e);
+        }
+    }
+
+    private void checkBidderBalance(User bidder, int bidAmount) {
+        if(bidder.getBalance() <= 0) {
+            throw NO_MONEY;
+        }
+        if(bidder.getBalance() < bidAmount) {
+            throw NOT_ENOUGH_MONEY;
+        }
+    }
+
+    private BidEngine.ItemState snapshotOf(Item item) {
+        return new BidEngine.ItemState(item.getId(), item.getName(), item.getDescription(), item.getPhotoURL(),
+                item.getSeller().getId(), item.getSeller().getUsername(), item.getStartingPrice(), item.getPurchasePrice(),
+                item.getLastBid(), item.isSellable(), item.getEndsAt());
+    }
+
+//    The entries are durable in the journal, so the projection keeps retrying rather than dropping them
+    private void projectWithRetry(int shard, List<BidJournal.Entry> entries) {
+        List<BidJournal.Entry> pending = entries;
+        long delay = 100;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                project(shard, pending);
+                engine.projected(shard, pending.get(pending.size() - 1).sequence());
+                return;
+            } catch (RuntimeException e) {
+                log.error("Projecting {} journaled bids of shard {} failed, retrying in {} ms", pending.size(), shard, delay, e);
+            }
+            if (attempt >= ISOLATE_AFTER_ATTEMPTS) {
+                List<BidJournal.Entry> remaining = projectOneByOne(shard, pending);
+                if (remaining.size() < pending.size()) {
+                    engine.projected(shard, pending.get(pending.size() - remaining.size() - 1).sequence());
+                }
+                if (remaining.isEmpty()) {
+                    return;
+                }
+                pending = remaining;
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            delay = Math.min(delay * 2, MAX_RETRY_DELAY_MILLIS);
+        }
+    }
+
+    private void replay(int shard, List<BidJournal.Entry> entries) {
+        try {
+            project(shard, entries);
+        } catch (RuntimeException e) {
+            log.error("Replaying {} journaled bids of shard {} failed, replaying them one by one", entries.size(), shard, e);
+            if (!projectOneByOne(shard, entries).isEmpty()) {
+                throw e;
+            }
+        }
+    }
+
+//    Returns the entries left for a later retry, from the first one that failed while the database was unreachable
+    private List<BidJournal.Entry> projectOneByOne(int shard, List<BidJournal.Entry> entries) {
+        for (int i = 0; i < entries.size(); i++) {
+            BidJournal.Entry entry = entries.get(i);
+            if (!tryProject(shard, entry) && !(databaseAvailable(shard) && deadLetter(shard, entry))) {
+                return entries.subList(i, entries.size());
+            }
+        }
+        return List.of();
+    }
+
+    private boolean tryProject(int shard, BidJournal.Entry entry) {
+        for (int attempt = 1; attempt <= ENTRY_ATTEMPTS; attempt++) {
+            try {
+                project(shard, List.of(entry));
+                return true;
+            } catch (RuntimeException e) {
+                log.warn("Projecting journaled bid {} of shard {} failed, attempt {} of {}", entry.sequence(), shard, attempt, ENTRY_ATTEMPTS, e);
+            }
+        }
+        return false;
+    }
+
+    private boolean databaseAvailable(int shard) {
+        try {
+            checkpointRepository.findById(shard);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+//    The bid was acknowledged, so it is kept for an operator; its reservation is released and the shard moves past it
+    private boolean deadLetter(int shard, BidJournal.Entry entry) {
+        try {
+            deadLetters[shard].append(List.of(entry));
+        } catch (IOException e) {
+            log.error("Could not write journaled bid {} of shard {} to the dead letter file", entry.sequence(), shard, e);
+            return false;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                balanceHoldService.releaseBalance(entry.bidderId(), entry.amount());
+                checkpointRepository.save(new BidJournalCheckpoint(shard, entry.sequence()));
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not release {} reserved by dead lettered bid {} of user {}, release it by hand",
+                    entry.amount(), entry.sequence(), entry.bidderId(), e);
+            try {
+                checkpointRepository.save(new BidJournalCheckpoint(shard, entry.sequence()));
+            } catch (RuntimeException checkpointFailure) {
+                log.error("Could not move the checkpoint of shard {} past dead lettered bid {}", shard, entry.sequence(), checkpointFailure);
+                return false;
+            }
+        }
+        deadLetterCounter.increment();
+        log.error("Journaled bid {} of user {} on item {} for {} could not be projected, moved to the dead letters of shard {}",
+                entry.sequence(), entry.bidderId(), entry.itemId(), entry.amount(), shard);
+        return true;
+    }
+
+    private void project(int shard, List<BidJournal.Entry> entries) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (BidJournal.Entry entry : entries) {
+                projectEntry(entry);
+            }
+            checkpointRepository.save(new BidJournalCheckpoint(shard, entries.get(entries.size() - 1).sequence()));
+        });
+    }
+
+    private void projectEntry(BidJournal.Entry entry) {
+        UUID itemId = entry.itemId();
+        BidUpdateOutcome outcome = itemService.raiseLastBid(itemId, entry.amount(), entry.purchase());
+        if (outcome != BidUpdateOutcome.APPLIED) {
+//            The bid has been acknowledged, failing the projection sends it to the dead letters rather than dropping it silently
+            throw new IllegalStateException("Journaled bid " + entry.sequence() + " on item " + itemId + " not applied: " + outcome);
+        }
+        Item item = itemRepository.getReferenceById(itemId);
+        User bidder = userRepository.getReferenceById(entry.bidderId());
+        bidRepository.save(new Bid(item, bidder, entry.amount()));
+        if (entry.purchase()) {
+            purchaseService.savePurchase(new Purchase(item, bidder, entry.amount()));
+            balanceHoldService.settleReservedPurchase(itemId, entry.bidderId(), entry.amount());
+            proxyBidRepository.deleteAllByItemId(itemId);
+            auctionService.cancelClose(itemId);
+        } else {
+            balanceHoldService.moveReservedHold(itemId, entry.bidderId(), entry.amount());
+            auctionService.extendIfEndingSoon(itemService.getItemById(itemId));
+        }
+    }
+}
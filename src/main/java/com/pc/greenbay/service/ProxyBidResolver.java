@@ -0,0 +1,65 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.ProxyBid;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Resolves all proxies of one item in a single pass instead of letting them outbid each
+ * other one step at a time. Only the two strongest proxies matter: the runner up shows
+ * its whole maximum and the winner bids one dollar above it, never more than its own
+ * maximum or the purchase price. Equal maximums go to the proxy placed first.
+ */
+final class ProxyBidResolver {
+
+    private ProxyBidResolver() {
+    }
+
+    /**
+     * A proxy with the maximum its owner can actually pay right now.
+     */
+    record Candidate(ProxyBid proxy, int effectiveMax) {
+        UUID bidderId() {
+            return proxy.getBidder().getId();
+        }
+    }
+
+    /**
+     * A visible bid to place on behalf of a proxy, in order.
+     */
+    record Step(ProxyBid proxy, int bidAmount) {
+    }
+
+    static List<Step> resolve(int lastBid, int startingPrice, int purchasePrice, UUID leaderId, List<Candidate> candidates) {
+        List<Candidate> active = candidates.stream()
+                .filter(c -> c.effectiveMax() > lastBid && c.effectiveMax() >= startingPrice)
+                .sorted(Comparator.comparingInt(Candidate::effectiveMax).reversed()
+                        .thenComparing(c -> c.proxy().getCreatedAt()))
+                .toList();
+        List<Step> steps = new ArrayList<>();
+        if (active.isEmpty()) {
+            return steps;
+        }
+        Candidate winner = active.get(0);
+        if (active.size() == 1) {
+            if (!winner.bidderId().equals(leaderId)) {
+                int bidAmount = Math.max(lastBid + 1, startingPrice);
+                steps.add(new Step(winner.proxy(), Math.min(bidAmount, purchasePrice)));
+            }
+            return steps;
+        }
+        Candidate runnerUp = active.get(1);
+        int bidAmount = winner.effectiveMax();
+        if (runnerUp.effectiveMax() < winner.effectiveMax()) {
+            if (runnerUp.effectiveMax() < purchasePrice) {
+                steps.add(new Step(runnerUp.proxy(), runnerUp.effectiveMax()));
+            }
+            bidAmount = runnerUp.effectiveMax() + 1;
+        }
+        steps.add(new Step(winner.proxy(), Math.min(bidAmount, purchasePrice)));
+        return steps;
+    }
+}
@@ -0,0 +1,41 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.model.ResponseCacheKey;
+import org.springframework.http.ResponseEntity;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+public interface ResponseCacheService {
+
+    /**
+     * The cached JSON of the key, gzip compressed when the client accepts it. On a miss the
+     * loader builds the response, an OK response is serialized once and kept for the next
+     * call, anything else is returned as the loader built it. A key with a version is only
+     * answered from an entry stored under that same version.
+     */
+    ResponseEntity<?> getOrLoad(ResponseCacheKey key, boolean acceptGzip, Supplier<ResponseEntity<?>> loader);
+
+    /**
+     * Drops every listing once the calling transaction commits, a new item shifts them all.
+     */
+    void itemCreated();
+
+    /**
+     * Drops the details of the item, the listings showing it and the listings ordered or
+     * filtered by the last bid, once the calling transaction commits.
+     */
+    void itemBid(UUID itemId);
+
+    /**
+     * Drops the details of the item and every listing once the calling transaction commits.
+     */
+    void itemClosed(UUID itemId);
+
+    /**
+     * Strong ETag of the listings, derived from the items in the database. A change made on
+     * this node shows at once, one made on another node within the cache ttl. Works whether
+     * the cache is enabled or not.
+     */
+    String listingETag();
+}
@@ -0,0 +1,368 @@
+package com.pc.greenbay.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pc.greenbay.model.ResponseCacheKey;
+import com.pc.greenbay.model.request.ItemFilterDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import static com.pc.greenbay.service.TransactionCallbacks.afterCommit;
+
+/**
+ * Serialized responses of the item listings and details, kept in access order and evicted
+ * least recently used first once the byte or entry limit is reached. Listing entries remember
+ * the items they show, so a bid only drops the pages the item is on, and the listings ordered or
+ * filtered by the bid are indexed apart so no invalidation walks the whole cache. Every
+ * invalidation takes the next sequence number and records it against what it touched: the item,
+ * all listings or the bid ordered ones. A response loaded before a change to something it
+ * shows is not stored after it, one loaded around unrelated changes is. The listing ETag is
+ * read from the database, so every node hands out the same one for the same items. It is
+ * reloaded after any invalidation here and kept for at most the ttl otherwise. Invalidations
+ * only come from this node, so the ttl on entries and on the ETag is what bounds how long a
+ * change made on another node goes unseen.
+ */
+@Service
+public class ResponseCacheServiceImpl implements ResponseCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCacheServiceImpl.class);
+
+    private final ItemService itemService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final long maxBytes;
+    private final int maxEntries;
+    private final int gzipMinBytes;
+    private final int warmPages;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<UUID, Set<String>> listingsByItem = new HashMap<>();
+    private final Set<String> listings = new HashSet<>();
+    private final Set<String> bidOrderedListings = new HashSet<>();
+    private final LinkedHashMap<UUID, Long> itemChangedAt = new LinkedHashMap<>();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+    private long bytes;
+    private long sequence;
+    private long listingsChangedAt;
+    private long bidOrderChangedAt;
+    private long forgottenChangedAt;
+    private String listingETag;
+    private long listingETagLoadedAtMillis;
+
+    private record Entry(ResponseCacheKey key, byte[] json, byte[] gzip, Set<UUID> itemIds, long createdAtMillis) {
+
+        long size() {
+            return json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+
+    @Autowired
+    public ResponseCacheServiceImpl(@Lazy ItemService itemService, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                    @Value("${greenbay.response-cache.enabled:true}") boolean enabled,
+                                    @Value("${greenbay.response-cache.ttl-ms:5000}") long ttlMillis,
+                                    @Value("${greenbay.response-cache.max-bytes:33554432}") long maxBytes,
+                                    @Value("${greenbay.response-cache.max-entries:10000}") int maxEntries,
+                                    @Value("${greenbay.response-cache.gzip-min-bytes:1024}") int gzipMinBytes,
+                                    @Value("${greenbay.response-cache.warm-pages:3}") int warmPages) {
+        this.itemService = itemService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.ttlMillis = ttlMillis;
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+        this.gzipMinBytes = gzipMinBytes;
+        this.warmPages = warmPages;
+        this.hitCounter = Counter.builder("greenbay.response-cache.hits")
+                .description("Item responses served from the response cache")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("greenbay.response-cache.misses")
+                .description("Item responses built because the response cache had none")
+                .register(meterRegistry);
+        this.evictionCounter = Counter.builder("greenbay.response-cache.evictions")
+                .description("Responses evicted to keep the response cache within its limits")
+                .register(meterRegistry);
+        Gauge.builder("greenbay.response-cache.size", this, ResponseCacheServiceImpl::size)
+                .register(meterRegistry);
+        Gauge.builder("greenbay.response-cache.bytes", this, ResponseCacheServiceImpl::bytes)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ResponseEntity<?> getOrLoad(ResponseCacheKey key, boolean acceptGzip, Supplier<ResponseEntity<?>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Entry cached;
+        long loadedAt;
+        synchronized (entries) {
+            cached = entries.get(key.getValue());
+            if (cached != null && (isExpired(cached) || !Objects.equals(cached.key().getVersion(), key.getVersion()))) {
+                remove(key.getValue());
+                cached = null;
+            }
+            loadedAt = sequence;
+        }
+        if (cached != null) {
+            hitCounter.increment();
+            return respond(cached, acceptGzip);
+        }
+        missCounter.increment();
+        ResponseEntity<?> response = loader.get();
+        if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) {
+            return response;
+        }
+        Entry loaded = serialize(key, response.getBody());
+        if (loaded == null) {
+            return response;
+        }
+        store(loaded, loadedAt);
+        return respond(loaded, acceptGzip);
+    }
+
+    @Override
+    public void itemCreated() {
+        afterCommit(() -> invalidate(null, true));
+    }
+
+    @Override
+    public void itemBid(UUID itemId) {
+        afterCommit(() -> invalidate(itemId, false));
+    }
+
+    @Override
+    public void itemClosed(UUID itemId) {
+        afterCommit(() -> invalidate(itemId, true));
+    }
+
+//    Read outside the lock, and only kept when no invalidation ran meanwhile
+    @Override
+    public String listingETag() {
+        long loadedAt;
+        synchronized (entries) {
+            if (listingETag != null && System.currentTimeMillis() - listingETagLoadedAtMillis < ttlMillis) {
+                return listingETag;
+            }
+            loadedAt = sequence;
+        }
+        long loadedAtMillis = System.currentTimeMillis();
+        String eTag = itemService.getListingVersion().eTag();
+        synchronized (entries) {
+            if (sequence == loadedAt) {
+                listingETag = eTag;
+                listingETagLoadedAtMillis = loadedAtMillis;
+            }
+        }
+        return eTag;
+    }
+
+//    The pages most clients start with, loaded through the same path as a request so their keys match
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            String after = null;
+            for (int i = 0; i < warmPages; i++) {
+                String cursor = after;
+                ResponseEntity<?> response = getOrLoad(ResponseCacheKey.listing(null, cursor, null, null, new ItemFilterDTO()), false,
+                        () -> itemService.getItemsAfter(cursor));
+                if (!(response.getBody() instanceof byte[] json)) {
+                    break;
+                }
+                after = objectMapper.readTree(json).path("next_cursor").textValue();
+                if (after == null) {
+                    break;
+                }
+            }
+            for (int page = 1; page <= warmPages; page++) {
+                int current = page;
+                ResponseEntity<?> response = getOrLoad(ResponseCacheKey.listing(page, null, null, null, new ItemFilterDTO()), false,
+                        () -> itemService.getItemsPaged(current, null));
+                if (response.getStatusCode() != HttpStatus.OK) {
+                    break;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not warm up the response cache", e);
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    long bytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    private ResponseEntity<?> respond(Entry entry, boolean acceptGzip) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptGzip && entry.gzip() != null) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entry.gzip());
+        }
+        return builder.body(entry.json());
+    }
+
+    private Entry serialize(ResponseCacheKey key, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            Set<UUID> itemIds = key.isListing() ? listedItems(json) : Set.of(key.getItemId());
+            return new Entry(key, json, json.length >= gzipMinBytes ? gzip(json) : null, itemIds, System.currentTimeMillis());
+        } catch (IOException e) {
+            log.warn("Could not serialize the response of {}", key.getValue(), e);
+            return null;
+        }
+    }
+
+    private Set<UUID> listedItems(byte[] json) throws IOException {
+        Set<UUID> itemIds = new HashSet<>();
+        for (JsonNode item : objectMapper.readTree(json).path("items")) {
+            String id = item.path("id").textValue();
+            if (id != null) {
+                itemIds.add(UUID.fromString(id));
+            }
+        }
+        return itemIds;
+    }
+
+//    Small bodies grow or barely shrink, they are always sent as they are
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        byte[] compressed = out.toByteArray();
+        return compressed.length < json.length ? compressed : null;
+    }
+
+    private boolean isExpired(Entry entry) {
+        return System.currentTimeMillis() - entry.createdAtMillis() >= ttlMillis;
+    }
+
+    private void store(Entry entry, long loadedAt) {
+        if (entry.size() > maxBytes) {
+            return;
+        }
+        synchronized (entries) {
+            if (changedSince(entry, loadedAt)) {
+                return;
+            }
+            remove(entry.key().getValue());
+            entries.put(entry.key().getValue(), entry);
+            bytes += entry.size();
+            if (entry.key().isListing()) {
+                listings.add(entry.key().getValue());
+                if (entry.key().isOrderedByBid()) {
+                    bidOrderedListings.add(entry.key().getValue());
+                }
+                for (UUID itemId : entry.itemIds()) {
+                    listingsByItem.computeIfAbsent(itemId, id -> new HashSet<>()).add(entry.key().getValue());
+                }
+            }
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (bytes > maxBytes || entries.size() > maxEntries) {
+                Entry evicted = eldest.next();
+                eldest.remove();
+                unindex(evicted);
+                evictionCounter.increment();
+            }
+        }
+    }
+
+//    Any change moves the bid ordered listings, a created or closed item moves every listing
+    private boolean changedSince(Entry entry, long loadedAt) {
+        ResponseCacheKey key = entry.key();
+        if (key.isListing() && (listingsChangedAt > loadedAt || key.isOrderedByBid() && bidOrderChangedAt > loadedAt)) {
+            return true;
+        }
+        for (UUID itemId : entry.itemIds()) {
+            if (itemChangedAt.getOrDefault(itemId, forgottenChangedAt) > loadedAt) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void invalidate(UUID itemId, boolean allListings) {
+        synchronized (entries) {
+            long changedAt = ++sequence;
+            listingETag = null;
+            bidOrderChangedAt = changedAt;
+            if (allListings) {
+                listingsChangedAt = changedAt;
+            }
+            if (itemId != null) {
+                changed(itemId, changedAt);
+                remove(ResponseCacheKey.details(itemId).getValue());
+                Set<String> showing = listingsByItem.get(itemId);
+                if (showing != null) {
+                    new ArrayList<>(showing).forEach(this::remove);
+                }
+            }
+            new ArrayList<>(allListings ? listings : bidOrderedListings).forEach(this::remove);
+        }
+    }
+
+//    Only loads still running can be older than a change, so the oldest changes are forgotten once
+//    there are more than entries. An item not in the map counts as changed at the newest one forgotten
+    private void changed(UUID itemId, long changedAt) {
+        itemChangedAt.remove(itemId);
+        itemChangedAt.put(itemId, changedAt);
+        Iterator<Long> eldest = itemChangedAt.values().iterator();
+        while (itemChangedAt.size() > maxEntries) {
+            forgottenChangedAt = eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            unindex(entry);
+        }
+    }
+
+//    Called with the entry already out of the map, only the byte count and the item index are left to fix
+    private void unindex(Entry entry) {
+        bytes -= entry.size();
+        if (!entry.key().isListing()) {
+            return;
+        }
+        listings.remove(entry.key().getValue());
+        bidOrderedListings.remove(entry.key().getValue());
+        for (UUID itemId : entry.itemIds()) {
+            Set<String> showing = listingsByItem.get(itemId);
+            if (showing != null && showing.remove(entry.key().getValue()) && showing.isEmpty()) {
+                listingsByItem.remove(itemId);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.pc.greenbay.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers in-memory side effects of a write until its transaction has committed, so a
+ * rolled back write leaves the in-memory state untouched.
+ */
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+//    Outside a transaction there is nothing to wait for
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
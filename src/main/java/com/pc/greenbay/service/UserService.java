@@ -17,6 +17,8 @@ public interface UserService {
 
     double showGreenBayDollarsBalance(String username);
 
+    double showAvailableGreenBayDollars(String username);
+
     User findByUsername(String username);
 
     MessageDTO updateBalance(String username, double balance);
@@ -1,5 +1,6 @@
 package com.pc.greenbay.service;
 
+import com.pc.greenbay.exception.BalanceBelowReservedException;
 import com.pc.greenbay.model.MessageDTO;
 import com.pc.greenbay.model.response.UserDTO;
 import com.pc.greenbay.entity.User;
@@ -8,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 
@@ -53,16 +55,26 @@ public class UserServiceImpl implements UserService {
         return user.getBalance();
     }
 
+    @Override
+    public double showAvailableGreenBayDollars(String username) {
+        User user = userRepository.findByUsername(username).orElseThrow(() -> new UsernameNotFoundException("User not found."));
+        return user.getBalance() - user.getReservedBalance();
+    }
+
     @Override
     public User findByUsername(String username) {
         return userRepository.findByUsername(username).orElseThrow(() -> new UsernameNotFoundException("User not found."));
     }
 
+//    A conditional update instead of a merged entity, which would also write back a stale reserved balance
     @Override
+    @Transactional
     public MessageDTO updateBalance(String username, double balance) {
-        User user = this.findByUsername(username);
-        user.setBalance(balance);
-        userRepository.save(user);
+        if (userRepository.updateBalance(username, balance) == 0) {
+            User user = this.findByUsername(username);
+            throw new BalanceBelowReservedException("New balance cannot be lower than the "
+                    + user.getReservedBalance() + " reserved by open bids.");
+        }
 
         return new MessageDTO("Balance successfully updated to " + balance);
     }
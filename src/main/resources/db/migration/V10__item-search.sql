@@ -0,0 +1,10 @@
+-- Name and description as one search document, name matches ranking higher; the simple
+-- configuration neither stems nor drops stop words, so brand and model names match as typed
+alter table items
+    add column search_vector tsvector generated always as (
+        setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) stored;
+
+-- Only sellable items are searched, sold ones drop out of the index
+create index idx_items_sellable_search on items using gin (search_vector) where sellable;
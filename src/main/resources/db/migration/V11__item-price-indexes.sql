@@ -0,0 +1,4 @@
+-- Price sorted and price filtered pages of the cursor listing, each one index range scan;
+-- walked backwards for the descending sorts
+create index idx_items_sellable_last_bid_id on items (last_bid, id) where sellable;
+create index idx_items_sellable_purchase_price_id on items (purchase_price, id) where sellable;
@@ -0,0 +1,3 @@
+-- The bids of one item: the version behind the item ETag counts them, the details list
+-- them and the auction close looks for the highest one
+create index idx_bids_item_id_bid_amount on bids (item_id, bid_amount);
@@ -0,0 +1,19 @@
+alter table users
+    add column reserved_balance float(53) not null default 0;
+
+create table bid_holds (
+       amount integer not null,
+       item_id uuid not null,
+       user_id uuid not null,
+       primary key (item_id)
+);
+
+alter table if exists bid_holds
+    add constraint fk_bid_holds_item
+        foreign key (item_id)
+            references items;
+
+alter table if exists bid_holds
+    add constraint fk_bid_holds_user
+        foreign key (user_id)
+            references users;
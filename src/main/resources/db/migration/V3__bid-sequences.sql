@@ -0,0 +1,7 @@
+-- Pooled sequence ids let Hibernate batch bid and purchase inserts.
+-- The first value handed out is max(id) + 50, the pooled optimizer uses (max(id), max(id) + 50].
+create sequence if not exists bids_seq start with 1 increment by 50;
+create sequence if not exists purchases_seq start with 1 increment by 50;
+
+select setval('bids_seq', (select coalesce(max(id), 0) + 50 from bids), false);
+select setval('purchases_seq', (select coalesce(max(id), 0) + 50 from purchases), false);
@@ -0,0 +1,19 @@
+create table proxy_bids (
+       max_amount integer not null,
+       created_at timestamp(6) with time zone not null,
+       bidder_id uuid not null,
+       id uuid not null,
+       item_id uuid not null,
+       primary key (id),
+       constraint uk_proxy_bids_item_bidder unique (item_id, bidder_id)
+);
+
+alter table if exists proxy_bids
+    add constraint fk_proxy_bids_item
+        foreign key (item_id)
+            references items;
+
+alter table if exists proxy_bids
+    add constraint fk_proxy_bids_bidder
+        foreign key (bidder_id)
+            references users;
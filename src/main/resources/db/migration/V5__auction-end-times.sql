@@ -0,0 +1,5 @@
+alter table items
+    add column ends_at timestamp(6) with time zone;
+
+-- Open auctions are loaded into the close scheduler on startup
+create index idx_items_open_ends_at on items (ends_at) where sellable and ends_at is not null;
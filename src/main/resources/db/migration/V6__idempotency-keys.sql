@@ -0,0 +1,11 @@
+create table idempotency_keys (
+       status integer not null,
+       created_at timestamp(6) with time zone not null,
+       idempotency_key varchar(400) not null,
+       content_type varchar(255),
+       location varchar(255),
+       body bytea,
+       primary key (idempotency_key)
+);
+
+create index idx_idempotency_keys_created_at on idempotency_keys (created_at);
@@ -0,0 +1,5 @@
+create table bid_journal_checkpoints (
+       shard integer not null,
+       last_sequence bigint not null,
+       primary key (shard)
+);
@@ -0,0 +1,98 @@
+-- Places a bid in one round trip: validation, last bid, balance hold, bid and purchase rows,
+-- the same rules as BidServiceImpl. Rejections return a status and write nothing.
+-- Proxy bids are resolved by the application afterwards, has_proxies tells it when to.
+create or replace function place_bid(p_item_id uuid, p_bidder_id uuid, p_amount integer,
+                                     p_anti_sniping_seconds integer default 0)
+    returns table (status text, item_name varchar, item_description text, photo_url varchar,
+                   seller_name varchar, buyer_name varchar, extended_ends_at timestamptz, has_proxies boolean)
+    language plpgsql
+as $$
+declare
+    v_item items%rowtype;
+    v_hold bid_holds%rowtype;
+    v_held integer := 0;
+    v_now timestamptz := clock_timestamp();
+begin
+    has_proxies := false;
+    select * into v_item from items where id = p_item_id for update;
+    if not found then
+        status := 'NOT_FOUND';
+        return next;
+        return;
+    end if;
+    item_name := v_item.name;
+    item_description := v_item.description;
+    photo_url := v_item.photourl;
+    select u.username into seller_name from users u where u.id = v_item.seller_id;
+
+    if v_item.seller_id = p_bidder_id then
+        status := 'OWN_ITEM';
+    elsif not v_item.sellable then
+        status := 'NOT_SELLABLE';
+    elsif v_item.ends_at is not null and v_item.ends_at <= v_now then
+        status := 'AUCTION_ENDED';
+    elsif p_amount < v_item.starting_price or p_amount <= v_item.last_bid then
+        status := 'LOW_BID';
+    end if;
+    if status is not null then
+        return next;
+        return;
+    end if;
+
+    select * into v_hold from bid_holds h where h.item_id = p_item_id;
+    if v_hold.user_id = p_bidder_id then
+        v_held := v_hold.amount;
+    end if;
+
+    if p_amount >= v_item.purchase_price then
+        update users set balance = balance - p_amount, reserved_balance = reserved_balance - v_held
+         where id = p_bidder_id and balance - reserved_balance + v_held >= p_amount;
+        if not found then
+            status := 'NOT_ENOUGH_MONEY';
+            return next;
+            return;
+        end if;
+        if v_hold.user_id is not null and v_hold.user_id <> p_bidder_id then
+            update users set reserved_balance = reserved_balance - v_hold.amount where id = v_hold.user_id;
+        end if;
+        delete from bid_holds where item_id = p_item_id;
+        update items set last_bid = p_amount, sellable = false where id = p_item_id;
+        insert into bids (id, bid_amount, bidder_id, item_id) values (nextval('bids_seq'), p_amount, p_bidder_id, p_item_id);
+        insert into purchases (id, purchase_amount, buyer_id, item_id)
+        values (nextval('purchases_seq'), p_amount, p_bidder_id, p_item_id);
+        delete from proxy_bids where item_id = p_item_id;
+        select u.username into buyer_name from users u where u.id = p_bidder_id;
+        status := 'BOUGHT';
+        return next;
+        return;
+    end if;
+
+    update users set reserved_balance = reserved_balance + (p_amount - v_held)
+     where id = p_bidder_id and balance - reserved_balance >= p_amount - v_held;
+    if not found then
+        status := 'NOT_ENOUGH_MONEY';
+        return next;
+        return;
+    end if;
+    if v_hold.user_id is null then
+        insert into bid_holds (item_id, user_id, amount) values (p_item_id, p_bidder_id, p_amount);
+    else
+        if v_hold.user_id <> p_bidder_id then
+            update users set reserved_balance = reserved_balance - v_hold.amount where id = v_hold.user_id;
+        end if;
+        update bid_holds set user_id = p_bidder_id, amount = p_amount where item_id = p_item_id;
+    end if;
+
+    if p_anti_sniping_seconds > 0 and v_item.ends_at is not null
+            and v_item.ends_at < v_now + make_interval(secs => p_anti_sniping_seconds) then
+        extended_ends_at := v_now + make_interval(secs => p_anti_sniping_seconds);
+        update items set last_bid = p_amount, ends_at = extended_ends_at where id = p_item_id;
+    else
+        update items set last_bid = p_amount where id = p_item_id;
+    end if;
+    insert into bids (id, bid_amount, bidder_id, item_id) values (nextval('bids_seq'), p_amount, p_bidder_id, p_item_id);
+    has_proxies := exists (select 1 from proxy_bids p where p.item_id = p_item_id);
+    status := 'PLACED';
+    return next;
+end;
+$$;
@@ -0,0 +1,12 @@
+alter table items
+    add column created_at timestamp(6) with time zone;
+
+-- Existing items share one creation time, the id keeps their order stable
+update items set created_at = now() where created_at is null;
+
+alter table items
+    alter column created_at set default now(),
+    alter column created_at set not null;
+
+-- Keyset pagination of the sellable item listing, every page is one index range scan
+create index idx_items_sellable_created_at_id on items (created_at, id) where sellable;
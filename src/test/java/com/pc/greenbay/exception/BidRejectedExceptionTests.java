@@ -0,0 +1,29 @@
+package com.pc.greenbay.exception;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BidRejectedExceptionTests {
+
+    @Test
+    @DisplayName("JUnit test for rejections carrying no stack trace")
+    void givenRejection_whenThrown_thenHasNoStackTraceAndKeepsReason() {
+        LowBidException rejection = new LowBidException("Your bid is too low.");
+
+        assertThat(rejection.getStackTrace()).isEmpty();
+        assertThat(rejection.getSuppressed()).isEmpty();
+        assertThat(BidRejectionReason.of(rejection)).isEqualTo(BidRejectionReason.LOW_BID);
+    }
+
+    @Test
+    @DisplayName("JUnit test for every rejection type mapping to its reason")
+    void givenRejections_whenReasonOf_thenMatchesType() {
+        assertThat(BidRejectionReason.of(new NoMoneyException("m"))).isEqualTo(BidRejectionReason.NO_MONEY);
+        assertThat(BidRejectionReason.of(new NotEnoughMoneyException("m"))).isEqualTo(BidRejectionReason.NOT_ENOUGH_MONEY);
+        assertThat(BidRejectionReason.of(new BidOnOwnItemException("m"))).isEqualTo(BidRejectionReason.OWN_ITEM);
+        assertThat(BidRejectionReason.of(new ItemNotSellableException("m"))).isEqualTo(BidRejectionReason.NOT_SELLABLE);
+        assertThat(BidRejectionReason.of(new RecordNotFoundException("m"))).isEqualTo(BidRejectionReason.NOT_FOUND);
+    }
+}
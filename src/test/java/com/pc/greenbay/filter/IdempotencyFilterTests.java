@@ -0,0 +1,24 @@
+package com.pc.greenbay.filter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IdempotencyFilterTests {
+
+    @Test
+    @DisplayName("JUnit test for the stored key fitting the key column whatever the header length")
+    void givenLongestHeader_whenStorageKey_thenFixedLengthDigest() {
+        String username = "u".repeat(255);
+        String path = "/api/bid/" + "a".repeat(300);
+
+        String longest = IdempotencyFilter.storageKey(username, "POST", path, "k".repeat(255));
+        String shortest = IdempotencyFilter.storageKey("user2", "POST", "/api/bid/1", "k");
+
+        assertThat(longest).hasSize(64).isNotEqualTo(shortest);
+        assertThat(shortest).hasSize(64);
+        assertThat(IdempotencyFilter.storageKey("user2", "POST", "/api/bid/1", "k")).isEqualTo(shortest);
+        assertThat(IdempotencyFilter.storageKey("user3", "POST", "/api/bid/1", "k")).isNotEqualTo(shortest);
+    }
+}
@@ -0,0 +1,128 @@
+package com.pc.greenbay.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pc.greenbay.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RateLimitFilterTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter rateLimitFilter;
+
+    @BeforeEach
+    void setup() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setIdleEvictionSeconds(0);
+        properties.setRoutes(List.of(new RateLimitProperties.Route("POST", "/api/bid/{itemId}", 2, 0.5)));
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimitFilter = new RateLimitFilter(properties, new ObjectMapper(), meterRegistry);
+    }
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletResponse perform(String method, String path, String username) throws Exception {
+        SecurityContextHolder.clearContext();
+        if (username != null) {
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rateLimitFilter.doFilter(new MockHttpServletRequest(method, path), response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    @DisplayName("JUnit test for requests over the limit of a route")
+    void givenBurstOverCapacity_whenFilter_thenRejectWithRetryAfter() throws Exception {
+        assertThat(perform("POST", "/api/bid/1", "user2").getStatus()).isEqualTo(200);
+        assertThat(perform("POST", "/api/bid/2", "user2").getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rejected = perform("POST", "/api/bid/3", "user2");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(rejected.getContentAsString()).contains("Too many requests, please try again later.");
+        assertThat(meterRegistry.counter("greenbay.ratelimit.rejected", "route", "/api/bid/{itemId}").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("JUnit test for separate buckets per user and unlimited routes")
+    void givenOtherUserAndRoute_whenFilter_thenNotLimited() throws Exception {
+        perform("POST", "/api/bid/1", "user2");
+        perform("POST", "/api/bid/1", "user2");
+
+        assertThat(perform("POST", "/api/bid/1", "user3").getStatus()).isEqualTo(200);
+        assertThat(perform("GET", "/api/bid/1", "user2").getStatus()).isEqualTo(200);
+        assertThat(perform("POST", "/api/item", "user2").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("JUnit test for eviction of idle buckets")
+    void givenIdleBuckets_whenEvictIdleBuckets_thenRemoveThem() throws Exception {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setIdleEvictionSeconds(0);
+        properties.setRoutes(List.of(new RateLimitProperties.Route("POST", "/api/bid/{itemId}", 2, 1000)));
+        rateLimitFilter = new RateLimitFilter(properties, new ObjectMapper(), meterRegistry);
+
+        perform("POST", "/api/bid/1", "user2");
+        assertThat(rateLimitFilter.bucketCount()).isEqualTo(1);
+
+        Thread.sleep(5);
+        rateLimitFilter.evictIdleBuckets();
+
+        assertThat(rateLimitFilter.bucketCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("JUnit test for token bucket refill")
+    void givenEmptyBucket_whenIntervalPassed_thenAllowAgain() {
+        TokenBucket bucket = new TokenBucket(1, 10, 0);
+
+        assertThat(bucket.tryConsume(0)).isZero();
+        assertThat(bucket.tryConsume(0)).isEqualTo(100_000_000L);
+        assertThat(bucket.tryConsume(100_000_000L)).isZero();
+    }
+
+    @Test
+    @DisplayName("JUnit test for token bucket rejecting limits it cannot enforce")
+    void givenInvalidLimits_whenCreateBucket_thenThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 2e9, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, Double.NaN, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(Integer.MAX_VALUE, 1e-9, 0));
+    }
+
+    @Test
+    @DisplayName("JUnit test for rate limit properties validation")
+    void givenInvalidRoute_whenValidateProperties_thenReportViolations() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRoutes(List.of(new RateLimitProperties.Route("POST", "/api/login", 0, 0),
+                new RateLimitProperties.Route("POST", "/api/item", 5, 0.1)));
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+        assertThat(validator.validate(properties))
+                .extracting(violation -> violation.getPropertyPath().toString())
+                .containsOnly("routes[0].capacity", "routes[0].refillPerSecond");
+    }
+}
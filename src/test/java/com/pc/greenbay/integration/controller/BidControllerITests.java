@@ -2,7 +2,10 @@ package com.pc.greenbay.integration.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pc.greenbay.entity.Item;
+import com.pc.greenbay.model.request.BidBatchEntryDTO;
 import com.pc.greenbay.model.request.BidRequestDTO;
+import com.pc.greenbay.model.request.ProxyBidRequestDTO;
+import com.pc.greenbay.model.response.BidListDTO;
 import com.pc.greenbay.entity.User;
 import com.pc.greenbay.repository.ItemRepository;
 import com.pc.greenbay.repository.UserRepository;
@@ -17,12 +20,18 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
 @SpringBootTest
@@ -279,4 +288,166 @@ public class BidControllerITests {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.buyer").value("user2"))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.bought_at").value("51"));
     }
+    @Test
+    @Transactional
+    @DisplayName("Integration test for competing proxy bids")
+    void givenTwoProxyBids_whenPlaceProxyBid_thenHigherMaximumLeadsOneAboveTheOther() throws Exception {
+        User rival = User.builder()
+                .id(UUID.randomUUID())
+                .username("user3")
+                .password("u34567")
+                .balance(100)
+                .roles("ROLE_USER")
+                .build();
+        userService.saveUser(rival);
+        UUID itemId = item.getId();
+
+        mockMvc.perform(post("/api/bid/{itemId}/proxy", itemId)
+                        .header("authorization", "Bearer " + jwtService.generateToken("user2"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new ProxyBidRequestDTO(30))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.max_bid").value(30))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.current_bid").value(10))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.leading").value(true));
+
+        ResultActions response = mockMvc.perform(post("/api/bid/{itemId}/proxy", itemId)
+                .header("authorization", "Bearer " + jwtService.generateToken("user3"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(new ProxyBidRequestDTO(25))));
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.max_bid").value(25))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.current_bid").value(26))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.leading").value(false));
+
+        assertThat(bidService.findBidsByItem(item)).extracting(BidListDTO::getBidAmount).containsExactlyInAnyOrder(10, 25, 26);
+        assertThat(itemRepository.findBidStateById(itemId).orElseThrow().getLastBid()).isEqualTo(26);
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Integration test for place bid operation retried with the same Idempotency-Key")
+    void givenRepeatedIdempotencyKey_whenPlaceBid_thenReplayFirstResponse() throws Exception {
+        UUID itemId = item.getId();
+        String authorizedUser = "Bearer " + jwtService.generateToken("user2");
+        String body = om.writeValueAsString(new BidRequestDTO(25));
+
+        mockMvc.perform(post("/api/bid/{itemId}", itemId)
+                        .header("authorization", authorizedUser)
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("Idempotent-Replayed"));
+
+        ResultActions response = mockMvc.perform(post("/api/bid/{itemId}", itemId)
+                .header("authorization", authorizedUser)
+                .header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Idempotent-Replayed", "true"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.bid_placed").value("25"));
+        assertThat(bidService.findBidsByItem(item)).hasSize(1);
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Integration test for batch of bids where one bid is rejected")
+    void givenBatchOfBids_whenPlaceBidsBatch_thenReturnResultPerBid() throws Exception {
+
+        UUID item2Id = UUID.randomUUID();
+        Item item2 = Item.builder()
+                .id(item2Id)
+                .name("iPhone")
+                .description("mobile phone")
+                .photoURL("/img/green_fox_logo.png")
+                .startingPrice(10)
+                .purchasePrice(50)
+                .lastBid(30)
+                .sellable(true)
+                .seller(seller)
+                .build();
+        itemService.saveItem(item2);
+
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("user2");
+
+        List<BidBatchEntryDTO> bids = List.of(
+                new BidBatchEntryDTO(item.getId(), 25),
+                new BidBatchEntryDTO(item2.getId(), 20));
+
+        ResultActions response = mockMvc.perform(post("/api/bids/batch")
+                .header("authorization", authorizedUser)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(bids)));
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value("placed"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].result.bid_placed").value(25))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status").value("rejected"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].reason").value("LOW_BID"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].error").value("Your bid is too low."));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Integration test for empty batch of bids")
+    void givenEmptyBatch_whenPlaceBidsBatch_thenReturnBadRequest() throws Exception {
+
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("user2");
+
+        ResultActions response = mockMvc.perform(post("/api/bids/batch")
+                .header("authorization", authorizedUser)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"));
+
+        response.andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("No bids provided."));
+    }
+    @Test
+    @Transactional
+    @DisplayName("Integration test for asynchronous bid that is queued")
+    void givenValidInput_whenPlaceBidAsync_thenReturnAcceptedTicket() throws Exception {
+
+        UUID itemId = item.getId();
+
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("user2");
+
+        BidRequestDTO bidRequestDTO = new BidRequestDTO(25);
+
+        ResultActions response = mockMvc.perform(post("/api/bid/{itemId}/async", itemId)
+                .header("authorization", authorizedUser)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsString(bidRequestDTO)));
+
+        response.andExpect(MockMvcResultMatchers.status().isAccepted())
+                .andExpect(MockMvcResultMatchers.header().exists("Location"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.ticket_id").isNotEmpty())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.itemId").value(itemId.toString()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.bidAmount").value(25));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Integration test for polling an unknown bid ticket")
+    void givenUnknownTicket_whenShowBidTicket_thenReturnNotFound() throws Exception {
+
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("user2");
+
+        MvcResult result = mockMvc.perform(get("/api/bid/ticket/{ticketId}", UUID.randomUUID())
+                        .header("authorization", authorizedUser))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("Bid ticket not found."));
+    }
 }
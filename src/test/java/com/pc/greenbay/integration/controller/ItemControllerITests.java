@@ -8,8 +8,11 @@ import com.pc.greenbay.model.request.ItemRequestDTO;
 import com.pc.greenbay.entity.User;
 import com.pc.greenbay.repository.ItemRepository;
 import com.pc.greenbay.service.*;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,11 +22,17 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
@@ -44,6 +53,8 @@ public class ItemControllerITests {
     private BidService bidService;
     @Autowired
     private PurchaseService purchaseService;
+    @Autowired
+    private ItemEventService itemEventService;
 
     @Autowired
     private ObjectMapper om;
@@ -52,6 +63,8 @@ public class ItemControllerITests {
     private Item item;
     @Autowired
     private ItemRepository itemRepository;
+    @Autowired
+    private EntityManager entityManager;
 
     @BeforeEach
     void setup(){
@@ -460,6 +473,179 @@ void givenMissingNameAndDescription_whenCreateItem_thenReturnError() throws Exce
                 .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("There is no page: 4"));
     }
 
+    @Test
+    @Transactional
+    @DisplayName("Integration test for pagination method without a total count")
+    void givenCountNone_whenListItemsPages_thenReturnHasNextWithoutTotalPages() throws Exception {
+
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("user1");
+
+        for (String name : new String[]{"iPhone", "iPad", "MacBook"}) {
+            itemService.saveItem(Item.builder()
+                    .name(name)
+                    .description("apple")
+                    .photoURL("/img/green_fox_logo.png")
+                    .startingPrice(100)
+                    .purchasePrice(150)
+                    .lastBid(0)
+                    .sellable(true)
+                    .seller(seller)
+                    .build());
+        }
+
+        mockMvc.perform(get("/api/item")
+                        .header("authorization", authorizedUser)
+                        .param("page", "1")
+                        .param("count", "none"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.has_next").value(true))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.total_pages").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(3));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Integration test for pagination method when given an unknown count mode")
+    void givenUnknownCountMode_whenListItemsPages_thenReturnErrorDTO() throws Exception {
+
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("user1");
+
+        mockMvc.perform(get("/api/item")
+                        .header("authorization", authorizedUser)
+                        .param("page", "1")
+                        .param("count", "guess"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("Invalid count mode: guess"));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Integration test for cursor pagination method walking all pages")
+    void givenMoreItemsThanPageSize_whenListItemsWithCursor_thenReturnPagesUntilNoCursor() throws Exception {
+
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("user1");
+
+        for (String name : new String[]{"iPhone", "iPad", "MacBook"}) {
+            itemService.saveItem(Item.builder()
+                    .name(name)
+                    .description("apple")
+                    .photoURL("/img/green_fox_logo.png")
+                    .startingPrice(100)
+                    .purchasePrice(150)
+                    .lastBid(0)
+                    .sellable(true)
+                    .seller(seller)
+                    .build());
+        }
+
+        String firstPage = mockMvc.perform(get("/api/item")
+                        .header("authorization", authorizedUser))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next_cursor").isString())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.total_pages").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/item")
+                        .header("authorization", authorizedUser)
+                        .param("after", om.readTree(firstPage).get("next_cursor").asText()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next_cursor").value(Matchers.nullValue()));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Integration test for item search method")
+    void givenMatchingItems_whenSearchItems_thenReturnRankedItems() throws Exception {
+
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("user1");
+
+        itemService.saveItem(Item.builder()
+                .name("Tablet stand")
+                .description("aluminium")
+                .photoURL("/img/green_fox_logo.png")
+                .startingPrice(10)
+                .purchasePrice(50)
+                .lastBid(0)
+                .sellable(true)
+                .seller(seller)
+                .build());
+
+        mockMvc.perform(get("/api/item/search")
+                        .header("authorization", authorizedUser)
+                        .param("q", "tablet"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].name").value("Tablet stand"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[1].name").value("Lenovo"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next_cursor").value(Matchers.nullValue()));
+
+        mockMvc.perform(get("/api/item/search")
+                        .header("authorization", authorizedUser)
+                        .param("q", " "))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("Search query is empty."));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Integration test for the listing sorted and filtered by last bid")
+    void givenBidRange_whenListItemsSortedByBid_thenReturnItemsInRangeHighestFirst() throws Exception {
+
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("user1");
+
+        int[] lastBids = {5, 20, 35, 80};
+        for (int i = 0; i < lastBids.length; i++) {
+            itemService.saveItem(Item.builder()
+                    .name("Item" + i)
+                    .description("apple")
+                    .photoURL("/img/green_fox_logo.png")
+                    .startingPrice(1)
+                    .purchasePrice(150)
+                    .lastBid(lastBids[i])
+                    .sellable(true)
+                    .seller(seller)
+                    .build());
+        }
+
+        mockMvc.perform(get("/api/item")
+                        .header("authorization", authorizedUser)
+                        .param("sort", "bid_desc")
+                        .param("min_bid", "10")
+                        .param("max_bid", "50"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[*].lastBid").value(Matchers.contains(35, 20)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next_cursor").value(Matchers.nullValue()));
+
+        mockMvc.perform(get("/api/item")
+                        .header("authorization", authorizedUser)
+                        .param("sort", "newest")
+                        .param("min_bid", "10"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("Filtering by the last bid needs sort=bid or sort=bid_desc."));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Integration test for cursor pagination method when given an invalid cursor")
+    void givenInvalidCursor_whenListItemsWithCursor_thenReturnErrorDTO() throws Exception {
+
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("user1");
+
+        mockMvc.perform(get("/api/item")
+                        .header("authorization", authorizedUser)
+                        .param("after", "%%%"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("Invalid cursor."));
+    }
+
     @Test
     @Transactional
     @DisplayName("Integration test for helper show method")
@@ -518,4 +704,211 @@ void givenMissingNameAndDescription_whenCreateItem_thenReturnError() throws Exce
                 .andExpect(MockMvcResultMatchers.jsonPath("$").isArray())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(4));
     }
+
+    @Test
+    @Transactional
+    @DisplayName("Integration test for helper show method streaming NDJSON")
+    void givenNdjsonAccepted_whenShow_thenStreamOneItemPerLine() throws Exception {
+
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("user1");
+
+        MvcResult result = mockMvc.perform(get("/api/temp/show-all-items")
+                        .header("authorization", authorizedUser)
+                        .accept("application/x-ndjson"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+//        The export runs in a transaction of its own, so it only sees committed items and every line is one of them
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        for (String line : body.lines().toList()) {
+            assertThat(om.readTree(line).has("sellerUsername")).isTrue();
+        }
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Integration test for the statements each item read endpoint runs, independent of the number of rows")
+    void givenItemsOfManySellersWithBids_whenReadItems_thenRunFixedNumberOfStatements() throws Exception {
+
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("user1");
+
+        for (int i = 0; i < 4; i++) {
+            User otherSeller = userService.saveUser(User.builder()
+                    .username("seller" + i)
+                    .password("password")
+                    .balance(100.0)
+                    .roles("ROLE_USER")
+                    .build());
+            Item otherItem = itemService.saveItem(Item.builder()
+                    .name("Item" + i)
+                    .description("description")
+                    .photoURL("/img/green_fox_logo.png")
+                    .startingPrice(10)
+                    .purchasePrice(50)
+                    .lastBid(0)
+                    .sellable(true)
+                    .seller(otherSeller)
+                    .build());
+            bidService.saveBid(new Bid(item, otherSeller, 10 + i));
+            bidService.saveBid(new Bid(otherItem, seller, 10 + i));
+        }
+
+//        The user of the token, the page and its count
+        assertThat(statementsOf(get("/api/item").param("page", "1").header("authorization", authorizedUser))).isEqualTo(3);
+//        The user of the token and the page
+        assertThat(statementsOf(get("/api/item").header("authorization", authorizedUser))).isEqualTo(2);
+//        The user of the token, the item version, the item with its seller and its bids with their bidders
+        assertThat(statementsOf(get("/api/item/" + item.getId()).header("authorization", authorizedUser))).isEqualTo(4);
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Integration test for item details answered with 304 while the item version is unchanged")
+    void givenMatchingETag_whenShowItemDetails_thenReturnNotModifiedWithoutLoadingBids() throws Exception {
+
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("user1");
+        User bidder = userService.saveUser(User.builder()
+                .username("bidder")
+                .password("password")
+                .balance(100.0)
+                .roles("ROLE_USER")
+                .build());
+        bidService.saveBid(new Bid(item, bidder, 15));
+        itemService.saveLastBid(item, 15);
+
+        MvcResult first = mockMvc.perform(get("/api/item/" + item.getId()).header("authorization", authorizedUser))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "no-cache"))
+                .andReturn();
+        String eTag = first.getResponse().getHeader("ETag");
+        assertThat(first.getResponse().getHeaders("ETag")).containsExactly(eTag);
+
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/item/" + item.getId())
+                        .header("authorization", authorizedUser)
+                        .header("If-None-Match", eTag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", eTag))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+//        The user of the token and the item version, no bids
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        bidService.saveBid(new Bid(itemRepository.findById(item.getId()).orElseThrow(), bidder, 20));
+        itemService.saveLastBid(itemRepository.findById(item.getId()).orElseThrow(), 20);
+        mockMvc.perform(get("/api/item/" + item.getId())
+                        .header("authorization", authorizedUser)
+                        .header("If-None-Match", eTag))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", Matchers.not(eTag)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.bidList.length()").value(2));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Integration test for listing pages answered with 304 while the listing version is unchanged")
+    void givenMatchingETag_whenListItems_thenReturnNotModified() throws Exception {
+
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("user1");
+
+        String eTag = mockMvc.perform(get("/api/item").header("authorization", authorizedUser))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/item")
+                        .header("authorization", authorizedUser)
+                        .header("If-None-Match", "W/" + eTag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(""));
+        mockMvc.perform(get("/api/item")
+                        .header("authorization", authorizedUser)
+                        .header("If-None-Match", "\"stale\""))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", eTag));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Integration test for listing pages answered with 304 to the ETag of the gzip body")
+    void givenMatchingGzipETag_whenListItems_thenReturnNotModifiedWithThatETag() throws Exception {
+
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("user1");
+
+        String eTag = mockMvc.perform(get("/api/item").header("authorization", authorizedUser))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        String gzipETag = eTag.substring(0, eTag.length() - 1) + "-gzip\"";
+
+        mockMvc.perform(get("/api/item")
+                        .header("authorization", authorizedUser)
+                        .header("If-None-Match", gzipETag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", gzipETag));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Integration test for the item event stream pushing the current bid, new bids and the sale")
+    void givenWatchedItem_whenBidPlacedAndSold_thenStreamPushesEventsAndEnds() throws Exception {
+
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("user1");
+
+        MvcResult result = mockMvc.perform(get("/api/item/" + item.getId() + "/events")
+                        .header("authorization", authorizedUser)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        assertThat(awaitContent(result, "\"amount\":0")).contains("event:bid");
+
+//        Outside the test transaction, as after the commit of a bid
+        CompletableFuture.runAsync(() -> itemEventService.bidPlaced(item.getId(), 20)).join();
+        assertThat(awaitContent(result, "\"amount\":20")).contains("event:bid");
+        CompletableFuture.runAsync(() -> itemEventService.itemSold(item.getId(), 30)).join();
+        String content = awaitContent(result, "event:sold");
+
+        assertThat(content).contains("\"amount\":30");
+        assertThat(content.indexOf("\"amount\":20")).isLessThan(content.indexOf("event:sold"));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Integration test for the item event stream of an unknown item")
+    void givenUnknownItem_whenItemEvents_thenReturnNotFound() throws Exception {
+
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("user1");
+
+        mockMvc.perform(get("/api/item/" + UUID.randomUUID() + "/events").header("authorization", authorizedUser))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    private String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        return content;
+    }
+
+    private long statementsOf(RequestBuilder request) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(request).andExpect(MockMvcResultMatchers.status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
 }
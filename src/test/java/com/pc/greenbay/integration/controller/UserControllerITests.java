@@ -165,6 +165,27 @@ public class UserControllerITests {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Balance successfully updated to 33.3"));
     }
 
+    @Test
+    @Transactional
+    @DisplayName("Integration test for helper updateBalance method below the reserved balance")
+    void givenReservedBalance_whenUpdateBalanceBelowIt_thenErrorDTO() throws Exception {
+
+        User user1 = userService.findByUsername("user1");
+        user1.setReservedBalance(50.0);
+        userService.saveUser(user1);
+        String authorizedUser = "Bearer ";
+        authorizedUser += jwtService.generateToken("admin");
+
+        ResultActions response = mockMvc.perform(patch("/api/temp/balance/{username}", "user1")
+                .header("authorization", authorizedUser)
+                .contentType(MediaType.APPLICATION_JSON)
+                .param("newBalance", "33.3"));
+
+        response.andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("error").value("New balance cannot be lower than the 50.0 reserved by open bids."));
+        org.assertj.core.api.Assertions.assertThat(userService.findByUsername("user1").getBalance()).isEqualTo(100.0);
+    }
+
     @Test
     @Transactional
     @DisplayName("Integration test for helper updateBalance method with missing user")
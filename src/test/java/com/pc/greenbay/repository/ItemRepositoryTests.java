@@ -2,6 +2,13 @@ package com.pc.greenbay.repository;
 
 import com.pc.greenbay.entity.Item;
 import com.pc.greenbay.entity.User;
+import com.pc.greenbay.model.AuctionDeadline;
+import com.pc.greenbay.model.ItemBidState;
+import com.pc.greenbay.model.ItemSort;
+import com.pc.greenbay.model.ItemSummary;
+import com.pc.greenbay.model.ListingVersion;
+import com.pc.greenbay.model.SortedItemCursor;
+import com.pc.greenbay.model.response.ItemListDTO;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -10,11 +17,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @DataJpaTest
 @Import(BCryptPasswordEncoder.class)
@@ -123,4 +135,178 @@ public class ItemRepositoryTests {
         assertThat(itemPage).size().isEqualTo(2);
         assertThat(itemPage.getContent()).contains(item, item2);
     }
+    @Test
+    @DisplayName("JUnit test for keyset pagination of sellable items")
+    void givenItemsCreatedAtTheSameTime_whenFindSellableAfter_thenContinueByIdAndSkipNotSellable() {
+        itemRepository.delete(item);
+        Instant createdAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        Item first = itemRepository.save(listedItem("Samsung", createdAt, true));
+        Item second = itemRepository.save(listedItem("Lenovo", createdAt, true));
+        itemRepository.save(listedItem("Nokia", createdAt.plusSeconds(1), false));
+        Item last = itemRepository.save(listedItem("Sony", createdAt.plusSeconds(2), true));
+//        The database orders uuids by their unsigned bytes, as their text does, UUID.compareTo is signed
+        Item lower = first.getId().toString().compareTo(second.getId().toString()) < 0 ? first : second;
+        Item higher = lower == first ? second : first;
+
+        List<ItemSummary> firstPage = itemRepository.findSellableFirst(PageRequest.of(0, 2));
+        List<ItemSummary> secondPage = itemRepository.findSellableAfter(higher.getCreatedAt(), higher.getId(), PageRequest.of(0, 2));
+        List<ItemSummary> fromTie = itemRepository.findSellableAfter(lower.getCreatedAt(), lower.getId(), PageRequest.of(0, 2));
+
+        assertThat(firstPage).extracting(ItemSummary::getId).containsExactly(lower.getId(), higher.getId());
+        assertThat(firstPage).extracting(ItemSummary::getSellerUsername).containsOnly(seller.getUsername());
+        assertThat(secondPage).extracting(ItemSummary::getId).containsExactly(last.getId());
+        assertThat(fromTie).extracting(ItemSummary::getId).containsExactly(higher.getId(), last.getId());
+    }
+
+    private Item listedItem(String name, Instant createdAt, boolean sellable) {
+        return Item.builder()
+                .name(name)
+                .description("mobile phone")
+                .photoURL("/img/green_fox_logo.png")
+                .startingPrice(100)
+                .purchasePrice(150)
+                .lastBid(0)
+                .sellable(sellable)
+                .seller(seller)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    @Test
+    @DisplayName("JUnit test for the sorted listing walking a bid range in both directions")
+    void givenItemsWithBids_whenFindSellableSortedByBid_thenReturnRangeInOrder() {
+        item.setLastBid(5);
+        itemRepository.save(item);
+        Item low = itemRepository.save(pricedItem("Nokia", 20, 300, true));
+        Item tieA = itemRepository.save(pricedItem("Sony", 40, 200, true));
+        Item tieB = itemRepository.save(pricedItem("Asus", 40, 100, true));
+        itemRepository.save(pricedItem("Apple", 30, 100, false));
+        itemRepository.save(pricedItem("Dell", 90, 100, true));
+        Item first = tieA.getId().toString().compareTo(tieB.getId().toString()) < 0 ? tieA : tieB;
+        Item second = first == tieA ? tieB : tieA;
+
+        List<ItemSummary> ascending = itemRepository.findSellableSorted(ItemSort.BID, 10, 50, null, 10);
+        List<ItemSummary> afterFirstTie = itemRepository.findSellableSorted(ItemSort.BID, 10, 50,
+                new SortedItemCursor(ItemSort.BID, 40, first.getId()), 10);
+        List<ItemSummary> descending = itemRepository.findSellableSorted(ItemSort.BID_DESC, 10, 50,
+                new SortedItemCursor(ItemSort.BID_DESC, 40, second.getId()), 10);
+
+        assertThat(ascending).extracting(ItemSummary::getId).containsExactly(low.getId(), first.getId(), second.getId());
+        assertThat(afterFirstTie).extracting(ItemSummary::getId).containsExactly(second.getId());
+        assertThat(descending).extracting(ItemSummary::getId).containsExactly(first.getId(), low.getId());
+    }
+
+    @Test
+    @DisplayName("JUnit test for the sorted listing by purchase price and by newest first")
+    void givenItems_whenFindSellableSortedByPurchasePriceOrNewest_thenReturnInOrder() {
+        Instant createdAt = item.getCreatedAt();
+        Item cheap = itemRepository.save(pricedItem("Nokia", 0, 60, true));
+        cheap.setCreatedAt(createdAt.plusSeconds(1));
+        Item expensive = itemRepository.save(pricedItem("Sony", 0, 900, true));
+        expensive.setCreatedAt(createdAt.plusSeconds(2));
+        itemRepository.flush();
+
+        List<ItemSummary> byPrice = itemRepository.findSellableSorted(ItemSort.PURCHASE_PRICE_DESC, null, 100, null, 10);
+        List<ItemSummary> newest = itemRepository.findSellableSorted(ItemSort.NEWEST, null, null, null, 2);
+
+        assertThat(byPrice).extracting(ItemSummary::getName).containsExactly("Nokia", "Lenovo");
+        assertThat(newest).extracting(ItemSummary::getName).containsExactly("Sony", "Nokia");
+    }
+
+    private Item pricedItem(String name, int lastBid, int purchasePrice, boolean sellable) {
+        return Item.builder()
+                .name(name)
+                .description("mobile phone")
+                .photoURL("/img/green_fox_logo.png")
+                .startingPrice(1)
+                .purchasePrice(purchasePrice)
+                .lastBid(lastBid)
+                .sellable(sellable)
+                .seller(seller)
+                .build();
+    }
+
+    @Test
+    @DisplayName("JUnit test for streaming the item list projection")
+    void givenItems_whenStreamItemList_thenReturnRowsWithSellerUsername() {
+        try (Stream<ItemListDTO> items = itemRepository.streamItemList()) {
+            assertThat(items).singleElement()
+                    .satisfies(row -> {
+                        assertThat(row.getId()).isEqualTo(item.getId());
+                        assertThat(row.getDescription()).isEqualTo("tablet");
+                        assertThat(row.getSellerUsername()).isEqualTo("user1");
+                    });
+        }
+    }
+
+    @Test
+    @DisplayName("JUnit test for conditional last bid update operation")
+    void givenHigherAndLowerBids_whenRaiseLastBid_thenOnlyHigherBidIsStored() {
+        itemRepository.flush();
+
+        int higher = itemRepository.raiseLastBid(item.getId(), 30);
+        int lower = itemRepository.raiseLastBid(item.getId(), 20);
+
+        assertThat(higher).isEqualTo(1);
+        assertThat(lower).isEqualTo(0);
+        assertThat(itemRepository.findBidStateById(item.getId()))
+                .contains(new ItemBidState(30, true));
+    }
+
+    @Test
+    @DisplayName("JUnit test for conditional last bid update operation that closes the item")
+    void givenClosingBid_whenRaiseLastBidAndClose_thenItemIsNotSellable() {
+        itemRepository.flush();
+
+        int closed = itemRepository.raiseLastBidAndClose(item.getId(), 60);
+        int afterClose = itemRepository.raiseLastBid(item.getId(), 70);
+
+        assertThat(closed).isEqualTo(1);
+        assertThat(afterClose).isEqualTo(0);
+        assertThat(itemRepository.findBidStateById(item.getId()))
+                .contains(new ItemBidState(60, false));
+    }
+
+    @Test
+    @DisplayName("JUnit test for auction end time extension operation")
+    void givenEndingAuction_whenExtendAuction_thenOnlyLaterEndIsStored() {
+        Instant endsAt = Instant.now().plusSeconds(30).truncatedTo(ChronoUnit.MILLIS);
+        item.setEndsAt(endsAt);
+        itemRepository.saveAndFlush(item);
+
+        int earlier = itemRepository.extendAuction(item.getId(), endsAt.minusSeconds(10));
+        int later = itemRepository.extendAuction(item.getId(), endsAt.plusSeconds(120));
+
+        assertThat(earlier).isEqualTo(0);
+        assertThat(later).isEqualTo(1);
+        assertThat(itemRepository.findOpenAuctionDeadlines())
+                .containsExactly(new AuctionDeadline(item.getId(), endsAt.plusSeconds(120)));
+    }
+
+    @Test
+    @DisplayName("JUnit test for close auction operation")
+    void givenOpenAuction_whenCloseAuction_thenCloseOnlyOnce() {
+        item.setEndsAt(Instant.now());
+        itemRepository.saveAndFlush(item);
+
+        assertThat(itemRepository.closeAuction(item.getId())).isEqualTo(1);
+        assertThat(itemRepository.closeAuction(item.getId())).isEqualTo(0);
+        assertThat(itemRepository.findOpenAuctionDeadlines()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("JUnit test for the listing version moving with every bid and close")
+    void givenBidAndClose_whenFindListingVersion_thenVersionChanges() {
+        itemRepository.flush();
+        ListingVersion open = itemRepository.findListingVersion();
+
+        itemRepository.raiseLastBid(item.getId(), 30);
+        ListingVersion bid = itemRepository.findListingVersion();
+        itemRepository.closeAuction(item.getId());
+        ListingVersion closed = itemRepository.findListingVersion();
+
+        assertThat(open).isEqualTo(new ListingVersion(1, 1, 0));
+        assertThat(bid).isEqualTo(new ListingVersion(1, 1, 30));
+        assertThat(closed).isEqualTo(new ListingVersion(1, 0, 30));
+    }
 }
@@ -97,4 +97,28 @@ public class UserRepositoryTests {
         assertThat(userList).size().isEqualTo(1);
         assertThat(userList).contains(user);
     }
+    @Test
+    @DisplayName("JUnit test for reserve operation that would exceed the available balance")
+    void givenReservedBalance_whenReserve_thenOnlyAvailableMoneyIsReserved() {
+        userRepository.flush();
+
+        int first = userRepository.reserve(user.getId(), 70);
+        int second = userRepository.reserve(user.getId(), 40);
+
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isEqualTo(0);
+        assertThat(userRepository.findAvailableBalanceById(user.getId())).contains(30.0);
+    }
+
+    @Test
+    @DisplayName("JUnit test for settle operation using the buyer's own hold")
+    void givenHeldAmount_whenSettle_thenChargeBalanceAndReleaseHold() {
+        userRepository.flush();
+        userRepository.reserve(user.getId(), 80);
+
+        int settled = userRepository.settle(user.getId(), 90, 80);
+
+        assertThat(settled).isEqualTo(1);
+        assertThat(userRepository.findAvailableBalanceById(user.getId())).contains(10.0);
+    }
 }
@@ -0,0 +1,152 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.Item;
+import com.pc.greenbay.entity.User;
+import com.pc.greenbay.exception.BidLockTimeoutException;
+import com.pc.greenbay.repository.ItemRepository;
+import com.pc.greenbay.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AdvisoryBidLockServiceImpl.class, AdvisoryBidLockServiceTests.Metrics.class})
+@TestPropertySource(properties = {"greenbay.bid.lock.mode=advisory", "greenbay.bid.lock.timeout-ms=200"})
+public class AdvisoryBidLockServiceTests {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private AdvisoryBidLockServiceImpl bidLockService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+    private Item first;
+    private Item second;
+
+    @BeforeEach
+    void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        User seller = userRepository.save(User.builder()
+                .username("seller")
+                .password("s12345")
+                .balance(100)
+                .roles("ROLE_USER")
+                .build());
+        first = itemRepository.save(item(seller, "Lenovo"));
+        second = itemRepository.save(item(seller, "Samsung"));
+    }
+
+    @AfterEach
+    void cleanup() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private Item item(User seller, String name) {
+        return Item.builder()
+                .name(name)
+                .description("tablet")
+                .photoURL("/img/green_fox_logo.png")
+                .startingPrice(10)
+                .purchasePrice(50)
+                .lastBid(0)
+                .sellable(true)
+                .seller(seller)
+                .build();
+    }
+
+    @Test
+    @DisplayName("JUnit test for the cluster wide lock serializing bids on one item only")
+    void givenLockedItem_whenLockItemInOtherTransaction_thenOnlySameItemTimesOut() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                bidLockService.lockItem(first.getId());
+                locked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThrows(BidLockTimeoutException.class,
+                    () -> transactionTemplate.executeWithoutResult(status -> bidLockService.lockItem(first.getId())));
+            transactionTemplate.executeWithoutResult(status -> bidLockService.lockItem(second.getId()));
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            transactionTemplate.executeWithoutResult(status -> bidLockService.lockItem(first.getId()));
+            assertThat(meterRegistry.counter("greenbay.bid.lock.advisory.timeouts").count()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("JUnit test for the connection getting its lock timeout back after the item lock")
+    void givenSessionLockTimeout_whenLockItem_thenTimeoutIsRestored() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Integer before = jdbcTemplate.queryForObject("select lock_timeout()", Integer.class);
+
+            bidLockService.lockItem(first.getId());
+
+            assertThat(jdbcTemplate.queryForObject("select lock_timeout()", Integer.class)).isEqualTo(before).isNotEqualTo(200);
+        });
+    }
+
+    @Test
+    @DisplayName("JUnit test for lock item method without a transaction")
+    void givenNoTransaction_whenLockItem_thenThrowIllegalStateException() {
+        assertThrows(IllegalStateException.class, () -> bidLockService.lockItem(UUID.randomUUID()));
+    }
+
+    @Test
+    @DisplayName("JUnit test for advisory lock key derived from the whole item id")
+    void givenItemIds_whenAdvisoryKey_thenUseBothHalves() {
+        UUID itemId = new UUID(0x0000000100000002L, 0x0000000400000008L);
+
+        assertThat(AdvisoryBidLockServiceImpl.advisoryKey(itemId)).isEqualTo(0x000000050000000AL);
+    }
+}
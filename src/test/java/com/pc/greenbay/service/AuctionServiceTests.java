@@ -0,0 +1,183 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.Bid;
+import com.pc.greenbay.entity.Item;
+import com.pc.greenbay.entity.Purchase;
+import com.pc.greenbay.entity.User;
+import com.pc.greenbay.exception.NotEnoughMoneyException;
+import com.pc.greenbay.repository.BidRepository;
+import com.pc.greenbay.repository.ItemRepository;
+import com.pc.greenbay.repository.ProxyBidRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class AuctionServiceTests {
+
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private BidRepository bidRepository;
+    @Mock
+    private PurchaseService purchaseService;
+    @Mock
+    private BalanceHoldService balanceHoldService;
+    @Mock
+    private ProxyBidRepository proxyBidRepository;
+    @Mock
+    private BidLockService bidLockService;
+    @Mock
+    private ItemCountService itemCountService;
+    @Mock
+    private ResponseCacheService responseCacheService;
+    @Mock
+    private ItemEventService itemEventService;
+    @Mock
+    private BidService bidService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AuctionServiceImpl auctionService;
+    private Item item;
+    private User bidder;
+
+    @BeforeEach
+    void setup() {
+        auctionService = new AuctionServiceImpl(itemRepository, bidRepository, purchaseService, balanceHoldService,
+                proxyBidRepository, bidLockService, itemCountService, responseCacheService, itemEventService,
+                bidService, transactionManager, 168, 120, 1000, 512, new SimpleMeterRegistry());
+
+        User seller = User.builder()
+                .id(UUID.randomUUID())
+                .username("user1")
+                .balance(100)
+                .build();
+        bidder = User.builder()
+                .id(UUID.randomUUID())
+                .username("user2")
+                .balance(100)
+                .build();
+        item = Item.builder()
+                .id(UUID.randomUUID())
+                .name("Lenovo")
+                .startingPrice(10)
+                .purchasePrice(50)
+                .lastBid(30)
+                .sellable(true)
+                .seller(seller)
+                .endsAt(Instant.now().minusSeconds(1))
+                .build();
+    }
+
+    @AfterEach
+    void cleanup() {
+        auctionService.shutdown();
+    }
+
+    @Test
+    @DisplayName("JUnit test for close auction method selling to the highest bidder")
+    void givenExpiredAuctionWithBids_whenCloseAuction_thenSellToHighestBidder() {
+        given(itemRepository.findItemById(item.getId())).willReturn(Optional.of(item));
+        given(itemRepository.closeAuction(item.getId())).willReturn(1);
+        given(bidRepository.findFirstByItemIdOrderByBidAmountDesc(item.getId())).willReturn(Optional.of(new Bid(item, bidder, 30)));
+
+        auctionService.closeAuction(item.getId());
+
+        verify(bidLockService, times(1)).lockItem(item.getId());
+        verify(purchaseService, times(1)).savePurchase(any(Purchase.class));
+        verify(balanceHoldService, times(1)).settlePurchase(item.getId(), bidder.getId(), 30);
+        verify(proxyBidRepository, times(1)).deleteAllByItemId(item.getId());
+    }
+
+    @Test
+    @DisplayName("JUnit test for close auction method when nobody has bid")
+    void givenExpiredAuctionWithoutBids_whenCloseAuction_thenCloseWithoutSale() {
+        given(itemRepository.findItemById(item.getId())).willReturn(Optional.of(item));
+        given(itemRepository.closeAuction(item.getId())).willReturn(1);
+        given(bidRepository.findFirstByItemIdOrderByBidAmountDesc(item.getId())).willReturn(Optional.empty());
+
+        auctionService.closeAuction(item.getId());
+
+        verify(purchaseService, never()).savePurchase(any(Purchase.class));
+        verify(balanceHoldService, times(1)).releaseHold(item.getId());
+    }
+
+    @Test
+    @DisplayName("JUnit test for close auction method when the highest bidder can no longer pay")
+    void givenHighestBidderWithoutMoney_whenCloseAuction_thenCloseWithoutSale() {
+        given(itemRepository.findItemById(item.getId())).willReturn(Optional.of(item));
+        given(itemRepository.closeAuction(item.getId())).willReturn(1);
+        given(bidRepository.findFirstByItemIdOrderByBidAmountDesc(item.getId())).willReturn(Optional.of(new Bid(item, bidder, 30)));
+        willThrow(new NotEnoughMoneyException("Simulated")).given(balanceHoldService).settlePurchase(item.getId(), bidder.getId(), 30);
+
+        auctionService.closeAuction(item.getId());
+
+        verify(bidRepository, times(1)).findFirstByItemIdOrderByBidAmountDesc(item.getId());
+        verify(balanceHoldService, times(1)).releaseHold(item.getId());
+    }
+
+    @Test
+    @DisplayName("JUnit test for close auction method when the auction has been extended")
+    void givenExtendedAuction_whenCloseAuction_thenScheduleNewEndTime() {
+        item.setEndsAt(Instant.now().plusSeconds(60));
+        given(itemRepository.findItemById(item.getId())).willReturn(Optional.of(item));
+
+        auctionService.closeAuction(item.getId());
+
+        verify(itemRepository, never()).closeAuction(item.getId());
+        assertThat(auctionService.wheel().size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("JUnit test for close auction method while bids on the item are still being applied")
+    void givenBiddingNotStopped_whenCloseAuction_thenRetryLater() {
+        given(bidService.stopBidding(item.getId())).willReturn(Instant.now().plusSeconds(1));
+
+        auctionService.closeAuction(item.getId());
+
+        verify(bidLockService, never()).lockItem(item.getId());
+        verify(itemRepository, never()).closeAuction(item.getId());
+        assertThat(auctionService.wheel().size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("JUnit test for extend if ending soon method on a late bid")
+    void givenLateBid_whenExtendIfEndingSoon_thenPushEndTimeBack() {
+        item.setEndsAt(Instant.now().plusSeconds(10));
+        given(itemRepository.extendAuction(any(UUID.class), any(Instant.class))).willReturn(1);
+
+        auctionService.extendIfEndingSoon(item);
+
+        verify(itemRepository, times(1)).extendAuction(any(UUID.class), any(Instant.class));
+        assertThat(auctionService.wheel().size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("JUnit test for extend if ending soon method on an early bid")
+    void givenEarlyBid_whenExtendIfEndingSoon_thenKeepEndTime() {
+        item.setEndsAt(Instant.now().plusSeconds(3600));
+
+        auctionService.extendIfEndingSoon(item);
+
+        verify(itemRepository, never()).extendAuction(any(UUID.class), any(Instant.class));
+    }
+}
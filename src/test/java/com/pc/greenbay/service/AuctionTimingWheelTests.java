@@ -0,0 +1,83 @@
+package com.pc.greenbay.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuctionTimingWheelTests {
+
+    private static final long START = 1_000_000L;
+    private static final long TICK = 100L;
+
+    private List<UUID> expired;
+    private AuctionTimingWheel wheel;
+
+    @BeforeEach
+    void setup() {
+        expired = new ArrayList<>();
+        wheel = new AuctionTimingWheel(TICK, 8, START, expired::add);
+    }
+
+    @Test
+    @DisplayName("JUnit test for deadline fired after its tick has passed")
+    void givenDeadline_whenAdvance_thenFireNotEarlyAndAtMostOneTickLate() {
+        UUID itemId = UUID.randomUUID();
+        wheel.schedule(itemId, START + 350);
+
+        wheel.advance(START + 350);
+        assertThat(expired).isEmpty();
+
+        wheel.advance(START + 400);
+        assertThat(expired).containsExactly(itemId);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("JUnit test for deadline further away than one turn of the wheel")
+    void givenDistantDeadline_whenAdvance_thenWaitForRemainingRounds() {
+        UUID itemId = UUID.randomUUID();
+        wheel.schedule(itemId, START + 2_050);
+
+        wheel.advance(START + 1_000);
+        assertThat(expired).isEmpty();
+
+        wheel.advance(START + 2_100);
+        assertThat(expired).containsExactly(itemId);
+    }
+
+    @Test
+    @DisplayName("JUnit test for rescheduled and cancelled deadlines")
+    void givenRescheduledAndCancelledDeadlines_whenAdvance_thenFireOnlyLatestDeadline() {
+        UUID extended = UUID.randomUUID();
+        UUID cancelled = UUID.randomUUID();
+        wheel.schedule(extended, START + 150);
+        wheel.schedule(cancelled, START + 150);
+        wheel.schedule(extended, START + 550);
+        wheel.cancel(cancelled);
+
+        wheel.advance(START + 300);
+        assertThat(expired).isEmpty();
+        assertThat(wheel.size()).isEqualTo(1);
+
+        wheel.advance(START + 600);
+        assertThat(expired).containsExactly(extended);
+    }
+
+    @Test
+    @DisplayName("JUnit test for deadline already in the past")
+    void givenPastDeadline_whenAdvance_thenFireOnNextTick() {
+        wheel.advance(START + 500);
+        UUID itemId = UUID.randomUUID();
+        wheel.schedule(itemId, START);
+
+        wheel.advance(START + 600);
+
+        assertThat(expired).containsExactly(itemId);
+    }
+}
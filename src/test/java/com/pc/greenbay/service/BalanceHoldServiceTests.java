@@ -0,0 +1,148 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.BidHold;
+import com.pc.greenbay.exception.NotEnoughMoneyException;
+import com.pc.greenbay.repository.BidHoldRepository;
+import com.pc.greenbay.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class BalanceHoldServiceTests {
+
+    @Mock
+    private BidHoldRepository bidHoldRepository;
+    @Mock
+    private UserRepository userRepository;
+    @InjectMocks
+    private BalanceHoldServiceImpl balanceHoldService;
+
+    private UUID itemId;
+    private UUID bidderId;
+    private UUID previousLeaderId;
+
+    @BeforeEach
+    void setup() {
+        itemId = UUID.randomUUID();
+        bidderId = UUID.randomUUID();
+        previousLeaderId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("JUnit test for first leading bid on an item")
+    void givenNoHold_whenHoldForLeadingBid_thenReserveAndInsertHold() {
+        given(bidHoldRepository.findById(itemId)).willReturn(Optional.empty());
+        given(userRepository.reserve(bidderId, 30)).willReturn(1);
+
+        balanceHoldService.holdForLeadingBid(itemId, bidderId, 30);
+
+        verify(bidHoldRepository, times(1)).insertHold(itemId, bidderId, 30);
+    }
+
+    @Test
+    @DisplayName("JUnit test for outbidding another bidder")
+    void givenOtherLeader_whenHoldForLeadingBid_thenReleasePreviousHold() {
+        given(bidHoldRepository.findById(itemId)).willReturn(Optional.of(new BidHold(itemId, previousLeaderId, 20)));
+        given(userRepository.reserve(bidderId, 30)).willReturn(1);
+
+        balanceHoldService.holdForLeadingBid(itemId, bidderId, 30);
+
+        verify(userRepository, times(1)).release(previousLeaderId, 20);
+        verify(bidHoldRepository, times(1)).updateHold(itemId, bidderId, 30);
+    }
+
+    @Test
+    @DisplayName("JUnit test for raising one's own leading bid")
+    void givenOwnHold_whenHoldForLeadingBid_thenReserveOnlyTheDifference() {
+        given(bidHoldRepository.findById(itemId)).willReturn(Optional.of(new BidHold(itemId, bidderId, 20)));
+        given(userRepository.reserve(bidderId, 10)).willReturn(1);
+
+        balanceHoldService.holdForLeadingBid(itemId, bidderId, 30);
+
+        verify(userRepository, times(0)).release(any(UUID.class), anyDouble());
+        verify(bidHoldRepository, times(1)).updateHold(itemId, bidderId, 30);
+    }
+
+    @Test
+    @DisplayName("JUnit test for leading bid when the available balance is too low")
+    void givenNotEnoughAvailable_whenHoldForLeadingBid_thenThrowNotEnoughMoneyException() {
+        given(bidHoldRepository.findById(itemId)).willReturn(Optional.of(new BidHold(itemId, previousLeaderId, 20)));
+        given(userRepository.reserve(bidderId, 30)).willReturn(0);
+
+        assertThrows(NotEnoughMoneyException.class, () -> balanceHoldService.holdForLeadingBid(itemId, bidderId, 30));
+
+        verify(userRepository, times(0)).release(any(UUID.class), anyDouble());
+        verify(bidHoldRepository, times(0)).updateHold(any(UUID.class), any(UUID.class), any(Integer.class));
+    }
+
+    @Test
+    @DisplayName("JUnit test for purchase by the leading bidder")
+    void givenOwnHold_whenSettlePurchase_thenUseHeldAmount() {
+        given(bidHoldRepository.findById(itemId)).willReturn(Optional.of(new BidHold(itemId, bidderId, 40)));
+        given(userRepository.settle(bidderId, 50, 40)).willReturn(1);
+
+        balanceHoldService.settlePurchase(itemId, bidderId, 50);
+
+        verify(bidHoldRepository, times(1)).deleteHold(itemId);
+    }
+
+    @Test
+    @DisplayName("JUnit test for purchase outbidding another leader")
+    void givenOtherLeader_whenSettlePurchase_thenReleaseOtherHold() {
+        given(bidHoldRepository.findById(itemId)).willReturn(Optional.of(new BidHold(itemId, previousLeaderId, 40)));
+        given(userRepository.settle(bidderId, 50, 0)).willReturn(1);
+
+        balanceHoldService.settlePurchase(itemId, bidderId, 50);
+
+        verify(userRepository, times(1)).release(previousLeaderId, 40);
+        verify(bidHoldRepository, times(1)).deleteHold(itemId);
+    }
+
+    @Test
+    @DisplayName("JUnit test for refused purchase leaving the other leader's hold untouched")
+    void givenNotEnoughAvailable_whenSettlePurchase_thenKeepOtherHold() {
+        given(bidHoldRepository.findById(itemId)).willReturn(Optional.of(new BidHold(itemId, previousLeaderId, 40)));
+        given(userRepository.settle(bidderId, 50, 0)).willReturn(0);
+
+        assertThrows(NotEnoughMoneyException.class, () -> balanceHoldService.settlePurchase(itemId, bidderId, 50));
+
+        verify(userRepository, times(0)).release(any(UUID.class), anyDouble());
+        verify(bidHoldRepository, times(0)).deleteHold(itemId);
+    }
+
+    @Test
+    @DisplayName("JUnit test for available balance")
+    void givenUser_whenGetAvailableBalance_thenReturnCounterValue() {
+        given(userRepository.findAvailableBalanceById(bidderId)).willReturn(Optional.of(60.0));
+
+        assertThat(balanceHoldService.getAvailableBalance(bidderId)).isEqualTo(60.0);
+    }
+
+    @Test
+    @DisplayName("JUnit test for moving a hold whose amount is already reserved")
+    void givenReservedBid_whenMoveReservedHold_thenReleasePreviousHoldWithoutReserving() {
+        given(bidHoldRepository.findById(itemId)).willReturn(Optional.of(new BidHold(itemId, bidderId, 20)));
+
+        balanceHoldService.moveReservedHold(itemId, bidderId, 30);
+
+        verify(userRepository, times(0)).reserve(any(UUID.class), anyDouble());
+        verify(userRepository, times(1)).release(bidderId, 20);
+        verify(bidHoldRepository, times(1)).updateHold(itemId, bidderId, 30);
+    }
+}
@@ -0,0 +1,114 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.Item;
+import com.pc.greenbay.entity.User;
+import com.pc.greenbay.exception.LowBidException;
+import com.pc.greenbay.model.request.BidBatchEntryDTO;
+import com.pc.greenbay.model.response.BidBatchResultDTO;
+import com.pc.greenbay.model.response.BidPlacedResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class BidBatchServiceTests {
+
+    @Mock
+    private BidService bidService;
+    @Mock
+    private ItemService itemService;
+
+    private BidBatchServiceImpl bidBatchService;
+
+    private User seller;
+    private User bidder;
+    private Item item;
+    private Item item2;
+
+    @BeforeEach
+    void setup() {
+        bidBatchService = new BidBatchServiceImpl(bidService, itemService, 100);
+
+        seller = User.builder()
+                .id(UUID.randomUUID())
+                .username("user1")
+                .password("u12345")
+                .balance(100)
+                .roles("ROLE_USER")
+                .build();
+
+        bidder = User.builder()
+                .id(UUID.randomUUID())
+                .username("user2")
+                .password("u23456")
+                .balance(100)
+                .roles("ROLE_USER")
+                .build();
+
+        item = Item.builder()
+                .id(UUID.randomUUID())
+                .name("Lenovo")
+                .description("tablet")
+                .photoURL("/img/green_fox_logo.png")
+                .startingPrice(10)
+                .purchasePrice(50)
+                .lastBid(0)
+                .sellable(true)
+                .seller(seller)
+                .build();
+
+        item2 = Item.builder()
+                .id(UUID.randomUUID())
+                .name("iPhone")
+                .description("mobile phone")
+                .photoURL("/img/green_fox_logo.png")
+                .startingPrice(10)
+                .purchasePrice(50)
+                .lastBid(30)
+                .sellable(true)
+                .seller(seller)
+                .build();
+    }
+
+    @Test
+    @DisplayName("JUnit test for batch of bids with accepted and rejected entries")
+    void givenMixedBids_whenPlaceBids_thenReturnResultPerBid() {
+        UUID missingItemId = UUID.randomUUID();
+        given(itemService.getItemsByIds(Set.of(item.getId(), item2.getId(), missingItemId))).willReturn(List.of(item, item2));
+        given(bidService.placeBid(item, bidder, 20))
+                .willReturn(new BidPlacedResponseDTO("Lenovo", "tablet", "/img/green_fox_logo.png", "user1", 20));
+        given(bidService.placeBid(item2, bidder, 25)).willThrow(new LowBidException("Your bid is too low."));
+
+        List<BidBatchResultDTO> results = bidBatchService.placeBids(bidder, List.of(
+                new BidBatchEntryDTO(item.getId(), 20),
+                new BidBatchEntryDTO(item2.getId(), 25),
+                new BidBatchEntryDTO(missingItemId, 25),
+                new BidBatchEntryDTO(item.getId(), 0)));
+
+        assertThat(results).hasSize(4);
+        assertThat(results.get(0).getStatus()).isEqualTo("placed");
+        assertThat(results.get(0).getResult()).isNotNull();
+        assertThat(results.get(1).getStatus()).isEqualTo("rejected");
+        assertThat(results.get(1).getReason()).isEqualTo("LOW_BID");
+        assertThat(results.get(1).getError()).isEqualTo("Your bid is too low.");
+        assertThat(results.get(2).getReason()).isEqualTo("NOT_FOUND");
+        assertThat(results.get(3).getReason()).isEqualTo("INVALID");
+
+        verify(itemService, times(1)).getItemsByIds(any());
+        verify(bidService, times(2)).placeBid(any(Item.class), any(User.class), anyInt());
+    }
+}
@@ -0,0 +1,177 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.exception.ItemNotSellableException;
+import com.pc.greenbay.exception.LowBidException;
+import com.pc.greenbay.exception.RecordNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BidEngineTests {
+
+    @TempDir
+    Path directory;
+
+    private final UUID itemId = UUID.randomUUID();
+    private final UUID sellerId = UUID.randomUUID();
+    private final UUID bidderId = UUID.randomUUID();
+    private final BlockingQueue<BidJournal.Entry> projected = new LinkedBlockingQueue<>();
+    private BidEngine engine;
+    private BidJournal journal;
+
+    @AfterEach
+    void cleanup() {
+        if (engine != null) {
+            engine.stop();
+        }
+    }
+
+    private BidEngine engine(Duration antiSnipingWindow) throws IOException {
+        journal = new BidJournal(directory.resolve("bids-0.journal"), false);
+        engine = new BidEngine(List.of(journal), new long[]{1}, 16, 8, antiSnipingWindow, Long.MAX_VALUE,
+                (shard, entries) -> projected.addAll(entries));
+        engine.start();
+        return engine;
+    }
+
+    private BidEngine.ItemState snapshot(Instant endsAt) {
+        return new BidEngine.ItemState(itemId, "Lenovo", "tablet", "/img/green_fox_logo.png", sellerId, "seller",
+                10, 50, 0, true, endsAt);
+    }
+
+    private BidEngine.Accepted await(CompletableFuture<BidEngine.Accepted> result) throws Exception {
+        return result.get(2, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("JUnit test for accepted bids being journaled and projected in order")
+    void givenHigherBids_whenSubmit_thenJournalAndProjectInOrder() throws Exception {
+        engine(Duration.ZERO);
+
+        BidEngine.Accepted first = await(engine.submit(itemId, bidderId, 20, snapshot(null)));
+        BidEngine.Accepted second = await(engine.submit(itemId, bidderId, 30, null));
+
+        assertThat(first.entry().sequence()).isEqualTo(1);
+        assertThat(second.entry().sequence()).isEqualTo(2);
+        assertThat(second.item().lastBid()).isEqualTo(30);
+        assertThat(engine.knows(itemId)).isTrue();
+        assertThat(projected.poll(2, TimeUnit.SECONDS)).isEqualTo(first.entry());
+        assertThat(projected.poll(2, TimeUnit.SECONDS)).isEqualTo(second.entry());
+        engine.stop();
+        engine = null;
+        try (BidJournal reopened = new BidJournal(directory.resolve("bids-0.journal"), false)) {
+            assertThat(reopened.replay()).containsExactly(first.entry(), second.entry());
+        }
+    }
+
+    @Test
+    @DisplayName("JUnit test for rejecting a bid not above the last one")
+    void givenLowerBid_whenSubmit_thenRejectWithoutJournaling() throws Exception {
+        engine(Duration.ZERO);
+        await(engine.submit(itemId, bidderId, 30, snapshot(null)));
+
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+                () -> await(engine.submit(itemId, UUID.randomUUID(), 30, null)));
+
+        assertThat(rejected.getCause()).isInstanceOf(LowBidException.class);
+        assertThat(journal.size()).isEqualTo(BidJournal.RECORD_SIZE);
+    }
+
+    @Test
+    @DisplayName("JUnit test for a purchase closing the item in the engine")
+    void givenPurchasePriceBid_whenSubmit_thenLaterBidsAreRejected() throws Exception {
+        engine(Duration.ZERO);
+
+        BidEngine.Accepted bought = await(engine.submit(itemId, bidderId, 50, snapshot(null)));
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+                () -> await(engine.submit(itemId, UUID.randomUUID(), 60, null)));
+
+        assertThat(bought.entry().purchase()).isTrue();
+        assertThat(bought.item().sellable()).isFalse();
+        assertThat(rejected.getCause()).isInstanceOf(ItemNotSellableException.class);
+    }
+
+    @Test
+    @DisplayName("JUnit test for a close rejecting the bids queued after it")
+    void givenEndedAuction_whenClose_thenLaterBidsAreRejected() throws Exception {
+        engine(Duration.ZERO);
+        BidEngine.Accepted bid = await(engine.submit(itemId, bidderId, 20, snapshot(Instant.now().plusMillis(200))));
+        Thread.sleep(300);
+
+        BidEngine.Accepted closed = await(engine.close(itemId, null));
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+                () -> await(engine.submit(itemId, UUID.randomUUID(), 30, null)));
+
+        assertThat(closed.entry()).isNull();
+        assertThat(closed.item().sellable()).isFalse();
+        assertThat(closed.item().lastBid()).isEqualTo(20);
+        assertThat(engine.lastSequence(itemId)).isEqualTo(bid.entry().sequence());
+        assertThat(rejected.getCause()).isInstanceOf(ItemNotSellableException.class);
+    }
+
+    @Test
+    @DisplayName("JUnit test for a close keeping an auction a bid has extended open")
+    void givenExtendedAuction_whenClose_thenItemStaysSellable() throws Exception {
+        engine(Duration.ofMinutes(2));
+        await(engine.submit(itemId, bidderId, 20, snapshot(Instant.now().plusSeconds(1))));
+
+        BidEngine.Accepted closed = await(engine.close(itemId, null));
+
+        assertThat(closed.item().sellable()).isTrue();
+        assertThat(closed.item().endsAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    @DisplayName("JUnit test for extending an auction bid on shortly before its end")
+    void givenAuctionEndingSoon_whenSubmit_thenExtendEnd() throws Exception {
+        engine(Duration.ofMinutes(2));
+        Instant endsAt = Instant.now().plusSeconds(10);
+
+        BidEngine.Accepted accepted = await(engine.submit(itemId, bidderId, 20, snapshot(endsAt)));
+
+        assertThat(accepted.item().endsAt()).isAfter(endsAt.plusSeconds(100));
+    }
+
+    @Test
+    @DisplayName("JUnit test for a bid on an item the engine cannot load")
+    void givenUnknownItemWithoutSnapshot_whenSubmit_thenNotFound() throws Exception {
+        engine(Duration.ZERO);
+
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+                () -> await(engine.submit(itemId, bidderId, 20, null)));
+
+        assertThat(rejected.getCause()).isInstanceOf(RecordNotFoundException.class);
+        assertThat(engine.knows(itemId)).isFalse();
+    }
+
+    @Test
+    @DisplayName("JUnit test for dropping a sold item once its purchase is projected")
+    void givenProjectedPurchase_whenEngineCatchesUp_thenItemIsLoadedAgain() throws Exception {
+        engine(Duration.ZERO);
+        BidEngine.Accepted bought = await(engine.submit(itemId, bidderId, 50, snapshot(null)));
+        assertThat(engine.knows(itemId)).isTrue();
+
+        engine.projected(0, bought.entry().sequence());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (engine.knows(itemId) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+                () -> await(engine.submit(itemId, UUID.randomUUID(), 60, bought.item())));
+
+        assertThat(rejected.getCause()).isInstanceOf(ItemNotSellableException.class);
+        assertThat(engine.knows(itemId)).isFalse();
+    }
+}
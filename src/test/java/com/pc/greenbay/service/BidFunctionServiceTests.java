@@ -0,0 +1,121 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.BidHold;
+import com.pc.greenbay.entity.Item;
+import com.pc.greenbay.entity.User;
+import com.pc.greenbay.model.BidPlacement;
+import com.pc.greenbay.model.BidPlacementStatus;
+import com.pc.greenbay.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(BidFunctionServiceImpl.class)
+@TestPropertySource(properties = "greenbay.bid.placement=function")
+public class BidFunctionServiceTests {
+
+    @Autowired
+    private BidFunctionServiceImpl bidFunctionService;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BidRepository bidRepository;
+    @Autowired
+    private BidHoldRepository bidHoldRepository;
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    private User seller;
+    private User bidder;
+    private Item item;
+
+    @BeforeEach
+    void setup() {
+        seller = userRepository.save(user("seller", 100));
+        bidder = userRepository.save(user("bidder", 100));
+        item = itemRepository.save(Item.builder()
+                .name("Lenovo")
+                .description("tablet")
+                .photoURL("/img/green_fox_logo.png")
+                .startingPrice(10)
+                .purchasePrice(50)
+                .lastBid(0)
+                .sellable(true)
+                .seller(seller)
+                .build());
+        entityManager.flush();
+    }
+
+    private User user(String username, double balance) {
+        return User.builder()
+                .username(username)
+                .password("u12345")
+                .balance(balance)
+                .roles("ROLE_USER")
+                .build();
+    }
+
+    @Test
+    @DisplayName("JUnit test for placing a leading bid with the JDBC fallback of place_bid")
+    void givenHigherBid_whenPlaceBid_thenWriteBidAndHold() {
+        BidPlacement placement = bidFunctionService.placeBid(item.getId(), bidder.getId(), 30);
+        entityManager.clear();
+
+        assertThat(placement.getStatus()).isEqualTo(BidPlacementStatus.PLACED);
+        assertThat(placement.getItemName()).isEqualTo("Lenovo");
+        assertThat(placement.getSellerName()).isEqualTo("seller");
+        assertThat(itemRepository.findItemById(item.getId()).orElseThrow().getLastBid()).isEqualTo(30);
+        assertThat(bidRepository.findAllByItem(item)).hasSize(1);
+        BidHold hold = bidHoldRepository.findById(item.getId()).orElseThrow();
+        assertThat(hold.getUserId()).isEqualTo(bidder.getId());
+        assertThat(hold.getAmount()).isEqualTo(30);
+        assertThat(userRepository.findAvailableBalanceById(bidder.getId())).contains(70.0);
+    }
+
+    @Test
+    @DisplayName("JUnit test for outbidding and buying with the JDBC fallback of place_bid")
+    void givenPurchasePriceBid_whenPlaceBid_thenSettleAndReleasePreviousHold() {
+        User rival = userRepository.save(user("rival", 100));
+        entityManager.flush();
+        bidFunctionService.placeBid(item.getId(), rival.getId(), 30);
+
+        BidPlacement placement = bidFunctionService.placeBid(item.getId(), bidder.getId(), 50);
+        entityManager.clear();
+
+        assertThat(placement.getStatus()).isEqualTo(BidPlacementStatus.BOUGHT);
+        assertThat(placement.getBuyerName()).isEqualTo("bidder");
+        assertThat(itemRepository.findItemById(item.getId()).orElseThrow().isSellable()).isFalse();
+        assertThat(purchaseRepository.findAll()).hasSize(1);
+        assertThat(bidHoldRepository.findById(item.getId())).isEmpty();
+        assertThat(userRepository.findAvailableBalanceById(rival.getId())).contains(100.0);
+        assertThat(userRepository.findById(bidder.getId()).orElseThrow().getBalance()).isEqualTo(50.0);
+    }
+
+    @Test
+    @DisplayName("JUnit test for rejections of the JDBC fallback of place_bid leaving the data untouched")
+    void givenInvalidBids_whenPlaceBid_thenReturnStatusWithoutWrites() {
+        User poor = userRepository.save(user("poor", 20));
+        entityManager.flush();
+
+        assertThat(bidFunctionService.placeBid(item.getId(), seller.getId(), 30).getStatus()).isEqualTo(BidPlacementStatus.OWN_ITEM);
+        assertThat(bidFunctionService.placeBid(item.getId(), bidder.getId(), 5).getStatus()).isEqualTo(BidPlacementStatus.LOW_BID);
+        assertThat(bidFunctionService.placeBid(item.getId(), poor.getId(), 30).getStatus()).isEqualTo(BidPlacementStatus.NOT_ENOUGH_MONEY);
+        assertThat(bidFunctionService.placeBid(seller.getId(), bidder.getId(), 30).getStatus()).isEqualTo(BidPlacementStatus.NOT_FOUND);
+        entityManager.clear();
+
+        assertThat(bidRepository.findAllByItem(item)).isEmpty();
+        assertThat(itemRepository.findItemById(item.getId()).orElseThrow().getLastBid()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,76 @@
+package com.pc.greenbay.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BidJournalTests {
+
+    @TempDir
+    Path directory;
+
+    private final UUID itemId = UUID.randomUUID();
+    private final UUID bidderId = UUID.randomUUID();
+
+    @Test
+    @DisplayName("JUnit test for replaying appended journal entries")
+    void givenAppendedEntries_whenReplay_thenReturnThemInOrder() throws IOException {
+        Path file = directory.resolve("bids-0.journal");
+        List<BidJournal.Entry> entries = List.of(
+                new BidJournal.Entry(1, 1000, itemId, bidderId, 20, false),
+                new BidJournal.Entry(2, 1001, itemId, bidderId, 50, true));
+        try (BidJournal journal = new BidJournal(file, false)) {
+            journal.append(entries);
+        }
+
+        try (BidJournal journal = new BidJournal(file, false)) {
+            assertThat(journal.replay()).containsExactlyElementsOf(entries);
+        }
+    }
+
+    @Test
+    @DisplayName("JUnit test for cutting off a torn journal entry on replay")
+    void givenTornLastEntry_whenReplay_thenDropItAndTruncate() throws IOException {
+        Path file = directory.resolve("bids-0.journal");
+        BidJournal.Entry first = new BidJournal.Entry(1, 1000, itemId, bidderId, 20, false);
+        try (BidJournal journal = new BidJournal(file, false)) {
+            journal.append(List.of(first, new BidJournal.Entry(2, 1001, itemId, bidderId, 30, false)));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(BidJournal.RECORD_SIZE * 2L - 5);
+        }
+
+        try (BidJournal journal = new BidJournal(file, false)) {
+            assertThat(journal.replay()).containsExactly(first);
+            journal.append(List.of(new BidJournal.Entry(2, 1002, itemId, bidderId, 40, false)));
+        }
+
+        assertThat(Files.size(file)).isEqualTo(BidJournal.RECORD_SIZE * 2L);
+    }
+
+    @Test
+    @DisplayName("JUnit test for rejecting a corrupted journal entry on replay")
+    void givenCorruptedEntry_whenReplay_thenStopBeforeIt() throws IOException {
+        Path file = directory.resolve("bids-0.journal");
+        try (BidJournal journal = new BidJournal(file, false)) {
+            journal.append(List.of(new BidJournal.Entry(1, 1000, itemId, bidderId, 20, false)));
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[20] ^= 1;
+        Files.write(file, bytes);
+
+        try (BidJournal journal = new BidJournal(file, false)) {
+            assertThat(journal.replay()).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.exception.BidLockTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BidLockServiceTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BidLockServiceImpl bidLockService;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        bidLockService = new BidLockServiceImpl(10, 50, meterRegistry);
+    }
+
+    @AfterEach
+    void cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("JUnit test for stripe count rounded up to a power of two")
+    void givenStripeCount_whenCreated_thenRoundUpToPowerOfTwo() {
+        assertThat(bidLockService.stripeCount()).isEqualTo(16);
+        assertThat(new BidLockServiceImpl(1, 50, meterRegistry).stripeCount()).isEqualTo(1);
+        assertThat(new BidLockServiceImpl(64, 50, meterRegistry).stripeCount()).isEqualTo(64);
+    }
+
+    @Test
+    @DisplayName("JUnit test for lock item method without a transaction")
+    void givenNoTransaction_whenLockItem_thenThrowIllegalStateException() {
+        assertThrows(IllegalStateException.class, () -> bidLockService.lockItem(UUID.randomUUID()));
+    }
+
+    @Test
+    @DisplayName("JUnit test for lock released after the transaction completes")
+    void givenLockedItem_whenTransactionCompletes_thenLockIsReleased() throws Exception {
+        UUID itemId = UUID.randomUUID();
+
+        TransactionSynchronizationManager.initSynchronization();
+        bidLockService.lockItem(itemId);
+
+        assertThat(lockFromOtherThread(itemId)).isFalse();
+        assertThat(meterRegistry.counter("greenbay.bid.lock.timeouts").count()).isEqualTo(1);
+
+        completeTransaction();
+
+        assertThat(lockFromOtherThread(itemId)).isTrue();
+    }
+
+    @Test
+    @DisplayName("JUnit test for lock item method when the item is busy")
+    void givenItemLockedElsewhere_whenLockItem_thenThrowBidLockTimeoutException() throws Exception {
+        UUID itemId = UUID.randomUUID();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                TransactionSynchronizationManager.initSynchronization();
+                bidLockService.lockItem(itemId);
+                locked.countDown();
+                release.await();
+                completeTransaction();
+                return null;
+            });
+            assertThat(locked.await(1, TimeUnit.SECONDS)).isTrue();
+
+            TransactionSynchronizationManager.initSynchronization();
+            BidLockTimeoutException exception = assertThrows(BidLockTimeoutException.class, () -> bidLockService.lockItem(itemId));
+
+            assertThat(exception.getMessage()).isEqualTo("The item is busy, please try again.");
+            assertThat(meterRegistry.timer("greenbay.bid.lock.wait").count()).isEqualTo(2);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private boolean lockFromOtherThread(UUID itemId) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(() -> {
+                TransactionSynchronizationManager.initSynchronization();
+                try {
+                    bidLockService.lockItem(itemId);
+                    completeTransaction();
+                    return true;
+                } catch (BidLockTimeoutException e) {
+                    TransactionSynchronizationManager.clearSynchronization();
+                    return false;
+                }
+            }).get(1, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void completeTransaction() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
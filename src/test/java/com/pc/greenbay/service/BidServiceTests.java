@@ -3,12 +3,17 @@ package com.pc.greenbay.service;
 import com.pc.greenbay.exception.*;
 import com.pc.greenbay.entity.Bid;
 import com.pc.greenbay.entity.Item;
+import com.pc.greenbay.entity.ProxyBid;
 import com.pc.greenbay.entity.Purchase;
+import com.pc.greenbay.model.BidPlacement;
+import com.pc.greenbay.model.BidPlacementStatus;
+import com.pc.greenbay.model.response.BidCommonResponseDTO;
 import com.pc.greenbay.model.response.BidListDTO;
 import com.pc.greenbay.model.response.BidPlacedResponseDTO;
 import com.pc.greenbay.model.response.ItemBoughtResponseDTO;
 import com.pc.greenbay.entity.User;
 import com.pc.greenbay.repository.BidRepository;
+import com.pc.greenbay.repository.ProxyBidRepository;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -19,6 +24,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataAccessException;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,7 +32,11 @@ import java.util.UUID;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -41,6 +51,26 @@ public class BidServiceTests {
     private PurchaseService purchaseService;
     @Mock
     private UserService userService;
+    @Mock
+    private BidLockService bidLockService;
+    @Mock
+    private BalanceHoldService balanceHoldService;
+    @Mock
+    private BidWriterService bidWriterService;
+    @Mock
+    private ProxyBidRepository proxyBidRepository;
+    @Mock
+    private AuctionService auctionService;
+    @Mock
+    private BidFunctionService bidFunctionService;
+    @Mock
+    private HighestBidCacheService highestBidCacheService;
+    @Mock
+    private ItemCountService itemCountService;
+    @Mock
+    private ResponseCacheService responseCacheService;
+    @Mock
+    private ItemEventService itemEventService;
     @InjectMocks
     private BidServiceImpl bidService;
 
@@ -196,6 +226,18 @@ public class BidServiceTests {
         verify(itemService, times(1)).getItemById(item.getId());
     }
 
+    @Test
+    @DisplayName("JUnit test for place bid method when the highest bid cache already rules the bid out")
+    void givenCachedHigherBid_whenPlaceBid_thenThrowLowBidWithoutLoadingItem() throws Exception {
+
+        willThrow(new LowBidException("Your bid is too low.")).given(highestBidCacheService).checkBid(item.getId(), bidder.getId(), 11);
+
+        assertThrows(LowBidException.class, () -> bidService.placeBid(item.getId(), bidder, 11));
+
+        verify(bidLockService, never()).lockItem(any());
+        verify(itemService, never()).getItemById(any());
+    }
+
     @Test
     @DisplayName("JUnit test for place new bid method")
     void givenValidInput_whenPlaceBid_thenSaveBidObjectAndReturnDTO() throws Exception {
@@ -211,6 +253,7 @@ public class BidServiceTests {
                 .build();
 
         given(itemService.getItemById(item.getId())).willReturn(item);
+        given(itemService.raiseLastBid(item.getId(), bidAmount, false)).willReturn(BidUpdateOutcome.APPLIED);
 
         BidPlacedResponseDTO bidPlacedResponseDTO = null;
         bidPlacedResponseDTO = (BidPlacedResponseDTO) bidService.placeBid(item.getId(), bidder, bidAmount);
@@ -221,8 +264,9 @@ public class BidServiceTests {
         assertThat(bidPlacedResponseDTO.getSellerUsername()).isEqualTo(item.getSeller().getUsername());
 
         verify(itemService, times(1)).getItemById(item.getId());
-        verify(itemService, times(1)).saveLastBid(item, bidAmount);
-        verify(bidRepository, times(1)).save(any(Bid.class));
+        verify(itemService, times(1)).raiseLastBid(item.getId(), bidAmount, false);
+        verify(balanceHoldService, times(1)).holdForLeadingBid(item.getId(), bidder.getId(), bidAmount);
+        verify(bidWriterService, times(1)).writeBid(any(Bid.class));
     }
 
     @Test
@@ -240,8 +284,9 @@ public class BidServiceTests {
                 .build();
 
         given(itemService.getItemById(item.getId())).willReturn(item);
-        given(bidRepository.save(any(Bid.class))).willThrow(new DataAccessException("Simulated database failure") {
-        });
+        given(itemService.raiseLastBid(item.getId(), bidAmount, false)).willReturn(BidUpdateOutcome.APPLIED);
+        willThrow(new DataAccessException("Simulated database failure") {
+        }).given(bidWriterService).writeBid(any(Bid.class));
 
         DataAccessException exception = assertThrows(DataAccessException.class, () -> {
             bidService.placeBid(item.getId(), bidder, bidAmount);
@@ -251,7 +296,7 @@ public class BidServiceTests {
         assertThat(exception.getMessage()).isEqualTo("Database error occurred while placing your bid. The operation has failed.");
 
         verify(itemService, times(1)).getItemById(item.getId());
-        verify(bidRepository, times(1)).save(any(Bid.class));
+        verify(bidWriterService, times(1)).writeBid(any(Bid.class));
     }
 
     @Test
@@ -279,6 +324,7 @@ public class BidServiceTests {
                 .build();
 
         given(itemService.getItemById(itemId)).willReturn(item);
+        given(itemService.raiseLastBid(itemId, bidAmount, true)).willReturn(BidUpdateOutcome.APPLIED);
 
         ItemBoughtResponseDTO itemBoughtResponseDTO = null;
         itemBoughtResponseDTO = (ItemBoughtResponseDTO) bidService.placeBid(itemId, bidder, bidAmount);
@@ -290,11 +336,11 @@ public class BidServiceTests {
         assertThat(itemBoughtResponseDTO.getBuyerUsername()).isEqualTo(bidder.getUsername());
 
         verify(itemService, times(1)).getItemById(itemId);
-        verify(itemService, times(1)).saveLastBid(item, bidAmount);
-        verify(itemService, times(1)).makeNotSellable(item);
-        verify(bidRepository, times(1)).save(any(Bid.class));
+        verify(itemService, times(1)).raiseLastBid(itemId, bidAmount, true);
+        verify(bidWriterService, times(1)).writeBid(any(Bid.class));
         verify(purchaseService, times(1)).savePurchase(any(Purchase.class));
-        verify(userService, times(1)).saveUser(any(User.class));
+        verify(balanceHoldService, times(1)).settlePurchase(itemId, bidder.getId(), bidAmount);
+        verify(userService, times(0)).saveUser(any(User.class));
     }
 
     @Test
@@ -321,6 +367,7 @@ public class BidServiceTests {
                 .build();
 
         given(itemService.getItemById(item.getId())).willReturn(item);
+        given(itemService.raiseLastBid(item.getId(), bidAmount, true)).willReturn(BidUpdateOutcome.APPLIED);
         given(purchaseService.savePurchase(any(Purchase.class))).willThrow(new DataAccessException("Simulated database failure") {
         });
 
@@ -332,13 +379,69 @@ public class BidServiceTests {
         assertThat(exception.getMessage()).isEqualTo("Database error occurred while saving your purchase. The operation has failed.");
 
         verify(itemService, times(1)).getItemById(item.getId());
-        verify(itemService, times(1)).saveLastBid(item, bidAmount);
-        verify(itemService, times(1)).makeNotSellable(item);
-        verify(bidRepository, times(1)).save(any(Bid.class));
+        verify(itemService, times(1)).raiseLastBid(item.getId(), bidAmount, true);
+        verify(bidWriterService, times(1)).writeBid(any(Bid.class));
         verify(purchaseService, times(1)).savePurchase(any(Purchase.class));
+        verify(balanceHoldService, times(1)).settlePurchase(item.getId(), bidder.getId(), bidAmount);
         verify(userService, times(0)).saveUser(any(User.class));
     }
 
+    @Test
+    @DisplayName("JUnit test for place bid method when a concurrent bid was higher")
+    void givenConcurrentHigherBid_whenPlaceBid_thenThrowLowBidException() throws Exception {
+
+        item.setLastBid(20);
+        int bidAmount = 25;
+
+        given(itemService.getItemById(item.getId())).willReturn(item);
+        given(itemService.raiseLastBid(item.getId(), bidAmount, false)).willReturn(BidUpdateOutcome.OUTBID);
+
+        LowBidException exception = assertThrows(LowBidException.class, () -> {
+            bidService.placeBid(item.getId(), bidder, bidAmount);
+        });
+
+        assertThat(exception.getMessage()).isEqualTo("Your bid is too low.");
+        verify(bidWriterService, times(0)).writeBid(any(Bid.class));
+    }
+
+    @Test
+    @DisplayName("JUnit test for place bid method when the item was sold concurrently")
+    void givenConcurrentPurchase_whenPlaceBid_thenThrowNotSellableException() throws Exception {
+
+        item.setLastBid(20);
+        int bidAmount = 51;
+
+        given(itemService.getItemById(item.getId())).willReturn(item);
+        given(itemService.raiseLastBid(item.getId(), bidAmount, true)).willReturn(BidUpdateOutcome.NOT_SELLABLE);
+
+        ItemNotSellableException exception = assertThrows(ItemNotSellableException.class, () -> {
+            bidService.placeBid(item.getId(), bidder, bidAmount);
+        });
+
+        assertThat(exception.getMessage()).isEqualTo("Item is not sellable.");
+        verify(purchaseService, times(0)).savePurchase(any(Purchase.class));
+        verify(userService, times(0)).saveUser(any(User.class));
+    }
+
+    @Test
+    @DisplayName("JUnit test for place bid method when the balance is reserved by other leading bids")
+    void givenReservedBalance_whenPlaceBid_thenThrowNotEnoughMoneyException() throws Exception {
+
+        item.setLastBid(20);
+        int bidAmount = 25;
+
+        given(itemService.getItemById(item.getId())).willReturn(item);
+        willThrow(new NotEnoughMoneyException("You have not enough available greenBay dollars, part of your balance is reserved by your leading bids."))
+                .given(balanceHoldService).holdForLeadingBid(item.getId(), bidder.getId(), bidAmount);
+
+        assertThrows(NotEnoughMoneyException.class, () -> {
+            bidService.placeBid(item.getId(), bidder, bidAmount);
+        });
+
+        verify(itemService, times(0)).raiseLastBid(item.getId(), bidAmount, false);
+        verify(bidWriterService, times(0)).writeBid(any(Bid.class));
+    }
+
     @Test
     @DisplayName("JUnit test for find bids by item method")
     void givenItemObject_whenFindBidsByItem_thenReturnDTOList() throws Exception {
@@ -366,9 +469,11 @@ public class BidServiceTests {
                 .bidAmount(40)
                 .build();
 
-        List<Bid> bidList = List.of(bid1, bid2, bid3);
+        List<BidListDTO> bidList = List.of(bid1, bid2, bid3).stream()
+                .map(bid -> new BidListDTO(bid.getId(), bid.getBidder().getUsername(), bid.getBidAmount()))
+                .toList();
 
-        given(bidRepository.findAllByItem(item)).willReturn(bidList);
+        given(bidRepository.findBidListByItemId(item.getId())).willReturn(bidList);
 
         List<BidListDTO> bidListDTOList = null;
         bidListDTOList = bidService.findBidsByItem(item);
@@ -379,4 +484,119 @@ public class BidServiceTests {
         assertThat(bidListDTOList.get(1).getBidAmount()).isEqualTo(30);
         assertThat(bidListDTOList.get(2).getBidAmount()).isEqualTo(40);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("JUnit test for place bid method when a proxy outbids the new bid")
+    void givenCompetingProxy_whenPlaceBid_thenProxyBidsOneAbove() {
+        item.setLastBid(20);
+        int bidAmount = 25;
+        User rival = User.builder()
+                .id(UUID.randomUUID())
+                .username("user3")
+                .balance(100)
+                .build();
+        ProxyBid rivalProxy = new ProxyBid(item, rival, 40);
+
+        given(itemService.getItemById(item.getId())).willReturn(item);
+        given(itemService.raiseLastBid(item.getId(), bidAmount, false)).willReturn(BidUpdateOutcome.APPLIED);
+        given(itemService.raiseLastBid(item.getId(), bidAmount + 1, false)).willReturn(BidUpdateOutcome.APPLIED);
+        given(proxyBidRepository.findAllWithBidderByItemId(item.getId())).willReturn(List.of(rivalProxy));
+        given(balanceHoldService.getAvailableBalance(rival.getId())).willReturn(100.0);
+
+        BidPlacedResponseDTO response = (BidPlacedResponseDTO) bidService.placeBid(item.getId(), bidder, bidAmount);
+
+        assertThat(response.getBidAmount()).isEqualTo(bidAmount);
+        verify(balanceHoldService, times(1)).holdForLeadingBid(item.getId(), bidder.getId(), bidAmount);
+        verify(balanceHoldService, times(1)).holdForLeadingBid(item.getId(), rival.getId(), bidAmount + 1);
+        verify(bidWriterService, times(2)).writeBid(any(Bid.class));
+    }
+
+    @Test
+    @DisplayName("JUnit test for place bid method when the outbidding proxy cannot pay its step")
+    void givenProxyWithoutMoney_whenPlaceBid_thenSkipProxyAndKeepBid() {
+        item.setLastBid(20);
+        int bidAmount = 25;
+        User rival = User.builder()
+                .id(UUID.randomUUID())
+                .username("user3")
+                .balance(100)
+                .build();
+        ProxyBid rivalProxy = new ProxyBid(item, rival, 40);
+
+        given(itemService.getItemById(item.getId())).willReturn(item);
+        given(itemService.raiseLastBid(item.getId(), bidAmount, false)).willReturn(BidUpdateOutcome.APPLIED);
+        given(proxyBidRepository.findAllWithBidderByItemId(item.getId())).willReturn(List.of(rivalProxy));
+        given(balanceHoldService.getAvailableBalance(rival.getId())).willReturn(100.0);
+        willAnswer(invocation -> {
+            if(rival.getId().equals(invocation.getArgument(1))) {
+                throw new NotEnoughMoneyException("Reserved elsewhere in the meantime.");
+            }
+            return null;
+        }).given(balanceHoldService).holdForLeadingBid(any(UUID.class), any(UUID.class), anyInt());
+
+        BidPlacedResponseDTO response = (BidPlacedResponseDTO) bidService.placeBid(item.getId(), bidder, bidAmount);
+
+        assertThat(response.getBidAmount()).isEqualTo(bidAmount);
+        verify(itemService, never()).raiseLastBid(item.getId(), bidAmount + 1, false);
+        verify(bidWriterService, times(1)).writeBid(any(Bid.class));
+    }
+
+    @Test
+    @DisplayName("JUnit test for place proxy bid method when the maximum is too low")
+    void givenMaximumBelowLastBid_whenPlaceProxyBid_thenThrowLowBidException() {
+        item.setLastBid(20);
+
+        given(itemService.getItemById(item.getId())).willReturn(item);
+
+        LowBidException exception = assertThrows(LowBidException.class, () -> {
+            bidService.placeProxyBid(item.getId(), bidder, 20);
+        });
+
+        assertThat(exception.getMessage()).isEqualTo("Your bid is too low.");
+        verify(proxyBidRepository, times(0)).save(any(ProxyBid.class));
+    }
+
+    @Test
+    @DisplayName("JUnit test for place bid method when the auction has ended")
+    void givenEndedAuction_whenPlaceBid_thenThrowItemNotSellableException() {
+        item.setEndsAt(Instant.now().minusSeconds(1));
+
+        given(itemService.getItemById(item.getId())).willReturn(item);
+
+        ItemNotSellableException exception = assertThrows(ItemNotSellableException.class, () -> {
+            bidService.placeBid(item.getId(), bidder, 25);
+        });
+
+        assertThat(exception.getMessage()).isEqualTo("Auction has ended.");
+        verify(itemService, times(0)).raiseLastBid(item.getId(), 25, false);
+    }
+
+    @Test
+    @DisplayName("JUnit test for place bid method with the place_bid function")
+    void givenFunctionPlacement_whenPlaceBid_thenReturnPlacedBidWithoutLoadingItem() {
+        Instant extendedEnd = Instant.now().plusSeconds(120);
+        given(bidFunctionService.isEnabled()).willReturn(true);
+        given(bidFunctionService.placeBid(item.getId(), bidder.getId(), 30)).willReturn(new BidPlacement(BidPlacementStatus.PLACED,
+                "Lenovo", "tablet", "/img/green_fox_logo.png", "user1", null, extendedEnd, false));
+
+        BidCommonResponseDTO response = bidService.placeBid(item.getId(), bidder, 30);
+
+        assertThat(response).isInstanceOf(BidPlacedResponseDTO.class);
+        assertThat(((BidPlacedResponseDTO) response).getBidAmount()).isEqualTo(30);
+        verify(bidLockService, times(1)).lockItem(item.getId());
+        verify(auctionService, times(1)).scheduleClose(item.getId(), extendedEnd);
+        verify(itemService, never()).getItemById(any(UUID.class));
+        verify(bidWriterService, never()).writeBid(any(Bid.class));
+    }
+
+    @Test
+    @DisplayName("JUnit test for place bid method with the place_bid function rejecting the bid")
+    void givenFunctionPlacementRejected_whenPlaceBid_thenThrowMatchingException() {
+        given(bidFunctionService.isEnabled()).willReturn(true);
+        given(bidFunctionService.placeBid(item.getId(), bidder.getId(), 5)).willReturn(new BidPlacement(BidPlacementStatus.LOW_BID,
+                "Lenovo", "tablet", "/img/green_fox_logo.png", "user1", null, null, false));
+
+        assertThrows(LowBidException.class, () -> bidService.placeBid(item.getId(), bidder, 5));
+        verify(auctionService, never()).cancelClose(any(UUID.class));
+    }
+}
@@ -0,0 +1,117 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.User;
+import com.pc.greenbay.exception.BidQueueFullException;
+import com.pc.greenbay.exception.LowBidException;
+import com.pc.greenbay.model.response.BidPlacedResponseDTO;
+import com.pc.greenbay.model.response.BidTicketDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class BidTicketServiceTests {
+
+    @Mock
+    private BidService bidService;
+
+    private BidTicketServiceImpl bidTicketService;
+    private User bidder;
+    private UUID itemId;
+
+    @BeforeEach
+    void setup() {
+        bidTicketService = new BidTicketServiceImpl(bidService, 1, 1, 300, new SimpleMeterRegistry());
+        bidder = User.builder()
+                .id(UUID.randomUUID())
+                .username("user2")
+                .password("u23456")
+                .balance(100)
+                .roles("ROLE_USER")
+                .build();
+        itemId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void cleanup() {
+        bidTicketService.shutdown();
+    }
+
+    @Test
+    @DisplayName("JUnit test for asynchronous bid that is placed")
+    void givenValidBid_whenSubmitBid_thenTicketIsAccepted() throws Exception {
+        given(bidService.placeBid(itemId, bidder, 25))
+                .willReturn(new BidPlacedResponseDTO("Lenovo", "tablet", "/img/green_fox_logo.png", "user1", 25));
+
+        BidTicketDTO submitted = bidTicketService.submitBid(itemId, bidder, 25);
+        BidTicketDTO done = bidTicketService.awaitTicket(submitted.getTicketId(), "user2", 2000).orElseThrow()
+                .get(3, TimeUnit.SECONDS);
+
+        assertThat(done.getStatus()).isEqualTo("ACCEPTED");
+        assertThat(done.getResult()).isInstanceOf(BidPlacedResponseDTO.class);
+    }
+
+    @Test
+    @DisplayName("JUnit test for asynchronous bid that is too low")
+    void givenLowBid_whenSubmitBid_thenTicketIsRejected() throws Exception {
+        given(bidService.placeBid(itemId, bidder, 5)).willThrow(new LowBidException("Your bid is too low."));
+
+        BidTicketDTO submitted = bidTicketService.submitBid(itemId, bidder, 5);
+        BidTicketDTO done = bidTicketService.awaitTicket(submitted.getTicketId(), "user2", 2000).orElseThrow()
+                .get(3, TimeUnit.SECONDS);
+
+        assertThat(done.getStatus()).isEqualTo("REJECTED");
+        assertThat(done.getReason()).isEqualTo("LOW_BID");
+        assertThat(done.getError()).isEqualTo("Your bid is too low.");
+    }
+
+    @Test
+    @DisplayName("JUnit test for ticket requested by another user")
+    void givenOtherUser_whenFindTicket_thenReturnEmpty() throws Exception {
+        given(bidService.placeBid(itemId, bidder, 25)).willThrow(new LowBidException("Your bid is too low."));
+
+        BidTicketDTO submitted = bidTicketService.submitBid(itemId, bidder, 25);
+        bidTicketService.awaitTicket(submitted.getTicketId(), "user2", 2000).orElseThrow().get(3, TimeUnit.SECONDS);
+
+        assertThat(bidTicketService.findTicket(submitted.getTicketId(), "user3")).isEmpty();
+        assertThat(bidTicketService.findTicket(submitted.getTicketId(), "user2")).isPresent();
+    }
+
+    @Test
+    @DisplayName("JUnit test for asynchronous bid when the queue is full")
+    void givenFullQueue_whenSubmitBid_thenThrowBidQueueFullException() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(bidService.placeBid(itemId, bidder, 25)).willAnswer(invocation -> {
+            started.countDown();
+            release.await(2, TimeUnit.SECONDS);
+            throw new LowBidException("Your bid is too low.");
+        });
+
+        try {
+            bidTicketService.submitBid(itemId, bidder, 25);
+            assertThat(started.await(2, TimeUnit.SECONDS)).isTrue();
+            bidTicketService.submitBid(itemId, bidder, 25);
+
+            BidQueueFullException exception = assertThrows(BidQueueFullException.class,
+                    () -> bidTicketService.submitBid(itemId, bidder, 25));
+
+            assertThat(exception.getMessage()).isEqualTo("Too many bids are waiting, please try again later.");
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.Bid;
+import com.pc.greenbay.repository.BidRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class BidWriterServiceTests {
+
+    @Mock
+    private BidRepository bidRepository;
+
+    private BidWriterServiceImpl bidWriterService;
+
+    @AfterEach
+    void cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        if (bidWriterService != null) {
+            bidWriterService.shutdown();
+        }
+    }
+
+    private BidWriterServiceImpl writer(boolean enabled, long windowMillis) {
+        bidWriterService = new BidWriterServiceImpl(bidRepository, null, enabled, windowMillis, 200, 2000, new SimpleMeterRegistry());
+        return bidWriterService;
+    }
+
+    @Test
+    @DisplayName("JUnit test for write bid method with group commit disabled")
+    void givenGroupCommitDisabled_whenWriteBid_thenSaveDirectly() {
+        Bid bid = new Bid(null, null, 10);
+
+        TransactionSynchronizationManager.initSynchronization();
+        writer(false, 2).writeBid(bid);
+
+        verify(bidRepository, times(1)).save(bid);
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("JUnit test for write bid method deferred until the transaction commits")
+    void givenGroupCommitEnabled_whenWriteBid_thenInsertBeforeCommit() {
+        Bid bid = new Bid(null, null, 10);
+        willAnswer(invocation -> invocation.getArgument(0)).given(bidRepository).saveAll(anyList());
+
+        TransactionSynchronizationManager.initSynchronization();
+        writer(true, 2).writeBid(bid);
+
+        verify(bidRepository, never()).saveAll(anyList());
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertThat(synchronizations).hasSize(1);
+
+        synchronizations.get(0).beforeCommit(false);
+
+        verify(bidRepository, times(1)).saveAll(List.of(bid));
+        verify(bidRepository, never()).save(any(Bid.class));
+    }
+
+    @Test
+    @DisplayName("JUnit test for concurrent bids written in one batch")
+    void givenBidsWithinWindow_whenSubmitted_thenWriteOneBatch() throws Exception {
+        willAnswer(invocation -> invocation.getArgument(0)).given(bidRepository).saveAll(anyList());
+        BidWriterServiceImpl writer = writer(true, 300);
+
+        List<CompletableFuture<Bid>> written = List.of(
+                writer.submit(new Bid(null, null, 10)),
+                writer.submit(new Bid(null, null, 11)),
+                writer.submit(new Bid(null, null, 12)));
+
+        CompletableFuture.allOf(written.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        verify(bidRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("JUnit test for failed batch retried bid by bid")
+    void givenFailingBatch_whenFlush_thenOnlyTheBadBidFails() {
+        Bid goodBid = new Bid(null, null, 10);
+        Bid badBid = new Bid(null, null, 11);
+        given(bidRepository.saveAll(anyList())).willThrow(new DataIntegrityViolationException("Simulated failure"));
+        given(bidRepository.save(goodBid)).willReturn(goodBid);
+        given(bidRepository.save(badBid)).willThrow(new DataIntegrityViolationException("Simulated failure"));
+
+        BidWriterServiceImpl writer = writer(false, 2);
+        CompletableFuture<Bid> goodWritten = new CompletableFuture<>();
+        CompletableFuture<Bid> badWritten = new CompletableFuture<>();
+        writer.flush(List.of(new BidWriterServiceImpl.PendingBid(goodBid, goodWritten),
+                new BidWriterServiceImpl.PendingBid(badBid, badWritten)));
+
+        assertThat(goodWritten).isCompletedWithValue(goodBid);
+        assertThat(badWritten).isCompletedExceptionally();
+    }
+
+    @Test
+    @DisplayName("JUnit test for failed group commit rolling back the calling transaction")
+    void givenFailingBid_whenTransactionCommits_thenThrowDataAccessException() {
+        Bid bid = new Bid(null, null, 10);
+        given(bidRepository.saveAll(anyList())).willThrow(new DataIntegrityViolationException("Simulated failure"));
+        given(bidRepository.save(bid)).willThrow(new DataIntegrityViolationException("Simulated failure"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        writer(true, 2).writeBid(bid);
+
+        TransactionSynchronization synchronization = TransactionSynchronizationManager.getSynchronizations().get(0);
+        DataAccessException exception = assertThrows(DataAccessException.class, () -> synchronization.beforeCommit(false));
+        assertThat(exception.getCause()).isInstanceOf(ExecutionException.class);
+    }
+
+    @Test
+    @DisplayName("JUnit test for a written bid deleted again when its transaction rolls back")
+    void givenWrittenBid_whenTransactionRollsBack_thenDeleteRow() {
+        Bid bid = new Bid(null, null, 10);
+        bid.setId(7L);
+        BidWriterServiceImpl writer = writer(false, 2);
+        CompletableFuture<Bid> written = new CompletableFuture<>();
+        writer.flush(List.of(new BidWriterServiceImpl.PendingBid(bid, written)));
+
+        writer.abandon(written);
+        writer.deleteOrphans();
+
+        verify(bidRepository, times(1)).deleteAllByIdInBatch(List.of(7L));
+    }
+
+    @Test
+    @DisplayName("JUnit test for a queued bid skipped when its request gave up")
+    void givenCancelledBid_whenFlush_thenNothingIsWritten() {
+        BidWriterServiceImpl writer = writer(false, 2);
+        CompletableFuture<Bid> written = new CompletableFuture<>();
+
+        writer.abandon(written);
+        writer.flush(List.of(new BidWriterServiceImpl.PendingBid(new Bid(null, null, 10), written)));
+        writer.deleteOrphans();
+
+        assertThat(written).isCancelled();
+        verify(bidRepository, never()).saveAll(anyList());
+        verify(bidRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    @Test
+    @DisplayName("JUnit test for a bid cancelled while its batch is written being deleted again")
+    void givenBidCancelledDuringFlush_whenFlush_thenDeleteRow() {
+        Bid bid = new Bid(null, null, 10);
+        CompletableFuture<Bid> written = new CompletableFuture<>();
+        willAnswer(invocation -> {
+            bid.setId(8L);
+            written.cancel(false);
+            return invocation.getArgument(0);
+        }).given(bidRepository).saveAll(anyList());
+
+        BidWriterServiceImpl writer = writer(false, 2);
+        writer.flush(List.of(new BidWriterServiceImpl.PendingBid(bid, written)));
+        writer.deleteOrphans();
+
+        verify(bidRepository, times(1)).deleteAllByIdInBatch(List.of(8L));
+    }
+}
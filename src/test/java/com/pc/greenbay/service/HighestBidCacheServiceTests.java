@@ -0,0 +1,104 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.Item;
+import com.pc.greenbay.entity.User;
+import com.pc.greenbay.exception.BidOnOwnItemException;
+import com.pc.greenbay.exception.ItemNotSellableException;
+import com.pc.greenbay.exception.LowBidException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class HighestBidCacheServiceTests {
+
+    private HighestBidCacheServiceImpl highestBidCacheService;
+    private SimpleMeterRegistry meterRegistry;
+    private Item item;
+    private User seller;
+    private UUID bidderId;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        highestBidCacheService = new HighestBidCacheServiceImpl(true, 2, meterRegistry);
+        seller = User.builder()
+                .id(UUID.randomUUID())
+                .username("seller")
+                .build();
+        item = Item.builder()
+                .id(UUID.randomUUID())
+                .startingPrice(10)
+                .purchasePrice(50)
+                .lastBid(20)
+                .sellable(true)
+                .seller(seller)
+                .build();
+        bidderId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("JUnit test for the highest bid cache rejecting too low and own item bids")
+    void givenCachedItem_whenCheckBid_thenRejectHopelessBids() {
+        highestBidCacheService.remember(item);
+
+        assertThrows(LowBidException.class, () -> highestBidCacheService.checkBid(item.getId(), bidderId, 20));
+        assertThrows(LowBidException.class, () -> highestBidCacheService.checkBid(item.getId(), bidderId, 5));
+        assertThrows(BidOnOwnItemException.class, () -> highestBidCacheService.checkBid(item.getId(), seller.getId(), 30));
+        assertThatCode(() -> highestBidCacheService.checkBid(item.getId(), bidderId, 21)).doesNotThrowAnyException();
+        assertThat(meterRegistry.get("greenbay.bid.cache.rejected").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("JUnit test for the highest bid cache letting unknown items through to the database")
+    void givenUnknownItem_whenCheckBid_thenPass() {
+        assertThatCode(() -> highestBidCacheService.checkBid(item.getId(), bidderId, 1)).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("JUnit test for the highest bid cache applying bids only after commit")
+    void givenTransaction_whenRecordBid_thenRaiseAfterCommitOnly() {
+        highestBidCacheService.remember(item);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            highestBidCacheService.recordBid(item.getId(), 30);
+            assertThatCode(() -> highestBidCacheService.checkBid(item.getId(), bidderId, 25)).doesNotThrowAnyException();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThrows(LowBidException.class, () -> highestBidCacheService.checkBid(item.getId(), bidderId, 25));
+    }
+
+    @Test
+    @DisplayName("JUnit test for the highest bid cache marking an item sold and ignoring older reads")
+    void givenPurchase_whenRememberOlderRead_thenStayNotSellable() {
+        highestBidCacheService.remember(item);
+        highestBidCacheService.recordBid(item.getId(), 50);
+
+        highestBidCacheService.remember(item);
+
+        assertThrows(ItemNotSellableException.class, () -> highestBidCacheService.checkBid(item.getId(), bidderId, 60));
+    }
+
+    @Test
+    @DisplayName("JUnit test for the highest bid cache staying within its maximum size")
+    void givenFullCache_whenRemember_thenSkipNewItems() {
+        highestBidCacheService.remember(item);
+        highestBidCacheService.remember(Item.builder().id(UUID.randomUUID()).seller(seller).build());
+        highestBidCacheService.remember(Item.builder().id(UUID.randomUUID()).seller(seller).build());
+
+        assertThat(highestBidCacheService.size()).isEqualTo(2);
+    }
+}
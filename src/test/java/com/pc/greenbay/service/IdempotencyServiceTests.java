@@ -0,0 +1,110 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.IdempotencyRecord;
+import com.pc.greenbay.model.StoredResponse;
+import com.pc.greenbay.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTests {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private IdempotencyServiceImpl service(boolean tableEnabled, int maxEntries) {
+        return new IdempotencyServiceImpl(idempotencyRecordRepository, tableEnabled, 60, maxEntries, new SimpleMeterRegistry());
+    }
+
+    private StoredResponse response(int status) {
+        return new StoredResponse(status, "application/json", null, "{}".getBytes());
+    }
+
+    @Test
+    @DisplayName("JUnit test for claim method on a new and a completed key")
+    void givenCompletedKey_whenClaim_thenReturnStoredResponse() {
+        IdempotencyServiceImpl idempotencyService = service(false, 10);
+
+        assertThat(idempotencyService.claim("key")).isEmpty();
+        Optional<CompletableFuture<StoredResponse>> pending = idempotencyService.claim("key");
+        assertThat(pending).isPresent();
+        assertThat(pending.get()).isNotDone();
+
+        StoredResponse stored = response(200);
+        idempotencyService.complete("key", stored);
+
+        assertThat(pending.get()).isCompletedWithValue(stored);
+        assertThat(idempotencyService.claim("key").orElseThrow()).isCompletedWithValue(stored);
+    }
+
+    @Test
+    @DisplayName("JUnit test for abandon method releasing waiting duplicates")
+    void givenAbandonedKey_whenClaim_thenCallerOwnsKeyAgain() {
+        IdempotencyServiceImpl idempotencyService = service(false, 10);
+        idempotencyService.claim("key");
+        CompletableFuture<StoredResponse> pending = idempotencyService.claim("key").orElseThrow();
+
+        idempotencyService.abandon("key");
+
+        assertThat(pending).isCompletedWithValue(null);
+        assertThat(idempotencyService.claim("key")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("JUnit test for bounded number of remembered keys")
+    void givenMoreKeysThanMaximum_whenClaim_thenEvictOldestCompletedKeys() {
+        IdempotencyServiceImpl idempotencyService = service(false, 2);
+        for (int i = 0; i < 4; i++) {
+            idempotencyService.claim("key" + i);
+            idempotencyService.complete("key" + i, response(200));
+        }
+
+        assertThat(idempotencyService.size()).isLessThanOrEqualTo(3);
+        assertThat(idempotencyService.claim("key0")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("JUnit test for running requests never being evicted")
+    void givenRunningRequests_whenClaimOverMaximum_thenKeepThem() {
+        IdempotencyServiceImpl idempotencyService = service(false, 2);
+        idempotencyService.claim("running");
+        idempotencyService.claim("done");
+        idempotencyService.complete("done", response(200));
+
+        idempotencyService.claim("other");
+
+        assertThat(idempotencyService.size()).isEqualTo(2);
+        assertThat(idempotencyService.claim("running")).isPresent();
+        assertThat(idempotencyService.claim("done")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("JUnit test for responses kept in the table")
+    void givenTableEnabled_whenCompleteAndClaimUnknownKey_thenUseTable() {
+        IdempotencyServiceImpl idempotencyService = service(true, 10);
+        idempotencyService.claim("key");
+        idempotencyService.complete("key", response(201));
+        verify(idempotencyRecordRepository, times(1)).save(any(IdempotencyRecord.class));
+
+        given(idempotencyRecordRepository.findById("other"))
+                .willReturn(Optional.of(new IdempotencyRecord("other", 200, "application/json", null, "{}".getBytes(), Instant.now())));
+
+        CompletableFuture<StoredResponse> stored = idempotencyService.claim("other").orElseThrow();
+
+        assertThat(stored.join().getStatus()).isEqualTo(200);
+    }
+}
@@ -0,0 +1,80 @@
+package com.pc.greenbay.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pc.greenbay.model.ItemCountMode;
+import com.pc.greenbay.repository.ItemRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemCountServiceTests {
+
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private Connection connection;
+    @Mock
+    private DatabaseMetaData metaData;
+
+    private ItemCountServiceImpl countService(String databaseProductName) throws Exception {
+        given(dataSource.getConnection()).willReturn(connection);
+        given(connection.getMetaData()).willReturn(metaData);
+        given(metaData.getDatabaseProductName()).willReturn(databaseProductName);
+        return new ItemCountServiceImpl(itemRepository, jdbcTemplate, dataSource, new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("JUnit test for the item counter seeded once and moved by listings and closes")
+    void givenListedAndClosedItems_whenCountWithCounter_thenCountOnlyOnce() throws Exception {
+        ItemCountServiceImpl itemCountService = countService("H2");
+        given(itemRepository.countBySellableTrue()).willReturn(10L);
+
+        assertThat(itemCountService.countSellable(ItemCountMode.COUNTER)).hasValue(10);
+        itemCountService.itemListed();
+        itemCountService.itemListed();
+        itemCountService.itemClosed();
+
+        assertThat(itemCountService.countSellable(ItemCountMode.COUNTER)).hasValue(11);
+        verify(itemRepository, times(1)).countBySellableTrue();
+    }
+
+    @Test
+    @DisplayName("JUnit test for the item count estimate read from the PostgreSQL planner")
+    void givenPostgres_whenCountWithEstimate_thenReturnPlanRows() throws Exception {
+        ItemCountServiceImpl itemCountService = countService("PostgreSQL");
+        given(jdbcTemplate.queryForObject("explain (format json) select 1 from items where sellable", String.class))
+                .willReturn("[{\"Plan\": {\"Node Type\": \"Seq Scan\", \"Plan Rows\": 1234}}]");
+
+        assertThat(itemCountService.countSellable(ItemCountMode.ESTIMATE)).hasValue(1234);
+        verify(itemRepository, never()).countBySellableTrue();
+    }
+
+    @Test
+    @DisplayName("JUnit test for the item count estimate falling back to the counter and for no count at all")
+    void givenOtherDatabase_whenCountWithEstimateOrNone_thenUseCounterOrNothing() throws Exception {
+        ItemCountServiceImpl itemCountService = countService("H2");
+        given(itemRepository.countBySellableTrue()).willReturn(7L);
+
+        assertThat(itemCountService.countSellable(ItemCountMode.ESTIMATE)).hasValue(7);
+        assertThat(itemCountService.countSellable(ItemCountMode.NONE)).isEqualTo(OptionalLong.empty());
+    }
+}
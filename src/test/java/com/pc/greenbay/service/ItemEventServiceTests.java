@@ -0,0 +1,115 @@
+package com.pc.greenbay.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pc.greenbay.exception.RecordNotFoundException;
+import com.pc.greenbay.exception.TooManyWatchersException;
+import com.pc.greenbay.model.ItemVersion;
+import com.pc.greenbay.repository.ItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemEventServiceTests {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemEventServiceImpl itemEventService;
+    private SimpleMeterRegistry meterRegistry;
+
+    private ItemEventServiceImpl itemEventService(int maxConnections, int maxPerItem) {
+        meterRegistry = new SimpleMeterRegistry();
+        itemEventService = new ItemEventServiceImpl(itemRepository, new ObjectMapper(), maxConnections, maxPerItem,
+                60000, 1, meterRegistry);
+        return itemEventService;
+    }
+
+    @AfterEach
+    void shutdown() {
+        if (itemEventService != null) {
+            itemEventService.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("JUnit test for refusing an event stream of an unknown item")
+    void givenUnknownItem_whenSubscribe_thenThrowRecordNotFound() {
+        ItemEventServiceImpl service = itemEventService(10, 10);
+        given(itemRepository.findVersionById(any(UUID.class))).willReturn(Optional.empty());
+
+        assertThrows(RecordNotFoundException.class, () -> service.subscribe(UUID.randomUUID()));
+        assertThat(service.connections()).isZero();
+    }
+
+    @Test
+    @DisplayName("JUnit test for the limit of watchers of one item")
+    void givenWatchedItem_whenSubscribeBeyondLimit_thenThrowTooManyWatchers() {
+        ItemEventServiceImpl service = itemEventService(10, 1);
+        UUID itemId = UUID.randomUUID();
+        UUID otherItemId = UUID.randomUUID();
+        given(itemRepository.findVersionById(any(UUID.class))).willReturn(Optional.of(new ItemVersion(10, true, 1)));
+
+        service.subscribe(itemId);
+
+        assertThrows(TooManyWatchersException.class, () -> service.subscribe(itemId));
+        service.subscribe(otherItemId);
+        assertThat(service.connections()).isEqualTo(2);
+        assertThat(meterRegistry.get("greenbay.item.events.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("JUnit test for the limit of open event streams")
+    void givenOpenStreams_whenSubscribeBeyondLimit_thenThrowTooManyWatchers() {
+        ItemEventServiceImpl service = itemEventService(1, 10);
+        given(itemRepository.findVersionById(any(UUID.class))).willReturn(Optional.of(new ItemVersion(10, true, 1)));
+
+        service.subscribe(UUID.randomUUID());
+
+        assertThrows(TooManyWatchersException.class, () -> service.subscribe(UUID.randomUUID()));
+        assertThat(service.connections()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("JUnit test for a bid committed while the snapshot is read reaching the new watcher")
+    void givenBidDuringSnapshot_whenSubscribe_thenWatcherGetsTheBid() {
+        ItemEventServiceImpl service = itemEventService(10, 10);
+        UUID itemId = UUID.randomUUID();
+        given(itemRepository.findVersionById(itemId)).willAnswer(invocation -> {
+            service.bidPlaced(itemId, 20);
+            return Optional.of(new ItemVersion(10, true, 1));
+        });
+
+        service.subscribe(itemId);
+
+        assertThat(meterRegistry.get("greenbay.item.events.published").counter().count()).isEqualTo(1);
+        assertThat(service.connections()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("JUnit test for publishing an event once however many streams watch the item")
+    void givenWatchers_whenBidPlaced_thenEventIsPublishedOnce() {
+        ItemEventServiceImpl service = itemEventService(10, 10);
+        UUID itemId = UUID.randomUUID();
+        given(itemRepository.findVersionById(itemId)).willReturn(Optional.of(new ItemVersion(10, true, 1)));
+        service.subscribe(itemId);
+        service.subscribe(itemId);
+
+        service.bidPlaced(itemId, 20);
+        service.bidPlaced(UUID.randomUUID(), 20);
+
+        assertThat(meterRegistry.get("greenbay.item.events.published").counter().count()).isEqualTo(1);
+    }
+}
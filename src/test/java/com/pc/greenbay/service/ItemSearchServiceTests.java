@@ -0,0 +1,132 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.Item;
+import com.pc.greenbay.entity.User;
+import com.pc.greenbay.model.ErrorDTO;
+import com.pc.greenbay.model.response.ItemPageDTO;
+import com.pc.greenbay.repository.ItemRepository;
+import com.pc.greenbay.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(ItemSearchServiceImpl.class)
+public class ItemSearchServiceTests {
+
+    @Autowired
+    private ItemSearchServiceImpl itemSearchService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSource dataSource;
+
+    private User seller;
+
+    @BeforeEach
+    void setup() {
+        seller = userRepository.save(User.builder()
+                .username("seller")
+                .password("password")
+                .balance(100)
+                .roles("ROLE_USER")
+                .build());
+    }
+
+    @Test
+    @DisplayName("JUnit test for item search ranking name matches first and skipping sold items")
+    void givenMatchesInNameAndDescription_whenSearch_thenReturnNameMatchesFirst() {
+        save("Leather case", "Fits every Lenovo tablet", true);
+        save("Lenovo tablet", "Ten inch screen", true);
+        save("Lenovo phone", "Not a tablet", false);
+        save("Lenovo laptop", "Fourteen inch screen", true);
+
+        assertThat(names(itemSearchService.search("TABLET,  lenovo", null))).containsExactly("Lenovo tablet", "Leather case");
+    }
+
+    @Test
+    @DisplayName("JUnit test for item search walking the pages with the cursor")
+    void givenMoreHitsThanPageSize_whenSearchWithCursor_thenReturnEveryHitOnce() {
+        for (String name : new String[]{"Asus notebook", "Dell notebook", "HP notebook", "Acer notebook"}) {
+            save(name, "notebook", true);
+        }
+
+        Map<String, Object> firstPage = body(itemSearchService.search("notebook", null));
+        Map<String, Object> secondPage = body(itemSearchService.search("notebook", (String) firstPage.get("next_cursor")));
+
+        assertThat(names(firstPage)).hasSize(3);
+        assertThat(names(secondPage)).hasSize(1).doesNotContainAnyElementsOf(names(firstPage));
+        assertThat(secondPage.get("next_cursor")).isNull();
+    }
+
+    @Test
+    @DisplayName("JUnit test for item search reusing the page of a normalized query")
+    void givenCachedQuery_whenSearchSameWordsAgain_thenReturnCachedPage() throws Exception {
+        ItemSearchServiceImpl cachingSearchService = new ItemSearchServiceImpl(itemRepository, jdbcTemplate, dataSource, 3, 60000, 10);
+        Item item = save("Apple iPad", "tablet", true);
+
+        Map<String, Object> first = body(cachingSearchService.search("ipad apple", null));
+        item.setSellable(false);
+        itemRepository.save(item);
+        Map<String, Object> second = body(cachingSearchService.search("Apple  IPAD", null));
+
+        assertThat(second).isSameAs(first);
+        assertThat(names(second)).containsExactly("Apple iPad");
+        assertThat(cachingSearchService.cacheSize()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("JUnit test for item search rejecting empty queries and broken cursors")
+    void givenEmptyQueryOrBrokenCursor_whenSearch_thenReturnBadRequest() {
+        ResponseEntity<?> empty = itemSearchService.search(" - ", null);
+        ResponseEntity<?> brokenCursor = itemSearchService.search("tablet", "%%%");
+
+        assertThat(empty.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(empty.getBody()).isEqualTo(new ErrorDTO("Search query is empty."));
+        assertThat(brokenCursor.getBody()).isEqualTo(new ErrorDTO("Invalid cursor."));
+    }
+
+    private Item save(String name, String description, boolean sellable) {
+        return itemRepository.save(Item.builder()
+                .name(name)
+                .description(description)
+                .photoURL("/img/green_fox_logo.png")
+                .startingPrice(10)
+                .purchasePrice(50)
+                .lastBid(0)
+                .sellable(sellable)
+                .seller(seller)
+                .build());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> body(ResponseEntity<?> response) {
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return (Map<String, Object>) response.getBody();
+    }
+
+    private static List<String> names(ResponseEntity<?> response) {
+        return names(body(response));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> names(Map<String, Object> body) {
+        return ((List<ItemPageDTO>) body.get("items")).stream().map(ItemPageDTO::getName).toList();
+    }
+}
@@ -1,5 +1,6 @@
 package com.pc.greenbay.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pc.greenbay.exception.RecordNotFoundException;
 import com.pc.greenbay.entity.Bid;
 import com.pc.greenbay.entity.Item;
@@ -7,13 +8,20 @@ import com.pc.greenbay.entity.Purchase;
 import com.pc.greenbay.model.request.ItemRequestDTO;
 import com.pc.greenbay.model.response.*;
 import com.pc.greenbay.entity.User;
+import com.pc.greenbay.model.ErrorDTO;
+import com.pc.greenbay.model.ItemBidState;
+import com.pc.greenbay.model.ItemCountMode;
+import com.pc.greenbay.model.ItemCursor;
+import com.pc.greenbay.model.ItemSummary;
+import com.pc.greenbay.model.ItemSort;
+import com.pc.greenbay.model.SortedItemCursor;
+import com.pc.greenbay.model.request.ItemFilterDTO;
 import com.pc.greenbay.repository.ItemRepository;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -21,10 +29,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 //import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -41,7 +59,16 @@ public class ItemServiceTests {
     private PurchaseService purchaseService;
     @Mock
     private BidService bidService;
-    @InjectMocks
+    @Mock
+    private AuctionService auctionService;
+    @Mock
+    private ItemCountService itemCountService;
+    @Mock
+    private ResponseCacheService responseCacheService;
+    @Mock
+    private ItemEventService itemEventService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     private ItemServiceImpl itemService;
 
     private Item item;
@@ -49,6 +76,7 @@ public class ItemServiceTests {
 
     @BeforeEach
     void setup() {
+        itemService = itemService(20);
 
         UUID sellerId = UUID.randomUUID();
         seller = User.builder()
@@ -73,6 +101,11 @@ public class ItemServiceTests {
                 .build();
     }
 
+    private ItemServiceImpl itemService(int pageSize) {
+        return new ItemServiceImpl(itemRepository, purchaseService, bidService, auctionService, itemCountService,
+                responseCacheService, itemEventService, objectMapper, 3, pageSize, ItemCountMode.COUNTER);
+    }
+
     @Test
     @DisplayName("JUnit test for save item")
     void givenItemObject_whenSaveItem_thenReturnItemObject() {
@@ -115,6 +148,53 @@ public class ItemServiceTests {
         verify(itemRepository, times(1)).save(item);
     }
 
+    @Test
+    @DisplayName("JUnit test for raise last bid method when the conditional update matches")
+    void givenHigherBid_whenRaiseLastBid_thenReturnApplied() {
+        given(itemRepository.raiseLastBid(item.getId(), 20)).willReturn(1);
+
+        BidUpdateOutcome outcome = itemService.raiseLastBid(item.getId(), 20, false);
+
+        assertThat(outcome).isEqualTo(BidUpdateOutcome.APPLIED);
+        verify(itemRepository, times(0)).findBidStateById(item.getId());
+        verify(itemRepository, times(0)).save(any(Item.class));
+    }
+
+    @Test
+    @DisplayName("JUnit test for raise last bid method when a higher bid is already stored")
+    void givenLowerBid_whenRaiseLastBid_thenReturnOutbid() {
+        given(itemRepository.raiseLastBid(item.getId(), 20)).willReturn(0);
+        given(itemRepository.findBidStateById(item.getId())).willReturn(Optional.of(new ItemBidState(25, true)));
+
+        BidUpdateOutcome outcome = itemService.raiseLastBid(item.getId(), 20, false);
+
+        assertThat(outcome).isEqualTo(BidUpdateOutcome.OUTBID);
+        verify(itemRepository, times(1)).raiseLastBid(item.getId(), 20);
+    }
+
+    @Test
+    @DisplayName("JUnit test for raise last bid method when the item has been sold")
+    void givenSoldItem_whenRaiseLastBidAndClose_thenReturnNotSellable() {
+        given(itemRepository.raiseLastBidAndClose(item.getId(), 60)).willReturn(0);
+        given(itemRepository.findBidStateById(item.getId())).willReturn(Optional.of(new ItemBidState(50, false)));
+
+        BidUpdateOutcome outcome = itemService.raiseLastBid(item.getId(), 60, true);
+
+        assertThat(outcome).isEqualTo(BidUpdateOutcome.NOT_SELLABLE);
+    }
+
+    @Test
+    @DisplayName("JUnit test for raise last bid method when the update keeps missing")
+    void givenContendedItem_whenRaiseLastBid_thenRetryAndGiveUp() {
+        given(itemRepository.raiseLastBid(item.getId(), 20)).willReturn(0);
+        given(itemRepository.findBidStateById(item.getId())).willReturn(Optional.of(new ItemBidState(10, true)));
+
+        BidUpdateOutcome outcome = itemService.raiseLastBid(item.getId(), 20, false);
+
+        assertThat(outcome).isEqualTo(BidUpdateOutcome.RETRIES_EXHAUSTED);
+        verify(itemRepository, times(3)).raiseLastBid(item.getId(), 20);
+    }
+
     @Test
     @DisplayName("JUnit test for get item by id method")
     void givenItemId_whenGetItemById_thenReturnItemObject() {
@@ -155,7 +235,7 @@ public class ItemServiceTests {
                 .build();
 
         int page = 0;
-        Pageable pageable = PageRequest.of(page, 3);
+        Pageable pageable = PageRequest.of(page, 20, Sort.by("createdAt", "id"));
         given(itemRepository.findAllBySellableTrue(pageable)).willReturn(new PageImpl<>(List.of(item, item2, item3)));
 
         Page<Item>  itemPage = itemService.getItemsBySellableTrueAndPage(page);
@@ -164,6 +244,110 @@ public class ItemServiceTests {
         assertThat(itemPage.getContent()).containsExactly(item, item2, item3);
     }
 
+    @Test
+    @DisplayName("JUnit test for paged items method taking the total from the counter")
+    @SuppressWarnings("unchecked")
+    void givenCounterMode_whenGetItemsPaged_thenReturnTotalPagesWithoutCountQuery() {
+        Pageable pageable = PageRequest.of(0, 20);
+        given(itemRepository.findSellableSummaries(pageable)).willReturn(new SliceImpl<>(List.of(summaryOf(item)), pageable, true));
+        given(itemCountService.countSellable(ItemCountMode.COUNTER)).willReturn(OptionalLong.of(45));
+
+        ResponseEntity<?> response = itemService.getItemsPaged(1, ItemCountMode.COUNTER);
+
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(body.get("total_pages")).isEqualTo(3L);
+        assertThat(body.get("has_next")).isEqualTo(true);
+        verify(itemRepository, Mockito.never()).countBySellableTrue();
+    }
+
+    @Test
+    @DisplayName("JUnit test for paged items method without a total")
+    @SuppressWarnings("unchecked")
+    void givenNoneMode_whenGetItemsPaged_thenReturnOnlyWhetherThereIsANextPage() {
+        Pageable pageable = PageRequest.of(1, 20);
+        given(itemRepository.findSellableSummaries(pageable)).willReturn(new SliceImpl<>(List.of(summaryOf(item)), pageable, false));
+        given(itemCountService.countSellable(ItemCountMode.NONE)).willReturn(OptionalLong.empty());
+
+        Map<String, Object> body = (Map<String, Object>) itemService.getItemsPaged(2, ItemCountMode.NONE).getBody();
+
+        assertThat(body).doesNotContainKey("total_pages");
+        assertThat(body.get("has_next")).isEqualTo(false);
+        assertThat((List<ItemPageDTO>) body.get("items")).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("JUnit test for keyset paged items method returning the cursor of the next page")
+    @SuppressWarnings("unchecked")
+    void givenMoreItemsThanPageSize_whenGetItemsAfter_thenReturnPageAndNextCursor() {
+        itemService = itemService(1);
+        item.setCreatedAt(Instant.parse("2024-01-01T10:00:00Z"));
+        Item item2 = Item.builder()
+                .id(UUID.randomUUID())
+                .name("Asus")
+                .photoURL("/img/green_fox_logo.png")
+                .seller(seller)
+                .createdAt(Instant.parse("2024-01-01T11:00:00Z"))
+                .build();
+        given(itemRepository.findSellableFirst(PageRequest.of(0, 2))).willReturn(List.of(summaryOf(item), summaryOf(item2)));
+        given(itemRepository.findSellableAfter(item.getCreatedAt(), item.getId(), PageRequest.of(0, 2))).willReturn(List.of(summaryOf(item2)));
+
+        Map<String, Object> firstPage = (Map<String, Object>) itemService.getItemsAfter(null).getBody();
+        String cursor = (String) firstPage.get("next_cursor");
+        Map<String, Object> secondPage = (Map<String, Object>) itemService.getItemsAfter(cursor).getBody();
+
+        assertThat((List<ItemPageDTO>) firstPage.get("items")).extracting(ItemPageDTO::getName).containsExactly(item.getName());
+        assertThat(ItemCursor.decode(cursor)).isEqualTo(new ItemCursor(item.getCreatedAt(), item.getId()));
+        assertThat((List<ItemPageDTO>) secondPage.get("items")).extracting(ItemPageDTO::getName).containsExactly("Asus");
+        assertThat(secondPage.get("next_cursor")).isNull();
+    }
+
+    private static ItemSummary summaryOf(Item item) {
+        return new ItemSummary(item.getId(), item.getName(), item.getPhotoURL(), item.getLastBid(), item.getPurchasePrice(),
+                item.getSeller().getUsername(), item.getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("JUnit test for sorted items method returning a cursor of its own sort")
+    @SuppressWarnings("unchecked")
+    void givenBidRangeWithoutSort_whenGetItemsSorted_thenSortByBidAndReturnCursor() {
+        itemService = itemService(1);
+        item.setCreatedAt(Instant.parse("2024-01-01T10:00:00Z"));
+        item.setLastBid(30);
+        given(itemRepository.findSellableSorted(ItemSort.BID, 10, null, null, 2)).willReturn(List.of(summaryOf(item), summaryOf(item)));
+
+        Map<String, Object> body = (Map<String, Object>) itemService.getItemsSorted(null, new ItemFilterDTO(10, null, null, null), null).getBody();
+
+        String cursor = (String) body.get("next_cursor");
+        assertThat(SortedItemCursor.decode(cursor, ItemSort.BID)).isEqualTo(new SortedItemCursor(ItemSort.BID, 30, item.getId()));
+        assertThat(SortedItemCursor.decode(cursor, ItemSort.BID_DESC)).isNull();
+    }
+
+    @Test
+    @DisplayName("JUnit test for sorted items method rejecting filters no index can answer")
+    void givenFilterOnAnotherColumnThanTheSort_whenGetItemsSorted_thenReturnBadRequest() {
+        ResponseEntity<?> bidByNewest = itemService.getItemsSorted("newest", new ItemFilterDTO(10, 20, null, null), null);
+        ResponseEntity<?> priceByBid = itemService.getItemsSorted("bid", new ItemFilterDTO(null, null, null, 100), null);
+        ResponseEntity<?> bothRanges = itemService.getItemsSorted(null, new ItemFilterDTO(10, null, null, 100), null);
+        ResponseEntity<?> unknownSort = itemService.getItemsSorted("name", new ItemFilterDTO(), null);
+
+        assertThat(bidByNewest.getBody()).isEqualTo(new ErrorDTO("Filtering by the last bid needs sort=bid or sort=bid_desc."));
+        assertThat(priceByBid.getBody())
+                .isEqualTo(new ErrorDTO("Filtering by the purchase price needs sort=purchase_price or sort=purchase_price_desc."));
+        assertThat(bothRanges.getBody()).isEqualTo(new ErrorDTO("Filter by either the last bid or the purchase price."));
+        assertThat(unknownSort.getBody()).isEqualTo(new ErrorDTO("Invalid sort: name"));
+        verify(itemRepository, Mockito.never()).findSellableSorted(any(), any(), any(), any(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("JUnit test for keyset paged items method when given a malformed cursor")
+    void givenMalformedCursor_whenGetItemsAfter_thenReturnBadRequest() {
+        ResponseEntity<?> response = itemService.getItemsAfter("not-a-cursor");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isEqualTo(new ErrorDTO("Invalid cursor."));
+    }
+
     @Test
     @DisplayName("JUnit test for list items method")
     void givenItemList_whenListItems_thenJsonList() {
@@ -190,7 +374,7 @@ public class ItemServiceTests {
                 .lastBid(0)
                 .seller(seller)
                 .build();
-        given(itemRepository.findAll()).willReturn(List.of(item, item2, item3));
+        given(itemRepository.findItemList()).willReturn(List.of(new ItemListDTO(item), new ItemListDTO(item2), new ItemListDTO(item3)));
 
         List<ItemListDTO> jsonList = itemService.listItems();
 
@@ -201,6 +385,24 @@ public class ItemServiceTests {
         assertThat(jsonList.get(2).getId()).isEqualTo(item3.getId());
     }
 
+    @Test
+    @DisplayName("JUnit test for export items method writing one JSON object per line")
+    void givenItemStream_whenExportItems_thenWriteNdjsonAndCloseStream() throws Exception {
+        boolean[] closed = {false};
+        Stream<ItemListDTO> items = Stream.of(new ItemListDTO(item), new ItemListDTO(item))
+                .onClose(() -> closed[0] = true);
+        given(itemRepository.streamItemList()).willReturn(items);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        itemService.exportItems(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[1], ItemListDTO.class)).isEqualTo(new ItemListDTO(item));
+        assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("}\n");
+        assertThat(closed[0]).isTrue();
+    }
+
     @Test
     @DisplayName("JUnit test for create item method")
     void givenValidItemRequest_whenCreateItem_thenItemResponseDTO() throws Exception {
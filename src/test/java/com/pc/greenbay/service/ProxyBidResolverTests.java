@@ -0,0 +1,83 @@
+package com.pc.greenbay.service;
+
+import com.pc.greenbay.entity.ProxyBid;
+import com.pc.greenbay.entity.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProxyBidResolverTests {
+
+    private final Instant now = Instant.now();
+
+    private ProxyBidResolver.Candidate candidate(String username, int max, Instant createdAt) {
+        User bidder = User.builder().id(UUID.randomUUID()).username(username).balance(1000).build();
+        ProxyBid proxyBid = new ProxyBid(null, bidder, max);
+        proxyBid.setCreatedAt(createdAt);
+        return new ProxyBidResolver.Candidate(proxyBid, max);
+    }
+
+    private List<String> describe(List<ProxyBidResolver.Step> steps) {
+        return steps.stream().map(step -> step.proxy().getBidder().getUsername() + ":" + step.bidAmount()).toList();
+    }
+
+    @Test
+    @DisplayName("JUnit test for single proxy opening at the starting price")
+    void givenSingleProxy_whenResolve_thenBidStartingPrice() {
+        ProxyBidResolver.Candidate alice = candidate("alice", 30, now);
+
+        assertThat(describe(ProxyBidResolver.resolve(0, 10, 50, null, List.of(alice)))).containsExactly("alice:10");
+        assertThat(describe(ProxyBidResolver.resolve(15, 10, 50, null, List.of(alice)))).containsExactly("alice:16");
+    }
+
+    @Test
+    @DisplayName("JUnit test for leading proxy without competition")
+    void givenLeadingProxyAlone_whenResolve_thenNoBid() {
+        ProxyBidResolver.Candidate alice = candidate("alice", 30, now);
+
+        assertThat(ProxyBidResolver.resolve(12, 10, 50, alice.bidderId(), List.of(alice))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("JUnit test for two proxies resolved in one step")
+    void givenTwoProxies_whenResolve_thenWinnerBidsOneAboveRunnerUp() {
+        ProxyBidResolver.Candidate alice = candidate("alice", 30, now);
+        ProxyBidResolver.Candidate bob = candidate("bob", 25, now.minusSeconds(5));
+
+        assertThat(describe(ProxyBidResolver.resolve(10, 10, 50, alice.bidderId(), List.of(bob, alice))))
+                .containsExactly("bob:25", "alice:26");
+    }
+
+    @Test
+    @DisplayName("JUnit test for equal proxies where the earlier one wins")
+    void givenEqualProxies_whenResolve_thenEarlierProxyWins() {
+        ProxyBidResolver.Candidate alice = candidate("alice", 30, now.minusSeconds(5));
+        ProxyBidResolver.Candidate bob = candidate("bob", 30, now);
+
+        assertThat(describe(ProxyBidResolver.resolve(10, 10, 50, bob.bidderId(), List.of(bob, alice))))
+                .containsExactly("alice:30");
+    }
+
+    @Test
+    @DisplayName("JUnit test for proxies reaching the purchase price")
+    void givenProxiesAbovePurchasePrice_whenResolve_thenWinnerBuysAtPurchasePrice() {
+        ProxyBidResolver.Candidate alice = candidate("alice", 80, now);
+        ProxyBidResolver.Candidate bob = candidate("bob", 60, now);
+
+        assertThat(describe(ProxyBidResolver.resolve(10, 10, 50, null, List.of(bob, alice))))
+                .containsExactly("alice:50");
+    }
+
+    @Test
+    @DisplayName("JUnit test for proxies not above the last bid")
+    void givenProxiesBelowLastBid_whenResolve_thenIgnoreThem() {
+        ProxyBidResolver.Candidate alice = candidate("alice", 20, now);
+
+        assertThat(ProxyBidResolver.resolve(20, 10, 50, null, List.of(alice))).isEmpty();
+    }
+}
@@ -0,0 +1,288 @@
+package com.pc.greenbay.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pc.greenbay.model.ListingVersion;
+import com.pc.greenbay.model.ResponseCacheKey;
+import com.pc.greenbay.model.request.ItemFilterDTO;
+import com.pc.greenbay.model.response.ItemPageDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ResponseCacheServiceTests {
+
+    private ResponseCacheServiceImpl responseCacheService;
+    private SimpleMeterRegistry meterRegistry;
+    private ItemService itemService;
+    private ObjectMapper objectMapper;
+    private AtomicInteger loads;
+    private UUID itemId;
+    private UUID otherItemId;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        itemService = mock(ItemService.class);
+        objectMapper = new ObjectMapper();
+        responseCacheService = new ResponseCacheServiceImpl(itemService, objectMapper, meterRegistry, true, 60_000, 1_000_000, 3, 1024, 2);
+        loads = new AtomicInteger();
+        itemId = UUID.randomUUID();
+        otherItemId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("JUnit test for serving the second request from the response cache")
+    void givenCachedResponse_whenGetOrLoad_thenLoaderRunsOnce() {
+        ResponseCacheKey key = ResponseCacheKey.details(itemId);
+
+        ResponseEntity<?> first = responseCacheService.getOrLoad(key, false, () -> load(Map.of("name", "item1")));
+        ResponseEntity<?> second = responseCacheService.getOrLoad(key, false, () -> load(Map.of("name", "changed")));
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(new String((byte[]) second.getBody())).isEqualTo("{\"name\":\"item1\"}");
+        assertThat(second.getBody()).isEqualTo(first.getBody());
+        assertThat(meterRegistry.get("greenbay.response-cache.hits").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("greenbay.response-cache.misses").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("JUnit test for not caching error responses")
+    void givenBadRequest_whenGetOrLoad_thenNothingIsCached() {
+        ResponseCacheKey key = listing(null, "broken");
+
+        ResponseEntity<?> response = responseCacheService.getOrLoad(key, false, () -> {
+            loads.incrementAndGet();
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid cursor."));
+        });
+        responseCacheService.getOrLoad(key, false, () -> load(Map.of("items", List.of())));
+
+        assertThat(response.getStatusCode().value()).isEqualTo(400);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("JUnit test for a bid dropping only the pages showing the item and the bid ordered pages")
+    void givenCachedListings_whenItemBid_thenOnlyAffectedEntriesAreDropped() {
+        ResponseCacheKey showing = listing(null, null);
+        ResponseCacheKey notShowing = listing(null, "cursor");
+        ResponseCacheKey byBid = ResponseCacheKey.listing(null, null, null, "bid_desc", new ItemFilterDTO());
+        responseCacheService.getOrLoad(showing, false, () -> load(page(itemId)));
+        responseCacheService.getOrLoad(notShowing, false, () -> load(page(otherItemId)));
+        responseCacheService.getOrLoad(byBid, false, () -> load(page(otherItemId)));
+
+        responseCacheService.itemBid(itemId);
+
+        responseCacheService.getOrLoad(showing, false, () -> load(page(itemId)));
+        responseCacheService.getOrLoad(notShowing, false, () -> load(page(otherItemId)));
+        responseCacheService.getOrLoad(byBid, false, () -> load(page(otherItemId)));
+        assertThat(loads.get()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("JUnit test for a new item dropping the listings but keeping the item details")
+    void givenCachedResponses_whenItemCreated_thenListingsAreDropped() {
+        ResponseCacheKey details = ResponseCacheKey.details(itemId);
+        ResponseCacheKey listing = listing(1, null);
+        responseCacheService.getOrLoad(details, false, () -> load(Map.of("name", "item1")));
+        responseCacheService.getOrLoad(listing, false, () -> load(page(itemId)));
+
+        responseCacheService.itemCreated();
+
+        responseCacheService.getOrLoad(details, false, () -> load(Map.of("name", "item1")));
+        responseCacheService.getOrLoad(listing, false, () -> load(page(itemId)));
+        assertThat(loads.get()).isEqualTo(3);
+        assertThat(responseCacheService.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("JUnit test for not storing a response loaded before an invalidation")
+    void givenInvalidationDuringLoad_whenGetOrLoad_thenResponseIsNotStored() {
+        ResponseCacheKey details = ResponseCacheKey.details(itemId);
+
+        ResponseEntity<?> response = responseCacheService.getOrLoad(details, false, () -> {
+            responseCacheService.itemBid(itemId);
+            return load(Map.of("lastBid", 10));
+        });
+
+        assertThat(response.getBody()).isInstanceOf(byte[].class);
+        assertThat(responseCacheService.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("JUnit test for storing a response loaded while an item it does not show changed")
+    void givenUnrelatedInvalidationDuringLoad_whenGetOrLoad_thenResponseIsStored() {
+        ResponseCacheKey details = ResponseCacheKey.details(itemId);
+        ResponseCacheKey listing = listing(null, null);
+
+        responseCacheService.getOrLoad(details, false, () -> {
+            responseCacheService.itemBid(otherItemId);
+            return load(Map.of("lastBid", 10));
+        });
+        responseCacheService.getOrLoad(listing, false, () -> {
+            responseCacheService.itemBid(otherItemId);
+            return load(page(itemId));
+        });
+
+        assertThat(responseCacheService.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("JUnit test for not storing a bid ordered listing loaded while any item was bid on")
+    void givenBidDuringLoad_whenGetOrLoadBidOrderedListing_thenResponseIsNotStored() {
+        ResponseCacheKey byBid = ResponseCacheKey.listing(null, null, null, "bid_desc", new ItemFilterDTO());
+
+        responseCacheService.getOrLoad(byBid, false, () -> {
+            responseCacheService.itemBid(otherItemId);
+            return load(page(itemId));
+        });
+
+        assertThat(responseCacheService.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("JUnit test for reloading a response older than the ttl")
+    void givenExpiredResponse_whenGetOrLoad_thenLoaderRunsAgain() throws InterruptedException {
+        responseCacheService = new ResponseCacheServiceImpl(itemService, objectMapper, meterRegistry, true, 20, 1_000_000, 3, 1024, 2);
+        ResponseCacheKey details = ResponseCacheKey.details(itemId);
+        responseCacheService.getOrLoad(details, false, () -> load(Map.of("lastBid", 10)));
+
+        Thread.sleep(50);
+        ResponseEntity<?> response = responseCacheService.getOrLoad(details, false, () -> load(Map.of("lastBid", 20)));
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(new String((byte[]) response.getBody())).isEqualTo("{\"lastBid\":20}");
+    }
+
+    @Test
+    @DisplayName("JUnit test for keeping the listing ETag until an item changes on this node")
+    void givenLoadedListingETag_whenItemBid_thenETagIsReadAgain() {
+        given(itemService.getListingVersion()).willReturn(new ListingVersion(2, 2, 10), new ListingVersion(2, 2, 25));
+
+        String first = responseCacheService.listingETag();
+        String second = responseCacheService.listingETag();
+        responseCacheService.itemBid(itemId);
+        String third = responseCacheService.listingETag();
+
+        assertThat(first).isEqualTo("\"2-2-10\"").isEqualTo(second);
+        assertThat(third).isEqualTo("\"2-2-25\"");
+        verify(itemService, times(2)).getListingVersion();
+    }
+
+    @Test
+    @DisplayName("JUnit test for reading the listing ETag again once the ttl passed")
+    void givenExpiredListingETag_whenListingETag_thenETagIsReadAgain() throws InterruptedException {
+        responseCacheService = new ResponseCacheServiceImpl(itemService, objectMapper, meterRegistry, true, 20, 1_000_000, 3, 1024, 2);
+        given(itemService.getListingVersion()).willReturn(new ListingVersion(2, 2, 10), new ListingVersion(3, 3, 10));
+
+        String first = responseCacheService.listingETag();
+        Thread.sleep(50);
+        String second = responseCacheService.listingETag();
+
+        assertThat(first).isEqualTo("\"2-2-10\"");
+        assertThat(second).isEqualTo("\"3-3-10\"");
+    }
+
+    @Test
+    @DisplayName("JUnit test for reloading details cached under another version")
+    void givenDetailsOfOlderVersion_whenGetOrLoad_thenLoaderRunsAgain() {
+        responseCacheService.getOrLoad(ResponseCacheKey.details(itemId, "\"10-open-1\""), false, () -> load(Map.of("lastBid", 10)));
+
+        ResponseEntity<?> response = responseCacheService.getOrLoad(ResponseCacheKey.details(itemId, "\"20-open-2\""), false,
+                () -> load(Map.of("lastBid", 20)));
+        responseCacheService.getOrLoad(ResponseCacheKey.details(itemId, "\"20-open-2\""), false, () -> load(Map.of("lastBid", 30)));
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(new String((byte[]) response.getBody())).isEqualTo("{\"lastBid\":20}");
+        assertThat(responseCacheService.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("JUnit test for evicting the least recently used response")
+    void givenFullCache_whenGetOrLoad_thenLeastRecentlyUsedIsEvicted() {
+        ResponseCacheKey first = listing(1, null);
+        ResponseCacheKey second = listing(2, null);
+        ResponseCacheKey third = listing(3, null);
+        ResponseCacheKey fourth = listing(4, null);
+        responseCacheService.getOrLoad(first, false, () -> load(page(itemId)));
+        responseCacheService.getOrLoad(second, false, () -> load(page(itemId)));
+        responseCacheService.getOrLoad(third, false, () -> load(page(itemId)));
+        responseCacheService.getOrLoad(first, false, () -> load(page(itemId)));
+
+        responseCacheService.getOrLoad(fourth, false, () -> load(page(itemId)));
+        responseCacheService.getOrLoad(first, false, () -> load(page(itemId)));
+        responseCacheService.getOrLoad(second, false, () -> load(page(itemId)));
+
+        assertThat(loads.get()).isEqualTo(5);
+        assertThat(responseCacheService.size()).isEqualTo(3);
+        assertThat(meterRegistry.get("greenbay.response-cache.evictions").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("JUnit test for sending the gzip compressed body to clients accepting it")
+    void givenLargeBody_whenGetOrLoadWithGzip_thenCompressedBodyIsSent() throws IOException {
+        ResponseCacheKey details = ResponseCacheKey.details(itemId);
+        Map<String, String> body = Map.of("description", "a".repeat(4000));
+
+        ResponseEntity<?> plain = responseCacheService.getOrLoad(details, false, () -> load(body));
+        ResponseEntity<?> compressed = responseCacheService.getOrLoad(details, true, () -> load(body));
+
+        assertThat(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(compressed.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(compressed.getHeaders().getFirst(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        byte[] gzip = (byte[]) compressed.getBody();
+        assertThat(gzip.length).isLessThan(((byte[]) plain.getBody()).length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertThat(in.readAllBytes()).isEqualTo(plain.getBody());
+        }
+    }
+
+    @Test
+    @DisplayName("JUnit test for warming up the first cursor pages")
+    void givenCursorPages_whenWarmUp_thenFirstPagesAreCached() {
+        given(itemService.getItemsAfter(isNull())).willAnswer(invocation -> load(Map.of("items", List.of(), "next_cursor", "next")));
+        given(itemService.getItemsAfter("next")).willAnswer(invocation -> load(Map.of("items", List.of())));
+        given(itemService.getItemsPaged(any(Integer.class), isNull())).willAnswer(invocation -> ResponseEntity.badRequest().build());
+
+        responseCacheService.warmUp();
+
+        responseCacheService.getOrLoad(listing(null, null), false, () -> load(Map.of("items", List.of())));
+        responseCacheService.getOrLoad(listing(null, "next"), false, () -> load(Map.of("items", List.of())));
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(responseCacheService.size()).isEqualTo(2);
+    }
+
+    private ResponseEntity<?> load(Object body) {
+        loads.incrementAndGet();
+        return ResponseEntity.ok(body);
+    }
+
+    private static Map<String, Object> page(UUID... itemIds) {
+        return Map.of("items", Arrays.stream(itemIds)
+                .map(id -> new ItemPageDTO(id, "item", "url", 0, "seller"))
+                .toList());
+    }
+
+    private static ResponseCacheKey listing(Integer page, String after) {
+        return ResponseCacheKey.listing(page, after, null, null, new ItemFilterDTO());
+    }
+}
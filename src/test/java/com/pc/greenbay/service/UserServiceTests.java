@@ -1,5 +1,7 @@
 package com.pc.greenbay.service;
 
+import com.pc.greenbay.exception.BalanceBelowReservedException;
+import com.pc.greenbay.model.MessageDTO;
 import com.pc.greenbay.model.response.UserDTO;
 import com.pc.greenbay.entity.User;
 import com.pc.greenbay.repository.UserRepository;
@@ -79,19 +81,33 @@ public class UserServiceTests {
     @DisplayName("JUnit test for update user method")
     void givenUserObject_whenUpdateBalance_thenReturnUpdatedUser () throws Exception {
 
+        given(userRepository.updateBalance("user1", 200)).willReturn(1);
+
+        MessageDTO message = userService.updateBalance("user1", 200);
+
+        assertThat(message.getMessage()).isEqualTo("Balance successfully updated to 200.0");
+        verify(userRepository, times(1)).updateBalance("user1", 200);
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    @DisplayName("JUnit test for update user method refusing a balance below the reserved bids")
+    void givenReservedBalance_whenUpdateBalanceBelowIt_thenThrowException() {
+
+        user.setReservedBalance(150);
+        given(userRepository.updateBalance("user1", 100)).willReturn(0);
         given(userRepository.findByUsername("user1")).willReturn(Optional.of(user));
-        user.setBalance(200);
 
-        userService.updateBalance("user1", 200);
+        org.junit.jupiter.api.Assertions.assertThrows(BalanceBelowReservedException.class, () -> userService.updateBalance("user1", 100));
 
-        assertThat(user.getBalance()).isEqualTo(200);
-        verify(userRepository, times(1)).save(user);
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
     @DisplayName("JUnit test for update user method throws Exception")
     void givenUserObject_whenUpdateBalance_thenThrowException () throws Exception {
 
+        given(userRepository.updateBalance("user2", 200)).willReturn(0);
         given(userRepository.findByUsername("user2")).willReturn(Optional.empty());
 
         org.junit.jupiter.api.Assertions.assertThrows(Exception.class, () -> userService.updateBalance("user2", 200));